@@ -0,0 +1,63 @@
+package com.xunim.paymentsystem.benchmark;
+
+import com.xunim.paymentsystem.util.AccountNumberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração de números de conta: formatação com dígito verificador a partir de blocos reservados
+ * na tabela {@code account_number_seq}, aqui em um H2 em memória. Com {@code blockSize} pequeno
+ * a reserva de bloco (transação própria + {@code SELECT ... FOR UPDATE}) aparece no resultado.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="AccountNumberBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountNumberBenchmark {
+
+    @Param({"100", "10000"})
+    private int blockSize;
+
+    private AccountNumberGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:account_number_bench_" + blockSize + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account_number_seq (next_val BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO account_number_seq (next_val) VALUES (1000000)");
+        generator = new AccountNumberGenerator(jdbcTemplate, new DataSourceTransactionManager(dataSource), blockSize);
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.generateAccountNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateContended() {
+        return generator.generateAccountNumber();
+    }
+}
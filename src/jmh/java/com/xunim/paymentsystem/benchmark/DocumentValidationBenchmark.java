@@ -0,0 +1,78 @@
+package com.xunim.paymentsystem.benchmark;
+
+import com.xunim.paymentsystem.util.ValidationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de CPF e CNPJ do cadastro de usuários. Cada invocação valida um documento de uma
+ * mistura fixa (válido, dígito verificador errado, dígitos repetidos, com caractere não numérico),
+ * para o JIT não especializar o código em um único caminho. {@code batch} valida um arquivo de
+ * cadastro de {@value #BATCH_SIZE} linhas com CPFs e CNPJs, com e sem máscara; o score é por documento.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="DocumentValidationBenchmark -prof gc"}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentValidationBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final String[] CPFS = {"11144477735", "11144477736", "22222222222", "1114447773X"};
+    private static final String[] CNPJS = {"11222333000181", "11222333000182", "99999999999999", "1122233300018X"};
+    private static final String[] MASKED_CPFS = {"111.444.777-35", "111.444.777-36", "222.222.222-22", "111.444.777-3X"};
+
+    private final ValidationUtils validationUtils = new ValidationUtils();
+    private final List<String> batch = new ArrayList<>(BATCH_SIZE);
+    private int index;
+
+    public DocumentValidationBenchmark() {
+        String[] formatted = {"11.222.333/0001-81", "123.456.789-09"};
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String[] source = switch (i % 3) {
+                case 0 -> CPFS;
+                case 1 -> CNPJS;
+                default -> formatted;
+            };
+            batch.add(source[i % source.length]);
+        }
+    }
+
+    @Benchmark
+    public boolean cpf() {
+        return validationUtils.isValidCPF(CPFS[index++ & 3]);
+    }
+
+    @Benchmark
+    public boolean cnpj() {
+        return validationUtils.isValidCNPJ(CNPJS[index++ & 3]);
+    }
+
+    @Benchmark
+    public boolean maskedCpf() {
+        return validationUtils.isValidCPF(MASKED_CPFS[index++ & 3]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BitSet batch() {
+        return validationUtils.findInvalidDocuments(batch);
+    }
+}
@@ -0,0 +1,77 @@
+package com.xunim.paymentsystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de {@link PaymentResponseDTO} com um {@code ObjectMapper} montado como o do
+ * Spring Boot (módulo java.time, datas em ISO-8601): um pagamento e uma página de histórico.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="PaymentJsonBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentJsonBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final ObjectWriter writer = Jackson2ObjectMapperBuilder.json().build().writer();
+    private final PaymentResponseDTO payment = payment(1L);
+    private final List<PaymentResponseDTO> page = new ArrayList<>(PAGE_SIZE);
+
+    public PaymentJsonBenchmark() {
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(payment(id));
+        }
+    }
+
+    @Benchmark
+    public byte[] single() throws JsonProcessingException {
+        return writer.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public byte[] page() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    private static PaymentResponseDTO payment(long id) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 12, 0).plusSeconds(id);
+        return PaymentResponseDTO.builder()
+                .id(id)
+                .fromAccountId(10L)
+                .toAccountId(11L)
+                .amount(new BigDecimal("150.75"))
+                .paymentType(PaymentType.PIX)
+                .status(PaymentStatus.COMPLETED)
+                .description("Pagamento " + id)
+                .externalId("EXT-" + id)
+                .transactionId("TXN-0ABCDEFGHJK" + id)
+                .createdAt(createdAt)
+                .processedAt(createdAt.plusNanos(350_000_000))
+                .build();
+    }
+}
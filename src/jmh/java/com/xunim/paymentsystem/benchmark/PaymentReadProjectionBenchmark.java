@@ -0,0 +1,165 @@
+package com.xunim.paymentsystem.benchmark;
+
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.entity.User;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import com.xunim.paymentsystem.util.TransactionIdGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura de pagamentos por status como os endpoints faziam (entidades gerenciadas + conversão
+ * para DTO) contra a projeção por construtor usada agora. Cada invocação abre seu próprio
+ * EntityManager, como uma requisição com open-in-view, sobre um H2 em memória com
+ * {@code rows} pagamentos no status consultado.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="PaymentReadProjectionBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentReadProjectionBenchmark {
+
+    private static final String ENTITY_QUERY = "SELECT p FROM Payment p WHERE p.status = :status";
+    private static final String PROJECTION_QUERY = PaymentRepository.RESPONSE_SELECT + "WHERE p.status = :status";
+
+    @Param({"50", "500"})
+    private int rows;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:projection_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.xunim.paymentsystem.entity");
+        factory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "hibernate.jdbc.batch_size", "50"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public List<PaymentResponseDTO> entityThenMap() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Payment> payments = entityManager.createQuery(ENTITY_QUERY, Payment.class)
+                    .setParameter("status", PaymentStatus.COMPLETED)
+                    .getResultList();
+            List<PaymentResponseDTO> responses = new ArrayList<>(payments.size());
+            for (Payment payment : payments) {
+                responses.add(convertToResponse(payment));
+            }
+            return responses;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Benchmark
+    public List<PaymentResponseDTO> projection() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery(PROJECTION_QUERY, PaymentResponseDTO.class)
+                    .setParameter("status", PaymentStatus.COMPLETED)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    // Mesma conversão de PaymentServiceImpl antes das projeções
+    private static PaymentResponseDTO convertToResponse(Payment payment) {
+        return PaymentResponseDTO.builder()
+                .id(payment.getId())
+                .fromAccountId(payment.getFromAccount() != null ? payment.getFromAccount().getId() : null)
+                .toAccountId(payment.getToAccount() != null ? payment.getToAccount().getId() : null)
+                .amount(payment.getAmount())
+                .paymentType(payment.getPaymentType())
+                .status(payment.getStatus())
+                .description(payment.getDescription())
+                .externalId(payment.getExternalId())
+                .transactionId(payment.getTransactionId())
+                .createdAt(payment.getCreatedAt())
+                .processedAt(payment.getProcessedAt())
+                .build();
+    }
+
+    private void seed() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+
+        User user = User.builder()
+                .email("bench@email.com")
+                .document("11144477735")
+                .fullName("Benchmark")
+                .build();
+        entityManager.persist(user);
+
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Account account = Account.builder()
+                    .user(user)
+                    .accountNumber("001-" + (1000000 + i))
+                    .build();
+            entityManager.persist(account);
+            accounts.add(account);
+        }
+
+        TransactionIdGenerator transactionIds = new TransactionIdGenerator(0);
+        for (int i = 0; i < rows * 2; i++) {
+            entityManager.persist(Payment.builder()
+                    .fromAccount(accounts.get(i % accounts.size()))
+                    .toAccount(accounts.get((i + 1) % accounts.size()))
+                    .amount(new BigDecimal("10.00"))
+                    .paymentType(PaymentType.PIX)
+                    .status(i % 2 == 0 ? PaymentStatus.COMPLETED : PaymentStatus.PENDING)
+                    .description("Pagamento " + i)
+                    .transactionId(transactionIds.nextTransactionId())
+                    .build());
+        }
+
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+}
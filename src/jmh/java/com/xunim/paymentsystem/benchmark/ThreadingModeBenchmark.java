@@ -0,0 +1,103 @@
+package com.xunim.paymentsystem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara platform threads (pool fixo no tamanho padrão do Tomcat) com virtual threads para
+ * uma rajada de requisições bloqueantes no formato do pagamento: consultas no MySQL por um pool
+ * de conexões de tamanho fixo, seguidas de I/O fora do pool (MongoDB, Redis, RabbitMQ).
+ * Os dois modos usam o mesmo pool de conexões.
+ * <p>
+ * O modo {@code virtual} exige Java 21:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ThreadingModeBenchmark -jvmArgsAppend -Djdk.tracePinnedThreads=short"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadingModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threading;
+
+    @Param({"10", "50"})
+    private int connectionPoolSize;
+
+    @Param({"2000"})
+    private int requests;
+
+    @Param({"2"})
+    private long databaseMillis;
+
+    @Param({"3"})
+    private long remoteMillis;
+
+    private Executor executor;
+    private Semaphore connectionPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threading)
+                ? new VirtualThreadTaskExecutor("bench-")
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        connectionPool = new Semaphore(connectionPoolSize, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    handleRequest();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void handleRequest() throws InterruptedException {
+        connectionPool.acquire();
+        try {
+            Thread.sleep(databaseMillis);
+        } finally {
+            connectionPool.release();
+        }
+        Thread.sleep(remoteMillis);
+    }
+}
@@ -0,0 +1,54 @@
+package com.xunim.paymentsystem.benchmark;
+
+import com.xunim.paymentsystem.util.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o gerador antigo ({@code "TXN-" + UUID + millis}) com o {@link TransactionIdGenerator}.
+ * Executar com {@code mvn -Pjmh test-compile exec:exec -Djmh.args="TransactionIdBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionIdBenchmark {
+
+    private final TransactionIdGenerator generator = new TransactionIdGenerator(1);
+
+    @Benchmark
+    public String uuidBased() {
+        return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase() +
+                "-" + System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return generator.nextTransactionId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidBasedContended() {
+        return uuidBased();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String snowflakeContended() {
+        return generator.nextTransactionId();
+    }
+}
@@ -0,0 +1,98 @@
+package com.xunim.paymentsystem.service.impl;
+
+import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.dto.response.UserResponseDTO;
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.entity.User;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de entidade para DTO de resposta nos serviços. Fica no pacote dos serviços para
+ * chamar os mesmos métodos {@code convertToResponse} usados pelos endpoints.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ResponseMappingBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private final User user;
+    private final Account account;
+    private final Payment payment;
+
+    public ResponseMappingBenchmark() {
+        LocalDateTime now = LocalDateTime.now();
+        user = User.builder()
+                .id(1L)
+                .email("joao@email.com")
+                .document("11144477735")
+                .fullName("João Silva")
+                .phone("11999999999")
+                .isActive(true)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        account = account(10L, "001-1000000-1");
+        user.setAccounts(List.of(account, account(11L, "001-1000001-8")));
+        payment = Payment.builder()
+                .id(100L)
+                .fromAccount(account)
+                .toAccount(user.getAccounts().get(1))
+                .amount(new BigDecimal("150.75"))
+                .paymentType(PaymentType.PIX)
+                .status(PaymentStatus.COMPLETED)
+                .description("Pagamento de teste")
+                .externalId("EXT-123")
+                .transactionId("TXN-0ABCDEFGHJKMN")
+                .createdAt(now)
+                .processedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public PaymentResponseDTO payment() {
+        return PaymentServiceImpl.convertToResponse(payment);
+    }
+
+    @Benchmark
+    public AccountResponseDTO account() {
+        return AccountServiceImpl.convertToResponse(account, account.getBalance());
+    }
+
+    @Benchmark
+    public UserResponseDTO userWithAccounts() {
+        return UserServiceImpl.convertToResponse(user);
+    }
+
+    private Account account(Long id, String number) {
+        return Account.builder()
+                .id(id)
+                .user(user)
+                .accountNumber(number)
+                .balance(new BigDecimal("1000.00"))
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
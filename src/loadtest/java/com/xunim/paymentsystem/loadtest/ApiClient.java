@@ -0,0 +1,92 @@
+package com.xunim.paymentsystem.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Cliente HTTP da API com basic auth, compartilhado pelos usuários virtuais.
+ */
+final class ApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String authorization;
+    private final ObjectMapper objectMapper;
+
+    ApiClient(String baseUrl, String username, String password, ObjectMapper objectMapper) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    HttpRequest post(String path, Object body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json(body)))
+                .build();
+    }
+
+    HttpRequest patch(String path) {
+        return request(path).method("PATCH", HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Envia uma requisição de preparação do cenário, que não pode falhar, e devolve o ID criado.
+     */
+    long create(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(request);
+        if (!isSuccess(response)) {
+            throw new IllegalStateException("Falha ao preparar o cenário: " + request.method() + " " +
+                    request.uri() + " -> HTTP " + response.statusCode() + " " + response.body());
+        }
+        return createdId(response);
+    }
+
+    long createdId(HttpResponse<String> response) throws JsonProcessingException {
+        return objectMapper.readTree(response.body()).path("id").asLong();
+    }
+
+    static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json");
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
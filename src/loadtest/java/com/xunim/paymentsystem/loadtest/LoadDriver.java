@@ -0,0 +1,169 @@
+package com.xunim.paymentsystem.loadtest;
+
+import com.xunim.paymentsystem.loadtest.LoadTestProperties.Scenario;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Usuários virtuais disparando o mix do cenário contra a API. Cada um sorteia a operação pelo
+ * peso no mix e espera a resposta antes da próxima (malha fechada). Com {@code rate} definido,
+ * cada usuário segue uma agenda fixa e a latência é contada do horário agendado, não do envio:
+ * um servidor lento não reduz a taxa medida nem esconde a fila que formou.
+ * <p>
+ * Amostras do aquecimento são descartadas; latências são gravadas em microssegundos.
+ */
+@Slf4j
+final class LoadDriver {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final ApiClient api;
+    private final ScenarioFixture fixture;
+    private final Scenario scenario;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    private volatile boolean running = true;
+    private volatile boolean recording = false;
+
+    LoadDriver(ApiClient api, ScenarioFixture fixture, Scenario scenario) {
+        this.api = api;
+        this.fixture = fixture;
+        this.scenario = scenario;
+        this.operations = scenario.getMix().keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += Math.max(0, scenario.getMix().get(operations[i]));
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new Stats());
+        }
+        if (total == 0) {
+            throw new IllegalStateException("Mix do cenário sem peso positivo");
+        }
+    }
+
+    LoadReport run(String scenarioName) throws InterruptedException {
+        int concurrency = scenario.getConcurrency();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(concurrency,
+                r -> new Thread(r, "load-vu-" + threadIndex.incrementAndGet()));
+        // Intervalo entre requisições de cada usuário virtual para somar a taxa pedida
+        long intervalNanos = scenario.getRate() > 0
+                ? (long) (concurrency * 1_000_000_000L / scenario.getRate())
+                : 0;
+        for (int i = 0; i < concurrency; i++) {
+            users.execute(() -> virtualUser(intervalNanos));
+        }
+
+        log.info("Cenário {}: aquecimento de {} com {} usuários virtuais", scenarioName, scenario.getWarmup(), concurrency);
+        Thread.sleep(scenario.getWarmup().toMillis());
+
+        recording = true;
+        long start = System.nanoTime();
+        log.info("Cenário {}: medindo por {}", scenarioName, scenario.getDuration());
+        Thread.sleep(scenario.getDuration().toMillis());
+        recording = false;
+        long elapsedNanos = System.nanoTime() - start;
+
+        running = false;
+        users.shutdown();
+        if (!users.awaitTermination(1, TimeUnit.MINUTES)) {
+            users.shutdownNow();
+        }
+
+        Map<Operation, LoadReport.Sample> samples = new EnumMap<>(Operation.class);
+        stats.forEach((operation, s) -> samples.put(operation, s.toSample()));
+        return LoadReport.evaluate(scenarioName, scenario, samples, elapsedNanos);
+    }
+
+    private void virtualUser(long intervalNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Início espalhado dentro do primeiro intervalo para não sincronizar os usuários
+        long scheduled = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+        while (running) {
+            if (intervalNanos > 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            Operation operation = pick(random);
+            HttpRequest request = fixture.request(operation, random);
+            if (request == null) {
+                continue;
+            }
+
+            long start = intervalNanos > 0 ? scheduled : System.nanoTime();
+            execute(operation, request, start);
+            scheduled += intervalNanos;
+        }
+    }
+
+    private void execute(Operation operation, HttpRequest request, long start) {
+        Stats s = stats.get(operation);
+        try {
+            HttpResponse<String> response = api.send(request);
+            long latencyMicros = (System.nanoTime() - start) / 1_000;
+            if (ApiClient.isSuccess(response)) {
+                fixture.completed(operation, response);
+                if (recording) {
+                    s.latencies.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+                }
+            } else if (recording) {
+                s.error("HTTP " + response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (Exception e) {
+            if (recording) {
+                s.error(e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static final class Stats {
+
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> errorCauses = new ConcurrentHashMap<>();
+
+        private void error(String cause) {
+            errors.increment();
+            errorCauses.computeIfAbsent(cause, c -> new LongAdder()).increment();
+        }
+
+        private LoadReport.Sample toSample() {
+            Map<String, Long> causes = new TreeMap<>();
+            errorCauses.forEach((cause, count) -> causes.put(cause, count.sum()));
+            return new LoadReport.Sample(latencies, errors.sum(), causes);
+        }
+    }
+}
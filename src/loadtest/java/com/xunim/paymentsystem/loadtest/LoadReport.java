@@ -0,0 +1,153 @@
+package com.xunim.paymentsystem.loadtest;
+
+import com.xunim.paymentsystem.loadtest.LoadTestProperties.Scenario;
+import com.xunim.paymentsystem.loadtest.LoadTestProperties.Target;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de uma execução: throughput e latência (p50, p99, p99.9, máximo) por endpoint,
+ * comparados com as metas do cenário. Qualquer meta não atingida vira uma violação.
+ */
+final class LoadReport {
+
+    record Sample(Histogram latencies, long errors, Map<String, Long> errorCauses) {
+    }
+
+    record EndpointResult(Operation operation, long count, long errors, double throughput,
+                          long p50Micros, long p99Micros, long p999Micros, long maxMicros,
+                          Map<String, Long> errorCauses) {
+
+        double errorRate() {
+            long total = count + errors;
+            return total == 0 ? 0 : (double) errors / total;
+        }
+    }
+
+    private final String scenarioName;
+    private final Duration elapsed;
+    private final List<EndpointResult> results;
+    private final double throughput;
+    private final List<String> violations;
+    private final Map<String, Object> notes = new LinkedHashMap<>();
+
+    private LoadReport(String scenarioName, Duration elapsed, List<EndpointResult> results,
+                       double throughput, List<String> violations) {
+        this.scenarioName = scenarioName;
+        this.elapsed = elapsed;
+        this.results = results;
+        this.throughput = throughput;
+        this.violations = violations;
+    }
+
+    static LoadReport evaluate(String scenarioName, Scenario scenario, Map<Operation, Sample> samples, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        List<EndpointResult> results = new ArrayList<>();
+        List<String> violations = new ArrayList<>();
+        long completed = 0;
+
+        for (Map.Entry<Operation, Sample> entry : samples.entrySet()) {
+            Operation operation = entry.getKey();
+            Histogram latencies = entry.getValue().latencies();
+            EndpointResult result = new EndpointResult(operation, latencies.getTotalCount(), entry.getValue().errors(),
+                    latencies.getTotalCount() / seconds,
+                    latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99),
+                    latencies.getValueAtPercentile(99.9), latencies.getMaxValue(), entry.getValue().errorCauses());
+            results.add(result);
+            completed += result.count();
+
+            String endpoint = operation.getEndpoint();
+            if (result.count() == 0) {
+                violations.add(endpoint + ": nenhuma requisição concluída com sucesso");
+                continue;
+            }
+            if (result.errorRate() > scenario.getMaxErrorRate()) {
+                violations.add(String.format(Locale.ROOT, "%s: %.2f%% de erros, limite %.2f%% %s",
+                        endpoint, result.errorRate() * 100, scenario.getMaxErrorRate() * 100, result.errorCauses()));
+            }
+
+            Target target = scenario.getTargets().get(operation);
+            if (target != null) {
+                checkLatency(violations, endpoint, "p50", result.p50Micros(), target.getP50());
+                checkLatency(violations, endpoint, "p99", result.p99Micros(), target.getP99());
+                checkLatency(violations, endpoint, "p99.9", result.p999Micros(), target.getP999());
+                if (result.throughput() < target.getMinThroughput()) {
+                    violations.add(String.format(Locale.ROOT, "%s: %.1f req/s, meta mínima %.1f req/s",
+                            endpoint, result.throughput(), target.getMinThroughput()));
+                }
+            }
+        }
+
+        for (Operation operation : scenario.getTargets().keySet()) {
+            if (!samples.containsKey(operation)) {
+                violations.add(operation.getEndpoint() + ": meta definida para operação fora do mix");
+            }
+        }
+
+        double throughput = completed / seconds;
+        if (throughput < scenario.getMinThroughput()) {
+            violations.add(String.format(Locale.ROOT, "Total: %.1f req/s, meta mínima %.1f req/s",
+                    throughput, scenario.getMinThroughput()));
+        }
+        return new LoadReport(scenarioName, Duration.ofNanos(elapsedNanos), results, throughput, violations);
+    }
+
+    List<String> violations() {
+        return violations;
+    }
+
+    LoadReport note(String name, Object value) {
+        notes.put(name, value);
+        return this;
+    }
+
+    String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Cenário %s: %.1f s medidos, %.1f req/s%n",
+                scenarioName, elapsed.toMillis() / 1000.0, throughput));
+        out.append(String.format(Locale.ROOT, "%-38s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Req", "Erros", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "Máx ms"));
+        for (EndpointResult result : results) {
+            out.append(String.format(Locale.ROOT, "%-38s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.operation().getEndpoint(), result.count(), result.errors(), result.throughput(),
+                    millis(result.p50Micros()), millis(result.p99Micros()),
+                    millis(result.p999Micros()), millis(result.maxMicros())));
+        }
+        notes.forEach((name, value) -> out.append(name).append(": ").append(value).append(System.lineSeparator()));
+        if (violations.isEmpty()) {
+            out.append("Todas as metas atingidas").append(System.lineSeparator());
+        } else {
+            out.append("Metas não atingidas:").append(System.lineSeparator());
+            violations.forEach(v -> out.append("  - ").append(v).append(System.lineSeparator()));
+        }
+        return out.toString();
+    }
+
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(scenarioName + ".txt");
+        Files.writeString(file, format());
+        return file;
+    }
+
+    private static void checkLatency(List<String> violations, String endpoint, String percentile,
+                                     long actualMicros, Duration limit) {
+        if (limit != null && actualMicros > limit.toNanos() / 1_000) {
+            violations.add(String.format(Locale.ROOT, "%s: %s %.2f ms, meta %d ms",
+                    endpoint, percentile, millis(actualMicros), limit.toMillis()));
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
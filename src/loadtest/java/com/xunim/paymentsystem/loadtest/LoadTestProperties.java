@@ -0,0 +1,63 @@
+package com.xunim.paymentsystem.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cenários de carga de {@code application-loadtest.yml}. O cenário executado vem de
+ * {@code loadtest.scenario}, que pode ser trocado na linha de comando com {@code -Dloadtest.scenario=<nome>}.
+ */
+@Data
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    private String scenario = "smoke";
+    private String username;
+    private String password;
+    private String reportDir = "target/loadtest";
+    private Map<String, Scenario> scenarios = new LinkedHashMap<>();
+
+    public Scenario selectedScenario() {
+        Scenario selected = scenarios.get(scenario);
+        if (selected == null) {
+            throw new IllegalStateException("Cenário de carga desconhecido: " + scenario +
+                    " (disponíveis: " + scenarios.keySet() + ")");
+        }
+        if (selected.getMix().isEmpty()) {
+            throw new IllegalStateException("Cenário de carga sem operações: " + scenario);
+        }
+        return selected;
+    }
+
+    @Data
+    public static class Scenario {
+
+        private int users = 50;
+        private int accountsPerUser = 2;
+        // Parte dos pagamentos destinada às primeiras contas semeadas (contas quentes)
+        private int hotAccounts = 0;
+        private double hotAccountShare = 0;
+        private int concurrency = 8;
+        // Requisições por segundo somando todos os usuários virtuais; 0 = malha fechada, sem pausa
+        private double rate = 0;
+        private Duration warmup = Duration.ofSeconds(5);
+        private Duration duration = Duration.ofSeconds(30);
+        private Map<Operation, Integer> mix = new LinkedHashMap<>();
+        private double maxErrorRate = 0.001;
+        private double minThroughput = 0;
+        private Map<Operation, Target> targets = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Target {
+
+        private Duration p50;
+        private Duration p99;
+        private Duration p999;
+        private double minThroughput = 0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.xunim.paymentsystem.loadtest;
+
+import com.xunim.paymentsystem.repository.mongodb.AuditLogRepository;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Substitutos em processo dos serviços externos, para a carga medir só a aplicação e o banco.
+ * MongoDB: repositório de auditoria que apenas conta os documentos gravados. RabbitMQ: template
+ * que serializa as mensagens e conta por exchange, com confirmação imediata. O Redis não tem
+ * substituto: o profile desliga o uso dele e cada cache fica só na memória local.
+ * <p>
+ * A API é stateless com BCrypt, então a senha do basic auth é verificada a cada requisição; o
+ * mesmo usuário do {@code SecurityConfig} é redefinido com hash de custo 4, senão a verificação
+ * no custo 10 dominaria a latência medida.
+ */
+@TestConfiguration
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestStandIns {
+
+    @Bean
+    public static BeanPostProcessor lowCostUserDetailsService() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof UserDetailsService)) {
+                    return bean;
+                }
+                UserDetailsService users = new InMemoryUserDetailsManager(User.builder()
+                        .username("xunim")
+                        .password("$2a$04$GzfbLx2G0Y96eGhv4Lw8oubOkSzezDG2n.gP/ucCkVa3FcutAy4wC")
+                        .roles("USER")
+                        .build());
+                // Só a consulta: exposto como UserDetailsPasswordService, o hash voltaria ao custo 10 no primeiro login
+                return (UserDetailsService) users::loadUserByUsername;
+            }
+        };
+    }
+
+    @Bean
+    public AuditLogCounter auditLogCounter() {
+        return new AuditLogCounter();
+    }
+
+    @Bean
+    @Primary
+    public AuditLogRepository inMemoryAuditLogRepository(AuditLogCounter counter) {
+        return (AuditLogRepository) Proxy.newProxyInstance(AuditLogRepository.class.getClassLoader(),
+                new Class<?>[]{AuditLogRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "insert", "save", "saveAll" -> counter.store(args[0]);
+                    case "count" -> counter.stored.sum();
+                    case "toString" -> "InMemoryAuditLogRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(
+                            "AuditLogRepository." + method.getName() + " não disponível no teste de carga");
+                });
+    }
+
+    @Bean
+    @Primary
+    public InProcessRabbitTemplate inProcessRabbitTemplate(ConnectionFactory connectionFactory,
+                                                           MessageConverter messageConverter) {
+        InProcessRabbitTemplate template = new InProcessRabbitTemplate(connectionFactory);
+        template.setMessageConverter(messageConverter);
+        return template;
+    }
+
+    public static class AuditLogCounter {
+
+        private final LongAdder stored = new LongAdder();
+
+        public long stored() {
+            return stored.sum();
+        }
+
+        private Object store(Object documents) {
+            if (documents instanceof Iterable<?> iterable) {
+                List<Object> stored = new ArrayList<>();
+                iterable.forEach(stored::add);
+                this.stored.add(stored.size());
+                return stored;
+            }
+            stored.increment();
+            return documents;
+        }
+    }
+
+    /**
+     * A fábrica de conexões só satisfaz o template; nenhuma chamada chega a abrir conexão.
+     */
+    public static class InProcessRabbitTemplate extends RabbitTemplate {
+
+        private final Map<String, LongAdder> published = new ConcurrentHashMap<>();
+
+        public InProcessRabbitTemplate(ConnectionFactory connectionFactory) {
+            super(connectionFactory);
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+            published.computeIfAbsent(exchange, e -> new LongAdder()).increment();
+        }
+
+        @Override
+        public <T> T invoke(OperationsCallback<T> action, com.rabbitmq.client.ConfirmCallback acks,
+                            com.rabbitmq.client.ConfirmCallback nacks) {
+            return action.doInRabbit(this);
+        }
+
+        @Override
+        public boolean waitForConfirms(long timeout) {
+            return true;
+        }
+
+        @Override
+        public void waitForConfirmsOrDie(long timeout) {
+        }
+
+        public Map<String, Long> published() {
+            Map<String, Long> counts = new TreeMap<>();
+            published.forEach((exchange, count) -> counts.put(exchange, count.sum()));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.xunim.paymentsystem.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Operações que compõem o mix de um cenário; cada uma é uma requisição à API.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Operation {
+
+    CREATE_USER("POST /v1/users"),
+    CREATE_ACCOUNT("POST /v1/accounts"),
+    PIX("POST /v1/payments [PIX]"),
+    TRANSFER("POST /v1/payments [TRANSFER]"),
+    BOLETO("POST /v1/payments [BOLETO]"),
+    PROCESS_PAYMENT("PATCH /v1/payments/{id}/process"),
+    GET_USER("GET /v1/users/{id}"),
+    GET_ACCOUNT("GET /v1/accounts/{id}"),
+    GET_BALANCE("GET /v1/accounts/{id}/balance"),
+    RECENT_PAYMENTS("GET /v1/payments/account/{id}/recent");
+
+    private final String endpoint;
+
+    public boolean createsPayment() {
+        return this == PIX || this == TRANSFER || this == BOLETO;
+    }
+}
@@ -0,0 +1,96 @@
+package com.xunim.paymentsystem.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xunim.paymentsystem.loadtest.LoadTestProperties.Scenario;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Carga de ponta a ponta na API REST real, em uma única máquina: aplicação completa em porta
+ * aleatória sobre H2, com MongoDB e RabbitMQ substituídos em processo ({@link LoadTestStandIns}).
+ * Semeia usuários e contas pela API, executa o mix do cenário escolhido e falha se alguma meta de
+ * latência, throughput ou taxa de erro não for atingida. O relatório fica em {@code target/loadtest}.
+ * <p>
+ * {@code ./mvnw -Ploadtest test -Dloadtest.scenario=mixed}
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "loadtest"})
+@Import(LoadTestStandIns.class)
+@DisplayName("Payment API Load Test")
+class PaymentApiLoadTest {
+
+    // Saldo inicial das contas semeadas: o cenário não pode parar por saldo insuficiente
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100000000.00");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadTestProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private LoadTestStandIns.AuditLogCounter auditLogCounter;
+
+    @Autowired
+    private LoadTestStandIns.InProcessRabbitTemplate rabbitTemplate;
+
+    @Test
+    @DisplayName("Deve atingir as metas de latência, throughput e erros do cenário")
+    void shouldMeetScenarioTargets() throws Exception {
+        // Given
+        Scenario scenario = properties.selectedScenario();
+        ApiClient api = new ApiClient("http://localhost:" + port + "/api",
+                properties.getUsername(), properties.getPassword(), objectMapper);
+        ScenarioFixture fixture = ScenarioFixture.seed(api, scenario);
+        fund(fixture);
+
+        // When
+        LoadReport report = new LoadDriver(api, fixture, scenario).run(properties.getScenario())
+                .note("Auditoria gravada (MongoDB em processo)", auditLogCounter.stored())
+                .note("Mensagens publicadas (RabbitMQ em processo)", rabbitTemplate.published());
+        Path file = report.write(Path.of(properties.getReportDir()));
+        log.info("Relatório em {}:{}{}", file, System.lineSeparator(), report.format());
+
+        // Then
+        assertThat(report.violations()).as(report.format()).isEmpty();
+    }
+
+    // Não há depósito pela API: o saldo inicial é um lançamento de abertura no diário, repetido na
+    // projeção em accounts.balance para a conferência não acusar divergência, e os caches são descartados
+    private void fund(ScenarioFixture fixture) {
+        jdbcTemplate.update("UPDATE accounts SET balance = balance + ?", INITIAL_BALANCE);
+        jdbcTemplate.update("INSERT INTO ledger_entries (account_id, entry_type, amount) SELECT id, 'OPENING', ? FROM accounts",
+                INITIAL_BALANCE);
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.info("{} contas semeadas com saldo {}", fixture.accountIds().size(), INITIAL_BALANCE);
+    }
+}
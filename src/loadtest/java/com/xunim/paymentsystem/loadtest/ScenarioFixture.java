@@ -0,0 +1,128 @@
+package com.xunim.paymentsystem.loadtest;
+
+import com.xunim.paymentsystem.dto.request.CreateAccountRequestDTO;
+import com.xunim.paymentsystem.dto.request.CreatePaymentRequestDTO;
+import com.xunim.paymentsystem.dto.request.CreateUserRequestDTO;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.loadtest.LoadTestProperties.Scenario;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Usuários e contas semeados pela própria API antes da medição, e as requisições de cada
+ * operação do mix sobre eles. Pagamentos criados durante a execução ficam na fila de
+ * {@link Operation#PROCESS_PAYMENT}; cada um é processado uma vez.
+ */
+final class ScenarioFixture {
+
+    private final ApiClient api;
+    private final Scenario scenario;
+    private final List<Long> userIds;
+    private final List<Long> accountIds;
+    private final Queue<Long> pendingPayments = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence;
+
+    private ScenarioFixture(ApiClient api, Scenario scenario, List<Long> userIds, List<Long> accountIds) {
+        this.api = api;
+        this.scenario = scenario;
+        this.userIds = userIds;
+        this.accountIds = accountIds;
+        this.sequence = new AtomicLong(userIds.size());
+    }
+
+    static ScenarioFixture seed(ApiClient api, Scenario scenario) throws IOException, InterruptedException {
+        List<Long> userIds = new ArrayList<>(scenario.getUsers());
+        List<Long> accountIds = new ArrayList<>(scenario.getUsers() * scenario.getAccountsPerUser());
+        for (int i = 0; i < scenario.getUsers(); i++) {
+            long userId = api.create(api.post("/v1/users", newUser(i)));
+            userIds.add(userId);
+            for (int a = 0; a < scenario.getAccountsPerUser(); a++) {
+                accountIds.add(api.create(api.post("/v1/accounts", new CreateAccountRequestDTO(userId))));
+            }
+        }
+        if (accountIds.size() < 2) {
+            throw new IllegalStateException("Cenário precisa de ao menos duas contas para gerar pagamentos");
+        }
+        return new ScenarioFixture(api, scenario, List.copyOf(userIds), List.copyOf(accountIds));
+    }
+
+    List<Long> accountIds() {
+        return accountIds;
+    }
+
+    /**
+     * Requisição da operação, ou {@code null} quando ainda não há o que processar.
+     */
+    HttpRequest request(Operation operation, ThreadLocalRandom random) {
+        return switch (operation) {
+            case CREATE_USER -> api.post("/v1/users", newUser(sequence.getAndIncrement()));
+            case CREATE_ACCOUNT -> api.post("/v1/accounts", new CreateAccountRequestDTO(anyUser(random)));
+            case PIX -> payment(PaymentType.PIX, random);
+            case TRANSFER -> payment(PaymentType.TRANSFER, random);
+            case BOLETO -> payment(PaymentType.BOLETO, random);
+            case PROCESS_PAYMENT -> {
+                Long paymentId = pendingPayments.poll();
+                yield paymentId == null ? null : api.patch("/v1/payments/" + paymentId + "/process");
+            }
+            case GET_USER -> api.get("/v1/users/" + anyUser(random));
+            case GET_ACCOUNT -> api.get("/v1/accounts/" + anyAccount(random));
+            case GET_BALANCE -> api.get("/v1/accounts/" + anyAccount(random) + "/balance");
+            case RECENT_PAYMENTS -> api.get("/v1/payments/account/" + anyAccount(random) + "/recent?limit=20");
+        };
+    }
+
+    void completed(Operation operation, HttpResponse<String> response) throws IOException {
+        if (operation.createsPayment()) {
+            pendingPayments.add(api.createdId(response));
+        }
+    }
+
+    private HttpRequest payment(PaymentType type, ThreadLocalRandom random) {
+        long to = targetAccount(random);
+        long from;
+        do {
+            from = anyAccount(random);
+        } while (from == to);
+
+        return api.post("/v1/payments", CreatePaymentRequestDTO.builder()
+                .fromAccountId(from)
+                .toAccountId(to)
+                .amount(BigDecimal.valueOf(random.nextLong(1, 10_000), 2))
+                .paymentType(type)
+                .description("Carga " + type)
+                .build());
+    }
+
+    private long targetAccount(ThreadLocalRandom random) {
+        int hot = Math.min(scenario.getHotAccounts(), accountIds.size());
+        if (hot > 0 && random.nextDouble() < scenario.getHotAccountShare()) {
+            return accountIds.get(random.nextInt(hot));
+        }
+        return anyAccount(random);
+    }
+
+    private long anyAccount(ThreadLocalRandom random) {
+        return accountIds.get(random.nextInt(accountIds.size()));
+    }
+
+    private long anyUser(ThreadLocalRandom random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+
+    private static CreateUserRequestDTO newUser(long index) {
+        return CreateUserRequestDTO.builder()
+                .email("carga" + index + "@xunimpay.test")
+                .document(String.format("%011d", index + 1))
+                .fullName("Usuário de Carga " + index)
+                .build();
+    }
+}
@@ -0,0 +1,2 @@
+-- No MySQL o Hibernate emula payments_seq com a tabela da V3; com o dialeto do H2 ele usa uma sequence de verdade.
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1000000 INCREMENT BY 50;
@@ -1,27 +1,83 @@
 package com.xunim.paymentsystem.config;
 
-import org.springframework.cache.CacheManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xunim.paymentsystem.dto.response.UserResponseDTO;
+import com.xunim.paymentsystem.service.cache.NearCacheManager;
+import com.xunim.paymentsystem.util.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        return RedisCacheManager.RedisCacheManagerBuilder
-                .fromConnectionFactory(connectionFactory)
-                .cacheDefaults(
-                        org.springframework.data.redis.cache.RedisCacheConfiguration.defaultCacheConfig()
-                                .entryTtl(Duration.ofMinutes(10))
-                                .disableCachingNullValues()
-                )
-                .build();
+    public NearCacheManager cacheManager(ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                         ObjectProvider<StringRedisTemplate> redisTemplate,
+                                         ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${xunimpay.cache.redis.enabled:true}") boolean redisEnabled,
+                                         @Value("${xunimpay.cache.near.max-entries:10000}") long nearMaxEntries,
+                                         @Value("${xunimpay.cache.near.ttl:30s}") Duration nearTtl,
+                                         @Value("${xunimpay.cache.ttl.user-by-id:10m}") Duration userByIdTtl,
+                                         @Value("${xunimpay.cache.ttl.user-by-email:1h}") Duration userByEmailTtl) {
+        Map<String, Duration> ttls = Map.of(
+                Constants.Cache.USER_BY_ID, userByIdTtl,
+                Constants.Cache.USER_BY_EMAIL, userByEmailTtl);
+
+        RedisCacheManager redisCacheManager = null;
+        if (redisEnabled) {
+            // JSON sem metadados de classe: cada cache tem um único tipo de valor
+            Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+            configurations.put(Constants.Cache.USER_BY_ID,
+                    redisCacheConfiguration(userByIdTtl, objectMapper, UserResponseDTO.class));
+            configurations.put(Constants.Cache.USER_BY_EMAIL,
+                    redisCacheConfiguration(userByEmailTtl, objectMapper, Long.class));
+
+            redisCacheManager = RedisCacheManager.RedisCacheManagerBuilder
+                    .fromConnectionFactory(connectionFactory.getObject())
+                    .withInitialCacheConfigurations(configurations)
+                    .disableCreateOnMissingCache()
+                    .build();
+        }
+
+        return new NearCacheManager(ttls, redisCacheManager, redisEnabled ? redisTemplate.getObject() : null,
+                meterRegistry, nearMaxEntries, nearTtl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "xunimpay.cache.redis.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   NearCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(NearCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    private static <T> RedisCacheConfiguration redisCacheConfiguration(Duration ttl, ObjectMapper objectMapper,
+                                                                       Class<T> type) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new Jackson2JsonRedisSerializer<>(objectMapper, type)));
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,12 @@ import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFacto
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 @Configuration
 public class RabbitConfig {
@@ -33,13 +37,49 @@ public class RabbitConfig {
 
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
+            ConnectionFactory connectionFactory, Environment environment) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter());
+        configureThreading(factory, environment, "rabbit-listener-");
         return factory;
     }
 
+    // Consumidores do processamento assíncrono de pagamentos (ack por lote)
+    @Bean
+    public SimpleRabbitListenerContainerFactory paymentListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            Environment environment,
+            @Value("${xunimpay.payments.async.concurrency:4}") int concurrency,
+            @Value("${xunimpay.payments.async.max-concurrency:8}") int maxConcurrency,
+            @Value("${xunimpay.payments.async.prefetch:250}") int prefetch,
+            @Value("${xunimpay.payments.async.batch-size:50}") int batchSize,
+            @Value("${xunimpay.payments.async.batch-receive-timeout-ms:100}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(maxConcurrency);
+        factory.setPrefetchCount(prefetch);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(true);
+        configureThreading(factory, environment, "rabbit-payment-");
+        return factory;
+    }
+
+    // As factories próprias substituem a do Spring Boot, então repetem a escolha de threads
+    // feita por spring.threads.virtual.enabled (efetiva apenas em Java 21+)
+    private static void configureThreading(SimpleRabbitListenerContainerFactory factory,
+                                           Environment environment, String threadPrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor(threadPrefix));
+        }
+    }
+
     // Payment Queue Configuration
     @Bean
     public Queue paymentQueue() {
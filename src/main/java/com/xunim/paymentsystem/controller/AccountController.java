@@ -1,7 +1,9 @@
 package com.xunim.paymentsystem.controller;
 
 import com.xunim.paymentsystem.dto.request.CreateAccountRequestDTO;
+import com.xunim.paymentsystem.dto.response.AccountBalanceResponseDTO;
 import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
+import com.xunim.paymentsystem.dto.response.AccountStatementResponseDTO;
 import com.xunim.paymentsystem.enums.AccountStatus;
 import com.xunim.paymentsystem.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,11 +14,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -138,6 +142,70 @@ public class AccountController {
         return ResponseEntity.noContent().build();
     }
 
+    @PatchMapping("/{id}/stripes")
+    @Operation(summary = "Configurar faixas de saldo",
+            description = "Particiona o saldo da conta em faixas para reduzir contenção (0 desativa)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Faixas configuradas com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Conta não encontrada"),
+            @ApiResponse(responseCode = "400", description = "Operação inválida")
+    })
+    public ResponseEntity<AccountResponseDTO> configureBalanceStripes(
+            @Parameter(description = "ID da conta") @PathVariable Long id,
+            @Parameter(description = "Quantidade de faixas") @RequestParam int count) {
+
+        log.info("Configurando {} faixas de saldo para conta ID: {}", count, id);
+        AccountResponseDTO response = accountService.configureBalanceStripes(id, count);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{id}/stripes/rebalance")
+    @Operation(summary = "Redistribuir faixas de saldo", description = "Redistribui o saldo igualmente entre as faixas da conta")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldo redistribuído com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Conta não encontrada"),
+            @ApiResponse(responseCode = "400", description = "Conta sem faixas de saldo")
+    })
+    public ResponseEntity<AccountResponseDTO> rebalanceStripes(
+            @Parameter(description = "ID da conta") @PathVariable Long id) {
+
+        log.info("Redistribuindo faixas de saldo da conta ID: {}", id);
+        AccountResponseDTO response = accountService.rebalanceStripes(id);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}/statement")
+    @Operation(summary = "Extrato da conta", description = "Lançamentos do diário paginados por sequência, com saldo após cada um")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Extrato retornado com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Conta não encontrada")
+    })
+    public ResponseEntity<AccountStatementResponseDTO> getStatement(
+            @Parameter(description = "ID da conta") @PathVariable Long id,
+            @Parameter(description = "Última sequência já lida") @RequestParam(defaultValue = "0") long afterSeq,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = "50") int size) {
+
+        log.debug("Buscando extrato da conta ID: {}", id);
+        AccountStatementResponseDTO response = accountService.getStatement(id, afterSeq, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}/balance")
+    @Operation(summary = "Saldo pelo diário", description = "Saldo calculado pelo diário, atual ou em um instante")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldo retornado com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Conta não encontrada")
+    })
+    public ResponseEntity<AccountBalanceResponseDTO> getJournalBalance(
+            @Parameter(description = "ID da conta") @PathVariable Long id,
+            @Parameter(description = "Instante (ISO-8601); atual se omitido")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+
+        log.debug("Buscando saldo do diário da conta ID: {}", id);
+        AccountBalanceResponseDTO response = accountService.getJournalBalance(id, at);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/total-balance")
     @Operation(summary = "Saldo total ativo", description = "Retorna o saldo total de todas as contas ativas")
     @ApiResponse(responseCode = "200", description = "Saldo total retornado com sucesso")
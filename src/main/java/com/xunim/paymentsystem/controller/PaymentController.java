@@ -1,10 +1,15 @@
 package com.xunim.paymentsystem.controller;
 
+import com.xunim.paymentsystem.dto.request.CreatePaymentBatchRequestDTO;
 import com.xunim.paymentsystem.dto.request.CreatePaymentRequestDTO;
+import com.xunim.paymentsystem.dto.response.PaymentBatchResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentHistoryResponseDTO;
 import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.enums.ExportFormat;
 import com.xunim.paymentsystem.enums.PaymentStatus;
 import com.xunim.paymentsystem.enums.PaymentType;
 import com.xunim.paymentsystem.service.PaymentService;
+import com.xunim.paymentsystem.service.export.PaymentExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,9 +22,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -33,6 +41,7 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentExportService paymentExportService;
 
     @PostMapping
     @Operation(summary = "Criar novo pagamento", description = "Cria um novo pagamento no sistema")
@@ -49,6 +58,22 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Criar pagamentos em lote", description = "Cria vários pagamentos em uma única requisição, com resultado por item")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Todos os pagamentos criados com sucesso"),
+            @ApiResponse(responseCode = "207", description = "Lote processado com falhas em alguns itens"),
+            @ApiResponse(responseCode = "400", description = "Lote inválido")
+    })
+    public ResponseEntity<PaymentBatchResponseDTO> createPayments(
+            @Valid @RequestBody CreatePaymentBatchRequestDTO request) {
+
+        log.info("Criando lote de {} pagamentos", request.getPayments().size());
+        PaymentBatchResponseDTO response = paymentService.createPayments(request.getPayments());
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar pagamento por ID", description = "Retorna um pagamento específico pelo ID")
     @ApiResponses(value = {
@@ -89,6 +114,33 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/account/{accountId}/recent")
+    @Operation(summary = "Pagamentos recentes por conta",
+            description = "Últimos pagamentos enviados e recebidos pela conta, mais recentes primeiro")
+    @ApiResponse(responseCode = "200", description = "Lista de pagamentos retornada com sucesso")
+    public ResponseEntity<List<PaymentResponseDTO>> getRecentPaymentsByAccount(
+            @Parameter(description = "ID da conta") @PathVariable Long accountId,
+            @Parameter(description = "Quantidade de pagamentos (máx. 100)") @RequestParam(defaultValue = "20") int limit) {
+
+        log.debug("Buscando pagamentos recentes da conta ID: {}", accountId);
+        List<PaymentResponseDTO> response = paymentService.getPaymentsByAccountId(accountId, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/account/{accountId}/history")
+    @Operation(summary = "Histórico de pagamentos por conta",
+            description = "Pagamentos da conta, mais recentes primeiro, paginados por cursor (sem contagem total)")
+    @ApiResponse(responseCode = "200", description = "Página do histórico retornada com sucesso")
+    public ResponseEntity<PaymentHistoryResponseDTO> getPaymentHistory(
+            @Parameter(description = "ID da conta") @PathVariable Long accountId,
+            @Parameter(description = "Cursor retornado na página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "20") int size) {
+
+        log.debug("Buscando histórico de pagamentos da conta ID: {}", accountId);
+        PaymentHistoryResponseDTO response = paymentService.getPaymentHistory(accountId, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/status/{status}")
     @Operation(summary = "Buscar pagamentos por status", description = "Retorna todos os pagamentos com determinado status")
     @ApiResponse(responseCode = "200", description = "Lista de pagamentos retornada com sucesso")
@@ -114,6 +166,35 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Exportar pagamentos por período",
+            description = "Escreve os pagamentos do período em NDJSON ou CSV, em streaming, opcionalmente com gzip")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação em andamento"),
+            @ApiResponse(responseCode = "400", description = "Período inválido")
+    })
+    public ResponseEntity<StreamingResponseBody> exportPaymentsByDateRange(
+            @Parameter(description = "Data início") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Data fim") @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Formato (NDJSON ou CSV)") @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @Parameter(description = "Comprimir com gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+
+        log.debug("Exportando pagamentos por período: {} - {} ({})", start, end, format);
+        paymentExportService.validateRange(start, end);
+        StreamingResponseBody body = out -> paymentExportService.exportByDateRange(start, end, format, gzip, out);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"payments." + format.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @PatchMapping("/{id}/process")
     @Operation(summary = "Processar pagamento", description = "Processa um pagamento pendente")
     @ApiResponses(value = {
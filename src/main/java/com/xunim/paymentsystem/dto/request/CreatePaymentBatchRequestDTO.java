@@ -0,0 +1,22 @@
+package com.xunim.paymentsystem.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreatePaymentBatchRequestDTO {
+
+    // Cada item é validado individualmente no serviço, para reportar falhas por item
+    @NotEmpty(message = "Lista de pagamentos é obrigatória")
+    @Size(max = 5000, message = "Lote deve ter no máximo 5000 pagamentos")
+    private List<CreatePaymentRequestDTO> payments;
+}
@@ -0,0 +1,20 @@
+package com.xunim.paymentsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceResponseDTO {
+
+    private Long accountId;
+    private BigDecimal balance;
+    private LocalDateTime at;
+}
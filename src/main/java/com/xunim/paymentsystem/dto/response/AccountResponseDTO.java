@@ -20,6 +20,7 @@ public class AccountResponseDTO {
     private String accountNumber;
     private BigDecimal balance;
     private AccountStatus status;
+    private Integer balanceStripes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.xunim.paymentsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountStatementResponseDTO {
+
+    private Long accountId;
+    private List<LedgerEntryResponseDTO> entries;
+    // Usar como afterSeq da próxima página; nulo quando não há mais lançamentos
+    private Long nextAfterSeq;
+}
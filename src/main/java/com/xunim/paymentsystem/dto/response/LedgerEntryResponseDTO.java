@@ -0,0 +1,23 @@
+package com.xunim.paymentsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntryResponseDTO {
+
+    private Long accountSeq;
+    private Long paymentId;
+    private String entryType;
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.xunim.paymentsystem.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentBatchItemResponseDTO {
+
+    private Integer index;
+    private Boolean success;
+    private PaymentResponseDTO payment;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.xunim.paymentsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentBatchResponseDTO {
+
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    private List<PaymentBatchItemResponseDTO> results;
+}
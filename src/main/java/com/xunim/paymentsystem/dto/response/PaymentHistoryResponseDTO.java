@@ -0,0 +1,20 @@
+package com.xunim.paymentsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentHistoryResponseDTO {
+
+    private Long accountId;
+    private List<PaymentResponseDTO> payments;
+    // Token da próxima página; nulo quando não há mais pagamentos
+    private String nextCursor;
+}
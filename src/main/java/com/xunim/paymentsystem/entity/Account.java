@@ -45,6 +45,11 @@ public class Account {
     @Builder.Default
     private AccountStatus status = AccountStatus.ACTIVE;
 
+    // Quantidade de faixas de saldo (0 = saldo apenas em balance)
+    @Column(name = "balance_stripes", nullable = false)
+    @Builder.Default
+    private Integer balanceStripes = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -58,4 +63,8 @@ public class Account {
 
     @OneToMany(mappedBy = "toAccount", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Payment> receivedPayments;
+
+    public boolean isStriped() {
+        return balanceStripes != null && balanceStripes > 0;
+    }
 }
@@ -0,0 +1,44 @@
+package com.xunim.paymentsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Fração do saldo de uma conta de alta contenção. O saldo total da conta é
+ * {@code accounts.balance} somado às suas faixas.
+ */
+@Entity
+@Table(name = "account_balance_stripes")
+@IdClass(AccountBalanceStripe.StripeKey.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceStripe {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = "stripe_index")
+    private Integer stripeIndex;
+
+    @Column(precision = 15, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StripeKey implements Serializable {
+        private Long accountId;
+        private Integer stripeIndex;
+    }
+}
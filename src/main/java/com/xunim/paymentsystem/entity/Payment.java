@@ -22,8 +22,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Payment {
 
+    // IDs alocados em blocos (pooled) para permitir batch insert; IDENTITY desativa o batching JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -51,7 +53,7 @@ public class Payment {
     @Column(length = 500)
     private String description;
 
-    @Column(name = "external_id")
+    @Column(name = "external_id", unique = true)
     private String externalId;
 
     @Column(name = "transaction_id", unique = true)
@@ -65,9 +67,10 @@ public class Payment {
     private LocalDateTime processedAt;
 
     @PrePersist
-    public void generateTransactionId() {
+    public void requireTransactionId() {
+        // Gerado pelo PaymentService com o node ID desta instância; não há gerador de reserva
         if (this.transactionId == null) {
-            this.transactionId = "TXN-" + System.currentTimeMillis();
+            throw new IllegalStateException("Pagamento sem ID de transação");
         }
     }
 }
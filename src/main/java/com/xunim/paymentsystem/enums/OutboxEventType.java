@@ -0,0 +1,16 @@
+package com.xunim.paymentsystem.enums;
+
+public enum OutboxEventType {
+    AUDIT_LOG("Log de auditoria"),
+    PAYMENT_CREATED("Pagamento criado");
+
+    private final String description;
+
+    private OutboxEventType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,20 @@
+package com.xunim.paymentsystem.messaging;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Publicado quando um pagamento é criado. Usado como evento da aplicação e como
+ * mensagem da fila {@code payment.queue} no modo de processamento assíncrono.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCreatedEvent {
+
+    private Long paymentId;
+    private String transactionId;
+}
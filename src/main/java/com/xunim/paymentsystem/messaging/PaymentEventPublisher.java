@@ -0,0 +1,50 @@
+package com.xunim.paymentsystem.messaging;
+
+import com.xunim.paymentsystem.config.RabbitConfig;
+import com.xunim.paymentsystem.enums.OutboxEventType;
+import com.xunim.paymentsystem.messaging.outbox.OutboxWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@ConditionalOnProperty(name = "xunimpay.payments.processing.mode", havingValue = "async")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final OutboxWriter outboxWriter;
+
+    @Value("${xunimpay.outbox.enabled:true}")
+    private boolean outboxEnabled = true;
+
+    // Com outbox: o evento é gravado na mesma transação e publicado pelo OutboxRelay
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void writeToOutbox(PaymentCreatedEvent event) {
+        if (outboxEnabled) {
+            outboxWriter.append("PAYMENT", event.getPaymentId().toString(), OutboxEventType.PAYMENT_CREATED, event);
+        }
+    }
+
+    // Sem outbox: publica só após o commit, para o consumidor sempre encontrar o pagamento no banco
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentCreated(PaymentCreatedEvent event) {
+        if (outboxEnabled) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitConfig.PAYMENT_EXCHANGE, RabbitConfig.PAYMENT_ROUTING_KEY, event);
+            log.debug("Pagamento publicado para processamento: {}", event.getTransactionId());
+        } catch (AmqpException e) {
+            // O pagamento continua PENDING e pode ser processado manualmente
+            log.error("Erro ao publicar pagamento {} na fila", event.getTransactionId(), e);
+        }
+    }
+}
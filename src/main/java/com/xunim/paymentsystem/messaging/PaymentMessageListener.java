@@ -0,0 +1,96 @@
+package com.xunim.paymentsystem.messaging;
+
+import com.xunim.paymentsystem.config.RabbitConfig;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.service.PaymentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Consome {@code payment.queue} em lotes. O lote inteiro é confirmado (ack) quando o método
+ * retorna; em erro inesperado ele volta para a fila e os itens já processados são descartados
+ * pelo filtro de transaction IDs recentes.
+ */
+@Component
+@ConditionalOnProperty(name = "xunimpay.payments.processing.mode", havingValue = "async")
+@Slf4j
+public class PaymentMessageListener {
+
+    private final PaymentService paymentService;
+    // Filtro sem monitores: com virtual threads, um synchronized disputado prende a carrier thread
+    private final Set<String> processedTransactions = ConcurrentHashMap.newKeySet();
+    private final Queue<String> processedOrder = new ConcurrentLinkedQueue<>();
+    private final int dedupCapacity;
+
+    private final Counter processedCounter;
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+
+    public PaymentMessageListener(PaymentService paymentService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${xunimpay.payments.async.dedup-capacity:100000}") int dedupCapacity) {
+        this.paymentService = paymentService;
+        this.dedupCapacity = dedupCapacity;
+
+        this.processedCounter = Counter.builder("xunimpay.payments.async.messages")
+                .tag("result", "processed")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("xunimpay.payments.async.messages")
+                .tag("result", "duplicate")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("xunimpay.payments.async.messages")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @RabbitListener(queues = RabbitConfig.PAYMENT_QUEUE, containerFactory = "paymentListenerContainerFactory")
+    public void onPaymentsCreated(List<PaymentCreatedEvent> events) {
+        log.debug("Lote de {} pagamentos recebido", events.size());
+
+        for (PaymentCreatedEvent event : events) {
+            if (processedTransactions.contains(event.getTransactionId())) {
+                duplicateCounter.increment();
+                log.debug("Mensagem duplicada descartada: {}", event.getTransactionId());
+                continue;
+            }
+
+            try {
+                paymentService.processPayment(event.getPaymentId());
+                processedCounter.increment();
+            } catch (BusinessException | ResourceNotFoundException e) {
+                // Pagamento já processado, cancelado ou inexistente: não adianta reenfileirar
+                rejectedCounter.increment();
+                log.warn("Pagamento {} não processado: {}", event.getTransactionId(), e.getMessage());
+            }
+
+            rememberProcessed(event.getTransactionId());
+        }
+    }
+
+    private void rememberProcessed(String transactionId) {
+        if (!processedTransactions.add(transactionId)) {
+            return;
+        }
+        processedOrder.add(transactionId);
+        // Descarta os mais antigos (FIFO) ao passar da capacidade
+        while (processedTransactions.size() > dedupCapacity) {
+            String eldest = processedOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            processedTransactions.remove(eldest);
+        }
+    }
+}
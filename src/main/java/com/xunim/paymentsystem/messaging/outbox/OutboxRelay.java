@@ -0,0 +1,235 @@
+package com.xunim.paymentsystem.messaging.outbox;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.xunim.paymentsystem.config.RabbitConfig;
+import com.xunim.paymentsystem.entity.AuditLog;
+import com.xunim.paymentsystem.entity.OutboxEvent;
+import com.xunim.paymentsystem.messaging.PaymentCreatedEvent;
+import com.xunim.paymentsystem.repository.mongodb.AuditLogRepository;
+import com.xunim.paymentsystem.repository.mysql.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drena o outbox em lotes, em ordem de ID: logs de auditoria vão para o MongoDB
+ * ({@code audit_logs}) e para o {@code audit.exchange}; eventos de pagamento para o
+ * {@code payment.exchange}. Os eventos só são apagados depois que o lote inteiro foi
+ * confirmado pelo MongoDB e pelo RabbitMQ (publisher confirms); qualquer falha desfaz
+ * a transação e o mesmo lote é reenviado na próxima rodada (entrega at-least-once).
+ * <p>
+ * O lote é lido com {@code SELECT ... FOR UPDATE}, então relays em outros nós esperam
+ * em vez de publicar eventos da mesma entidade fora de ordem. Os documentos do MongoDB
+ * usam o ID do evento como {@code _id}, e as mensagens levam o ID como {@code messageId},
+ * para que reenvios possam ser descartados.
+ */
+@Component
+@ConditionalOnProperty(name = "xunimpay.outbox.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    static final String DOCUMENT_ID_PREFIX = "outbox-";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader auditReader;
+    private final ObjectReader paymentReader;
+
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final boolean rabbitEnabled;
+    private final long confirmTimeoutMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final Counter publishedEvents;
+    private final Counter failedBatches;
+    private final Timer publishLag;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       AuditLogRepository auditLogRepository,
+                       RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${xunimpay.outbox.poll-interval-ms:200}") long pollIntervalMs,
+                       @Value("${xunimpay.outbox.batch-size:500}") int batchSize,
+                       @Value("${xunimpay.outbox.rabbit.enabled:true}") boolean rabbitEnabled,
+                       @Value("${xunimpay.outbox.rabbit.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Mantém valores monetários como BigDecimal nos detalhes da auditoria
+        this.auditReader = objectMapper.readerFor(AuditLog.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.paymentReader = objectMapper.readerFor(PaymentCreatedEvent.class);
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+        this.rabbitEnabled = rabbitEnabled;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "outbox-relay");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.publishedEvents = Counter.builder("xunimpay.outbox.published")
+                .description("Eventos publicados a partir do outbox")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("xunimpay.outbox.failures")
+                .description("Lotes do outbox que falharam e serão reenviados")
+                .register(meterRegistry);
+        this.publishLag = Timer.builder("xunimpay.outbox.publish.lag")
+                .description("Tempo entre a gravação do evento e sua publicação")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.outbox.lag", oldestPendingMillis, value -> value.get() / 1000.0)
+                .description("Idade, em segundos, do evento mais antigo ainda não publicado")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Relay do outbox iniciado (lote {}, intervalo {} ms)", batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Publica lotes até o outbox esvaziar ou um lote falhar.
+     */
+    public void drain() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.error("Falha ao publicar lote do outbox, nova tentativa em {} ms", pollIntervalMs, e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockOldest(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            oldestPendingMillis.set(0);
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        oldestPendingMillis.set(ageMillis(events.get(0), now));
+
+        List<AuditLog> auditLogs = new ArrayList<>();
+        List<Outgoing> messages = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            switch (event.getEventType()) {
+                case AUDIT_LOG -> {
+                    AuditLog auditLog = readAuditLog(event);
+                    auditLogs.add(auditLog);
+                    messages.add(new Outgoing(event, RabbitConfig.AUDIT_EXCHANGE, RabbitConfig.AUDIT_ROUTING_KEY, auditLog));
+                }
+                case PAYMENT_CREATED -> messages.add(new Outgoing(event, RabbitConfig.PAYMENT_EXCHANGE,
+                        RabbitConfig.PAYMENT_ROUTING_KEY, read(paymentReader, event)));
+            }
+        }
+
+        if (!auditLogs.isEmpty()) {
+            // _id determinístico: um reenvio sobrescreve o mesmo documento
+            auditLogRepository.saveAll(auditLogs);
+        }
+        publish(messages);
+
+        outboxEventRepository.deleteAllInBatch(events);
+
+        for (OutboxEvent event : events) {
+            publishLag.record(Duration.ofMillis(ageMillis(event, now)));
+        }
+        publishedEvents.increment(events.size());
+        log.debug("Outbox publicou {} eventos", events.size());
+        return events.size();
+    }
+
+    private void publish(List<Outgoing> messages) {
+        List<Outgoing> routed = rabbitEnabled
+                ? messages
+                : messages.stream().filter(m -> !RabbitConfig.AUDIT_EXCHANGE.equals(m.exchange())).toList();
+        if (routed.isEmpty()) {
+            return;
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (Outgoing message : routed) {
+                operations.convertAndSend(message.exchange(), message.routingKey(), message.body(),
+                        withMessageId(message.event()));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    private AuditLog readAuditLog(OutboxEvent event) {
+        AuditLog auditLog = read(auditReader, event);
+        auditLog.setId(DOCUMENT_ID_PREFIX + event.getId());
+        return auditLog;
+    }
+
+    private static <T> T read(ObjectReader reader, OutboxEvent event) {
+        try {
+            return reader.readValue(event.getPayload());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payload inválido no evento do outbox " + event.getId(), e);
+        }
+    }
+
+    private static MessagePostProcessor withMessageId(OutboxEvent event) {
+        return message -> {
+            message.getMessageProperties().setMessageId(DOCUMENT_ID_PREFIX + event.getId());
+            message.getMessageProperties().setHeader("x-aggregate-type", event.getAggregateType());
+            message.getMessageProperties().setHeader("x-aggregate-id", event.getAggregateId());
+            return message;
+        };
+    }
+
+    private static long ageMillis(OutboxEvent event, LocalDateTime now) {
+        if (event.getCreatedAt() == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(event.getCreatedAt(), now).toMillis());
+    }
+
+    private record Outgoing(OutboxEvent event, String exchange, String routingKey, Object body) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.xunim.paymentsystem.messaging.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xunim.paymentsystem.entity.OutboxEvent;
+import com.xunim.paymentsystem.enums.OutboxEventType;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.repository.mysql.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Grava eventos no outbox dentro da transação corrente, para que o evento exista
+ * se, e somente se, a alteração que o originou for confirmada.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void append(String aggregateType, String aggregateId, OutboxEventType eventType, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Erro ao serializar evento " + eventType + " de " + aggregateType, e);
+        }
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .build());
+
+        log.debug("Evento {} gravado no outbox: {} {}", eventType, aggregateType, aggregateId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.xunim.paymentsystem.repository.mysql;
+
+import com.xunim.paymentsystem.entity.AccountBalanceStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceStripeRepository extends JpaRepository<AccountBalanceStripe, AccountBalanceStripe.StripeKey> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceStripe s WHERE s.accountId = :accountId ORDER BY s.stripeIndex")
+    List<AccountBalanceStripe> lockByAccountId(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query("UPDATE AccountBalanceStripe s SET s.balance = s.balance + :amount " +
+            "WHERE s.accountId = :accountId AND s.stripeIndex = :stripeIndex")
+    int addToStripe(@Param("accountId") Long accountId,
+                    @Param("stripeIndex") Integer stripeIndex,
+                    @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE AccountBalanceStripe s SET s.balance = s.balance - :amount " +
+            "WHERE s.accountId = :accountId AND s.stripeIndex = :stripeIndex AND s.balance >= :amount")
+    int subtractFromStripe(@Param("accountId") Long accountId,
+                           @Param("stripeIndex") Integer stripeIndex,
+                           @Param("amount") BigDecimal amount);
+
+    @Query("SELECT SUM(s.balance) FROM AccountBalanceStripe s, Account a WHERE a.id = s.accountId AND a.status = 'ACTIVE'")
+    BigDecimal getTotalActiveStripedBalance();
+}
@@ -1,5 +1,6 @@
 package com.xunim.paymentsystem.repository.mysql;
 
+import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
 import com.xunim.paymentsystem.entity.Account;
 import com.xunim.paymentsystem.enums.AccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,20 +10,38 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
+    // Projeção das listagens: saldo da linha, sem as faixas (somadas pelo serviço)
+    String RESPONSE_SELECT = "SELECT new com.xunim.paymentsystem.dto.response.AccountResponseDTO(" +
+            "a.id, a.user.id, a.accountNumber, a.balance, a.status, a.balanceStripes, a.createdAt, a.updatedAt) " +
+            "FROM Account a ";
+
     Optional<Account> findByAccountNumber(String accountNumber);
 
-    List<Account> findByUserIdAndStatus(Long userId, AccountStatus status);
+    // a.user.id usa a FK direto; o derivado findByUserId gera LEFT JOIN em users e filtra por u.id
+    @Query("SELECT a FROM Account a WHERE a.user.id = :userId AND a.status = :status")
+    List<Account> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") AccountStatus status);
 
-    List<Account> findByUserId(Long userId);
+    @Query("SELECT a FROM Account a WHERE a.user.id = :userId")
+    List<Account> findByUserId(@Param("userId") Long userId);
 
     List<Account> findByStatus(AccountStatus status);
 
+    @Query(RESPONSE_SELECT + "WHERE a.user.id = :userId")
+    List<AccountResponseDTO> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + "WHERE a.user.id IN (:userIds)")
+    List<AccountResponseDTO> findResponsesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query(RESPONSE_SELECT + "WHERE a.status = :status")
+    List<AccountResponseDTO> findResponsesByStatus(@Param("status") AccountStatus status);
+
     @Query("SELECT a FROM Account a WHERE a.balance >= :minBalance")
     List<Account> findAccountsWithMinimumBalance(@Param("minBalance") BigDecimal minBalance);
 
@@ -34,6 +53,20 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("UPDATE Account a SET a.balance = a.balance - :amount WHERE a.id = :accountId AND a.balance >= :amount")
     int subtractFromBalance(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
 
+    // Trava as linhas sempre em ordem crescente de ID (evita deadlock entre transferências opostas)
+    @Query(value = "SELECT id, balance FROM accounts WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockBalancesOrderedById(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = CASE WHEN a.id = :fromAccountId THEN a.balance - :amount ELSE a.balance + :amount END " +
+            "WHERE a.id IN (:fromAccountId, :toAccountId)")
+    int transferBalance(@Param("fromAccountId") Long fromAccountId,
+                        @Param("toAccountId") Long toAccountId,
+                        @Param("amount") BigDecimal amount);
+
+    @Query("SELECT a.id, a.balanceStripes FROM Account a WHERE a.balanceStripes > 0")
+    List<Object[]> findStripedAccounts();
+
     @Query("SELECT SUM(a.balance) FROM Account a WHERE a.status = 'ACTIVE'")
     BigDecimal getTotalActiveBalance();
 }
\ No newline at end of file
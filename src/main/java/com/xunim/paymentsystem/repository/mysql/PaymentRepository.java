@@ -1,43 +1,136 @@
 package com.xunim.paymentsystem.repository.mysql;
 
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
 import com.xunim.paymentsystem.entity.Payment;
 import com.xunim.paymentsystem.enums.PaymentStatus;
 import com.xunim.paymentsystem.enums.PaymentType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
+    // Projeção das consultas somente leitura: seleciona só as colunas da resposta, sem entidades
+    // no contexto de persistência. fromAccount.id/toAccount.id usam a FK, sem join.
+    String RESPONSE_SELECT = "SELECT new com.xunim.paymentsystem.dto.response.PaymentResponseDTO(" +
+            "p.id, p.fromAccount.id, p.toAccount.id, p.amount, p.paymentType, p.status, p.description, " +
+            "p.externalId, p.transactionId, p.createdAt, p.processedAt) FROM Payment p ";
+
     Optional<Payment> findByTransactionId(String transactionId);
 
-    List<Payment> findByFromAccountId(Long fromAccountId);
+    @Query(RESPONSE_SELECT + "WHERE p.id = :id")
+    Optional<PaymentResponseDTO> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_SELECT + "WHERE p.transactionId = :transactionId")
+    Optional<PaymentResponseDTO> findResponseByTransactionId(@Param("transactionId") String transactionId);
+
+    Optional<Payment> findFirstByExternalIdOrderByIdAsc(String externalId);
+
+    List<Payment> findByExternalIdIn(Collection<String> externalIds);
 
-    List<Payment> findByToAccountId(Long toAccountId);
+    @Query("SELECT p.toAccount.id FROM Payment p WHERE p.id = :id")
+    Optional<Long> findToAccountIdById(@Param("id") Long id);
+
+    // Transição condicional: só uma transação concorrente consegue iniciar o processamento
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.xunim.paymentsystem.enums.PaymentStatus.PROCESSING " +
+            "WHERE p.id = :id AND p.status = com.xunim.paymentsystem.enums.PaymentStatus.PENDING")
+    int markProcessing(@Param("id") Long id);
 
     List<Payment> findByStatus(PaymentStatus status);
 
+    @Query(RESPONSE_SELECT + "WHERE p.status = :status")
+    List<PaymentResponseDTO> findResponsesByStatus(@Param("status") PaymentStatus status);
+
     List<Payment> findByPaymentType(PaymentType paymentType);
 
-    @Query("SELECT p FROM Payment p WHERE p.fromAccount.id = :accountId OR p.toAccount.id = :accountId")
-    Page<Payment> findByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+    // Atividade recente da conta em uma consulta: cada ramo é um range scan já ordenado em
+    // idx_payments_{from,to}_account_created, lendo só (created_at, id) do índice; apenas as
+    // :limit linhas finais são buscadas na tabela. UNION ALL sem deduplicação é seguro porque
+    // chk_payments_different_accounts impede origem = destino.
+    @Query("SELECT new com.xunim.paymentsystem.dto.response.PaymentResponseDTO(" +
+            "p.id, p.fromAccount.id, p.toAccount.id, p.amount, p.paymentType, p.status, p.description, " +
+            "p.externalId, p.transactionId, p.createdAt, p.processedAt) " +
+            "FROM (" +
+            "(SELECT s.id AS id, s.createdAt AS createdAt FROM Payment s WHERE s.fromAccount.id = :accountId " +
+            "ORDER BY s.createdAt DESC, s.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT r.id AS id, r.createdAt AS createdAt FROM Payment r WHERE r.toAccount.id = :accountId " +
+            "ORDER BY r.createdAt DESC, r.id DESC LIMIT :limit)" +
+            ") recent JOIN Payment p ON p.id = recent.id " +
+            "ORDER BY recent.createdAt DESC, recent.id DESC LIMIT :limit")
+    List<PaymentResponseDTO> findRecentByAccountId(@Param("accountId") Long accountId, @Param("limit") int limit);
+
+    @Query(value = RESPONSE_SELECT + "WHERE p.fromAccount.id = :accountId OR p.toAccount.id = :accountId",
+            countQuery = "SELECT COUNT(p) FROM Payment p WHERE p.fromAccount.id = :accountId OR p.toAccount.id = :accountId")
+    Page<PaymentResponseDTO> findResponsesByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    // Histórico por keyset (mais recentes primeiro): um seek por lado da conta, sem COUNT.
+    // Cada consulta é um range scan em (from_account_id|to_account_id, created_at, id).
+    @Query(RESPONSE_SELECT + "WHERE p.fromAccount.id = :accountId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponseDTO> findLatestSent(@Param("accountId") Long accountId, Pageable limit);
 
-    @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate")
-    List<Payment> findByDateRange(@Param("startDate") LocalDateTime startDate,
-                                  @Param("endDate") LocalDateTime endDate);
+    @Query(RESPONSE_SELECT + "WHERE p.toAccount.id = :accountId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponseDTO> findLatestReceived(@Param("accountId") Long accountId, Pageable limit);
+
+    @Query(RESPONSE_SELECT + "WHERE p.fromAccount.id = :accountId " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponseDTO> findSentBefore(@Param("accountId") Long accountId, @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id, Pageable limit);
+
+    @Query(RESPONSE_SELECT + "WHERE p.toAccount.id = :accountId " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponseDTO> findReceivedBefore(@Param("accountId") Long accountId, @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id, Pageable limit);
+
+    @Query(RESPONSE_SELECT + "WHERE p.createdAt BETWEEN :startDate AND :endDate")
+    List<PaymentResponseDTO> findResponsesByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate);
+
+    // Cursor forward-only para exportação: com o Connector/J, fetch size Integer.MIN_VALUE
+    // faz o driver entregar as linhas uma a uma em vez de carregar o resultado inteiro
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.id")
+    Stream<Payment> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate);
 
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED' AND p.paymentType = :type")
     BigDecimal getTotalAmountByType(@Param("type") PaymentType type);
 
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status AND p.createdAt >= :date")
     long countByStatusSince(@Param("status") PaymentStatus status, @Param("date") LocalDateTime date);
+
+    @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status AND p.createdAt >= :start AND p.createdAt < :end")
+    long countByStatusBetween(@Param("status") PaymentStatus status, @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
+    // Base da reconciliação das estatísticas em memória
+    @Query("SELECT p.paymentType, SUM(p.amount) FROM Payment p " +
+            "WHERE p.status = com.xunim.paymentsystem.enums.PaymentStatus.COMPLETED GROUP BY p.paymentType")
+    List<Object[]> sumCompletedAmountByType();
+
+    @Query(value = "SELECT DATE_FORMAT(created_at, '%Y-%m-%d %H:%i') AS minute_start, status, COUNT(*) FROM payments " +
+            "WHERE created_at >= :since GROUP BY minute_start, status", nativeQuery = true)
+    List<Object[]> countByMinuteAndStatusSince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
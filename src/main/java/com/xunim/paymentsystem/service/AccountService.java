@@ -1,10 +1,14 @@
 package com.xunim.paymentsystem.service;
 
 import com.xunim.paymentsystem.dto.request.CreateAccountRequestDTO;
+import com.xunim.paymentsystem.dto.response.AccountBalanceResponseDTO;
 import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
+import com.xunim.paymentsystem.dto.response.AccountStatementResponseDTO;
 import com.xunim.paymentsystem.enums.AccountStatus;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface AccountService {
@@ -17,6 +21,8 @@ public interface AccountService {
 
     List<AccountResponseDTO> getAccountsByUserId(Long userId);
 
+    List<AccountResponseDTO> getAccountsByUserIds(Collection<Long> userIds);
+
     List<AccountResponseDTO> getAccountsByStatus(AccountStatus status);
 
     void blockAccount(Long id);
@@ -30,4 +36,12 @@ public interface AccountService {
     boolean subtractBalance(Long accountId, BigDecimal amount);
 
     BigDecimal getTotalActiveBalance();
+
+    AccountResponseDTO configureBalanceStripes(Long id, int stripes);
+
+    AccountResponseDTO rebalanceStripes(Long id);
+
+    AccountStatementResponseDTO getStatement(Long id, long afterSeq, int size);
+
+    AccountBalanceResponseDTO getJournalBalance(Long id, LocalDateTime at);
 }
\ No newline at end of file
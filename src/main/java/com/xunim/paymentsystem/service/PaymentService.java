@@ -1,6 +1,8 @@
 package com.xunim.paymentsystem.service;
 
 import com.xunim.paymentsystem.dto.request.CreatePaymentRequestDTO;
+import com.xunim.paymentsystem.dto.response.PaymentBatchResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentHistoryResponseDTO;
 import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
 import com.xunim.paymentsystem.enums.PaymentStatus;
 import com.xunim.paymentsystem.enums.PaymentType;
@@ -15,14 +17,18 @@ public interface PaymentService {
 
     PaymentResponseDTO createPayment(CreatePaymentRequestDTO request);
 
+    PaymentBatchResponseDTO createPayments(List<CreatePaymentRequestDTO> requests);
+
     PaymentResponseDTO getPaymentById(Long id);
 
     PaymentResponseDTO getPaymentByTransactionId(String transactionId);
 
-    List<PaymentResponseDTO> getPaymentsByAccountId(Long accountId);
+    List<PaymentResponseDTO> getPaymentsByAccountId(Long accountId, int limit);
 
     Page<PaymentResponseDTO> getPaymentsByAccount(Long accountId, Pageable pageable);
 
+    PaymentHistoryResponseDTO getPaymentHistory(Long accountId, String cursor, int size);
+
     List<PaymentResponseDTO> getPaymentsByStatus(PaymentStatus status);
 
     List<PaymentResponseDTO> getPaymentsByDateRange(LocalDateTime start, LocalDateTime end);
@@ -0,0 +1,311 @@
+package com.xunim.paymentsystem.service.audit;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.xunim.paymentsystem.entity.AuditLog;
+import com.xunim.paymentsystem.repository.mongodb.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Grava logs de auditoria no MongoDB em lotes ({@code insertMany}) a partir de uma fila
+ * circular sem locks, sem bloquear quem audita. Se o MongoDB falhar, os lotes vão para um
+ * arquivo local append-only (JSON por linha) e são reenviados quando ele voltar.
+ * <p>
+ * Os registros recebem o {@code _id} antes de entrar na fila, então o reenvio do arquivo
+ * usa upsert e não duplica documentos já gravados.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    public enum OverflowPolicy {
+        BLOCK, DROP
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectWriter jsonWriter;
+    private final ObjectReader jsonReader;
+    private final RingBuffer<AuditLog> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long retryIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Path spillFile;
+    private final Path replayFile;
+
+    // Estado confinado à thread de flush
+    private BufferedWriter spillWriter;
+    private boolean mongoAvailable = true;
+    private boolean spillPending;
+    private long nextRetryAt;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    private final Timer flushTimer;
+    private final Counter writtenRecords;
+    private final Counter spilledRecords;
+    private final Counter replayedRecords;
+    private final Counter droppedRecords;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${xunimpay.audit.writer.capacity:65536}") int capacity,
+                          @Value("${xunimpay.audit.writer.batch-size:500}") int batchSize,
+                          @Value("${xunimpay.audit.writer.flush-interval-ms:100}") long flushIntervalMs,
+                          @Value("${xunimpay.audit.writer.retry-interval-ms:5000}") long retryIntervalMs,
+                          @Value("${xunimpay.audit.writer.overflow:block}") String overflowPolicy,
+                          @Value("${xunimpay.audit.writer.spill-file:./data/audit-spill.jsonl}") String spillFile) {
+        this.auditLogRepository = auditLogRepository;
+        this.jsonWriter = objectMapper.writerFor(AuditLog.class);
+        this.jsonReader = objectMapper.readerFor(AuditLog.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.buffer = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(retryIntervalMs);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.spillFile = Paths.get(spillFile);
+        this.replayFile = this.spillFile.resolveSibling(this.spillFile.getFileName() + ".replay");
+
+        this.flushTimer = Timer.builder("xunimpay.audit.writer.flush")
+                .description("Latência do insertMany de um lote de auditoria")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.writtenRecords = recordsCounter(meterRegistry, "written");
+        this.spilledRecords = recordsCounter(meterRegistry, "spilled");
+        this.replayedRecords = recordsCounter(meterRegistry, "replayed");
+        this.droppedRecords = recordsCounter(meterRegistry, "dropped");
+        Gauge.builder("xunimpay.audit.writer.queue", buffer, RingBuffer::size)
+                .description("Logs de auditoria aguardando gravação")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Registros desviados numa execução anterior são reenviados assim que possível
+        spillPending = Files.exists(spillFile) || Files.exists(replayFile);
+        running = true;
+        flusher = new Thread(this::run, "audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Gravador de auditoria iniciado (capacidade {}, lote {}, política {})",
+                buffer.capacity(), batchSize, overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Enfileira o log para gravação assíncrona. Com a fila cheia, espera por espaço
+     * ({@code block}) ou descarta o registro ({@code drop}).
+     *
+     * @return {@code false} se o registro foi descartado
+     */
+    public boolean write(AuditLog auditLog) {
+        if (auditLog.getId() == null) {
+            auditLog.setId(new ObjectId().toHexString());
+        }
+        if (buffer.offer(auditLog)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP || !running) {
+            droppedRecords.increment();
+            log.warn("Fila de auditoria cheia, log descartado: {} {} {}",
+                    auditLog.getEntityType(), auditLog.getEntityId(), auditLog.getAction());
+            return false;
+        }
+        while (!buffer.offer(auditLog)) {
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    public int queueDepth() {
+        return buffer.size();
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running || buffer.size() > 0 || !batch.isEmpty()) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long now = System.nanoTime();
+            boolean due = batch.size() >= batchSize || now - deadline >= 0 || !running;
+
+            if (due) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+                replaySpill();
+                deadline = now + flushIntervalNanos;
+            } else {
+                LockSupport.parkNanos(this, Math.min(IDLE_PARK_NANOS, deadline - now));
+            }
+        }
+        closeSpillWriter();
+        log.info("Gravador de auditoria finalizado");
+    }
+
+    private void flush(List<AuditLog> batch) {
+        if (!mongoAvailable && System.nanoTime() - nextRetryAt < 0) {
+            spill(batch);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            auditLogRepository.insert(batch);
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            writtenRecords.increment(batch.size());
+            if (!mongoAvailable) {
+                log.info("MongoDB disponível novamente para auditoria");
+                mongoAvailable = true;
+            }
+        } catch (RuntimeException e) {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (mongoAvailable) {
+                log.error("Falha ao gravar {} logs de auditoria, desviando para {}", batch.size(), spillFile, e);
+            }
+            markUnavailable();
+            spill(batch);
+        }
+    }
+
+    private void spill(List<AuditLog> batch) {
+        try {
+            if (spillWriter == null) {
+                Path parent = spillFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (AuditLog auditLog : batch) {
+                spillWriter.write(jsonWriter.writeValueAsString(auditLog));
+                spillWriter.newLine();
+            }
+            spillWriter.flush();
+            spillPending = true;
+            spilledRecords.increment(batch.size());
+        } catch (IOException e) {
+            droppedRecords.increment(batch.size());
+            log.error("Falha ao gravar {} logs de auditoria no arquivo {}, registros perdidos",
+                    batch.size(), spillFile, e);
+        }
+    }
+
+    private void replaySpill() {
+        // Com o MongoDB indisponível, o próprio reenvio serve de teste a cada retry-interval
+        if (!spillPending || (!mongoAvailable && System.nanoTime() - nextRetryAt < 0)) {
+            return;
+        }
+        try {
+            // O arquivo em reenvio é separado do arquivo ativo, que pode voltar a receber lotes
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) {
+                    spillPending = false;
+                    return;
+                }
+                closeSpillWriter();
+                Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            int replayed = 0;
+            List<AuditLog> chunk = new ArrayList<>(batchSize);
+            try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    chunk.add(jsonReader.readValue(line));
+                    if (chunk.size() == batchSize) {
+                        replayed += replayChunk(chunk);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                replayed += replayChunk(chunk);
+            }
+            Files.delete(replayFile);
+            spillPending = Files.exists(spillFile);
+            mongoAvailable = true;
+            log.info("{} logs de auditoria reenviados a partir de {}", replayed, replayFile);
+        } catch (IOException e) {
+            log.error("Falha ao ler arquivo de auditoria {}", replayFile, e);
+            markUnavailable();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao reenviar logs de auditoria, nova tentativa mais tarde", e);
+            markUnavailable();
+        }
+    }
+
+    private int replayChunk(List<AuditLog> chunk) {
+        // Upsert por _id: o que já foi gravado numa tentativa anterior não duplica
+        auditLogRepository.saveAll(chunk);
+        int size = chunk.size();
+        replayedRecords.increment(size);
+        chunk.clear();
+        return size;
+    }
+
+    private void markUnavailable() {
+        mongoAvailable = false;
+        nextRetryAt = System.nanoTime() + retryIntervalNanos;
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            log.warn("Erro ao fechar arquivo de auditoria {}", spillFile, e);
+        }
+        spillWriter = null;
+    }
+
+    private static Counter recordsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("xunimpay.audit.writer.records")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
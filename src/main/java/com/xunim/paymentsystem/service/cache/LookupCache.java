@@ -0,0 +1,58 @@
+package com.xunim.paymentsystem.service.cache;
+
+import com.xunim.paymentsystem.dto.response.UserResponseDTO;
+import com.xunim.paymentsystem.util.Constants;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Caches das consultas de usuário por ID e por email. O email resolve para o ID, então a remoção
+ * é feita pelo ID (mais o email anterior, quando muda).
+ * <p>
+ * A inclusão após uma leitura não é protegida contra uma escrita concorrente: um valor lido antes
+ * do commit de quem escreve pode entrar no cache depois da remoção e ficar até o TTL. Por isso só
+ * entram dados cadastrais; contas e saldos não são guardados e são lidos do banco a cada consulta.
+ * <p>
+ * Quem altera dados cadastrais ou o status do usuário deve chamar {@link #evictUser}.
+ */
+@Component
+public class LookupCache {
+
+    private final Cache usersById;
+    private final Cache userIdsByEmail;
+
+    public LookupCache(CacheManager cacheManager) {
+        this.usersById = cacheManager.getCache(Constants.Cache.USER_BY_ID);
+        this.userIdsByEmail = cacheManager.getCache(Constants.Cache.USER_BY_EMAIL);
+    }
+
+    public UserResponseDTO user(Long id, Supplier<UserResponseDTO> loader) {
+        return get(usersById, id, loader);
+    }
+
+    public Long userId(String email, Supplier<Long> loader) {
+        return get(userIdsByEmail, email, loader);
+    }
+
+    public void evictUser(Long id, String email) {
+        usersById.evict(id);
+        if (email != null) {
+            userIdsByEmail.evict(email);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Cache cache, Object key, Supplier<T> loader) {
+        // Sem Cache#get(key, Callable): exceções do loader chegam ao chamador sem embrulho
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value = loader.get();
+        cache.put(key, value);
+        return value;
+    }
+}
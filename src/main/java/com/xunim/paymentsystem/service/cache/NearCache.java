@@ -0,0 +1,147 @@
+package com.xunim.paymentsystem.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Cache em dois níveis: Caffeine local na frente do Redis. Leituras só vão ao Redis em
+ * falta local; remoções apagam os dois níveis e são anunciadas às demais instâncias para
+ * que descartem a cópia local. Falhas no Redis são registradas e tratadas como falta.
+ */
+@Slf4j
+public class NearCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final NearCacheManager owner;
+
+    NearCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+              Cache remote, NearCacheManager owner) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.owner = owner;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = key.toString();
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        if (remote == null) {
+            return null;
+        }
+
+        ValueWrapper wrapper = remote(() -> remote.get(key));
+        if (wrapper != null && wrapper.get() != null) {
+            local.put(localKey, wrapper.get());
+            return wrapper;
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Valor em cache não é do tipo " + type.getName() + ": " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        local.put(key.toString(), value);
+        if (remote != null) {
+            remote(() -> {
+                remote.put(key, value);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = key.toString();
+        local.invalidate(localKey);
+        if (remote != null) {
+            remote(() -> {
+                remote.evict(key);
+                return null;
+            });
+        }
+        owner.publishInvalidation(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        if (remote != null) {
+            remote(() -> {
+                remote.clear();
+                return null;
+            });
+        }
+        owner.publishInvalidation(name, null);
+    }
+
+    /**
+     * Descarta apenas a cópia local; usado ao receber a remoção feita por outra instância.
+     */
+    void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private <T> T remote(Supplier<T> operation) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao acessar o cache {} no Redis: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.xunim.paymentsystem.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cria um {@link NearCache} por cache configurado e propaga remoções entre instâncias pelo
+ * canal {@value #INVALIDATION_CHANNEL}. Sem Redis, cada instância usa apenas o nível local.
+ * <p>
+ * Remoções e inclusões feitas dentro de uma transação só são aplicadas após o commit dela.
+ * Isso não impede que uma leitura, concluída depois da remoção feita por outra transação, grave
+ * o valor que carregou antes daquele commit: o valor antigo fica até o TTL. Os caches só devem
+ * guardar dados em que essa janela é aceitável (ver {@link LookupCache}).
+ */
+@Slf4j
+public class NearCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "xunimpay:cache:invalidations";
+
+    private static final String ALL_KEYS = "*";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Duration> ttls;
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long nearMaxEntries;
+    private final Duration nearTtl;
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttls             cache → TTL no Redis
+     * @param redisCacheManager nível remoto; {@code null} para usar apenas o nível local
+     * @param redisTemplate    publica as remoções; {@code null} sem Redis
+     */
+    public NearCacheManager(Map<String, Duration> ttls,
+                            RedisCacheManager redisCacheManager,
+                            StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry,
+                            long nearMaxEntries,
+                            Duration nearTtl) {
+        this.ttls = Map.copyOf(ttls);
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.nearMaxEntries = nearMaxEntries;
+        this.nearTtl = nearTtl;
+        setTransactionAware(true);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        if (redisCacheManager != null) {
+            redisCacheManager.initializeCaches();
+        }
+
+        List<Cache> caches = new ArrayList<>(ttls.size());
+        ttls.forEach((name, ttl) -> {
+            // A cópia local nunca vive mais que a entrada do Redis
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(nearMaxEntries)
+                    .expireAfterWrite(ttl.compareTo(nearTtl) < 0 ? ttl : nearTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+
+            NearCache cache = new NearCache(name, local,
+                    redisCacheManager != null ? redisCacheManager.getCache(name) : null, this);
+            nearCaches.put(name, cache);
+            caches.add(cache);
+        });
+        return caches;
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + "|" + cacheName + "|" + (key != null ? key : ALL_KEYS));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao publicar remoção do cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        NearCache cache = nearCaches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(ALL_KEYS.equals(parts[2]) ? null : parts[2]);
+        }
+    }
+}
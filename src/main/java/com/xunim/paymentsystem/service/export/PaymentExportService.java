@@ -0,0 +1,161 @@
+package com.xunim.paymentsystem.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.ExportFormat;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta pagamentos de um período em NDJSON ou CSV direto para o stream da resposta.
+ * As linhas vêm de um cursor forward-only e cada entidade é desanexada depois de escrita,
+ * então a memória usada não depende do tamanho do período.
+ */
+@Service
+@Slf4j
+public class PaymentExportService {
+
+    static final String CSV_HEADER = "id,from_account_id,to_account_id,amount,payment_type,status," +
+            "description,external_id,transaction_id,created_at,processed_at";
+
+    // Proxies das contas também ficam no contexto de persistência; limpa-o periodicamente
+    private static final int CLEAR_INTERVAL = 1_000;
+
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public PaymentExportService(PaymentRepository paymentRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(PaymentResponseDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    /**
+     * Rejeita período invertido. O controller chama antes de montar a resposta em streaming, que já
+     * sai com status 200 quando {@link #exportByDateRange} começa a executar.
+     */
+    public void validateRange(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            throw new BusinessException("Data início deve ser anterior à data fim");
+        }
+    }
+
+    /**
+     * Escreve os pagamentos criados entre {@code start} e {@code end}, em ordem de ID.
+     *
+     * @return quantidade de pagamentos exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportByDateRange(LocalDateTime start, LocalDateTime end, ExportFormat format,
+                                  boolean gzip, OutputStream out) throws IOException {
+        validateRange(start, end);
+        log.info("Exportando pagamentos de {} a {} em {}{}", start, end, format, gzip ? " (gzip)" : "");
+
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                compressed != null ? compressed : out, StandardCharsets.UTF_8), 16 * 1024);
+
+        long count = 0;
+        try (Stream<Payment> payments = paymentRepository.streamByDateRange(start, end)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                PaymentResponseDTO row = toRow(payment);
+                entityManager.detach(payment);
+
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    jsonWriter.writeValue(writer, row);
+                    writer.write('\n');
+                }
+
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        log.info("{} pagamentos exportados de {} a {}", count, start, end);
+        return count;
+    }
+
+    private static PaymentResponseDTO toRow(Payment payment) {
+        // getId() dos proxies não inicializa as contas
+        return PaymentResponseDTO.builder()
+                .id(payment.getId())
+                .fromAccountId(payment.getFromAccount() != null ? payment.getFromAccount().getId() : null)
+                .toAccountId(payment.getToAccount().getId())
+                .amount(payment.getAmount())
+                .paymentType(payment.getPaymentType())
+                .status(payment.getStatus())
+                .description(payment.getDescription())
+                .externalId(payment.getExternalId())
+                .transactionId(payment.getTransactionId())
+                .createdAt(payment.getCreatedAt())
+                .processedAt(payment.getProcessedAt())
+                .build();
+    }
+
+    private static void writeCsv(Writer writer, PaymentResponseDTO row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writeField(writer, row.getFromAccountId());
+        writeField(writer, row.getToAccountId());
+        writeField(writer, row.getAmount() != null ? row.getAmount().toPlainString() : null);
+        writeField(writer, row.getPaymentType());
+        writeField(writer, row.getStatus());
+        writeField(writer, row.getDescription());
+        writeField(writer, row.getExternalId());
+        writeField(writer, row.getTransactionId());
+        writeField(writer, row.getCreatedAt());
+        writeField(writer, row.getProcessedAt());
+        writer.write('\n');
+    }
+
+    private static void writeField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        // RFC 4180: campo entre aspas, aspas internas duplicadas
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
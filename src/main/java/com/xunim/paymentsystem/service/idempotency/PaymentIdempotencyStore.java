@@ -0,0 +1,140 @@
+package com.xunim.paymentsystem.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Respostas de criação de pagamento indexadas pelo {@code externalId} enviado pelo cliente.
+ * Primeiro nível em memória (limitado por tamanho e retenção); segundo nível opcional no Redis,
+ * compartilhado entre as instâncias.
+ */
+@Component
+@Slf4j
+public class PaymentIdempotencyStore {
+
+    private static final String REDIS_KEY_PREFIX = "idempotency::payment::";
+
+    private final boolean enabled;
+    private final Duration retention;
+    private final Cache<String, PaymentResponseDTO> localCache;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public PaymentIdempotencyStore(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${xunimpay.idempotency.enabled:true}") boolean enabled,
+                                   @Value("${xunimpay.idempotency.retention:24h}") Duration retention,
+                                   @Value("${xunimpay.idempotency.max-entries:100000}") long maxEntries,
+                                   @Value("${xunimpay.idempotency.redis.enabled:false}") boolean redisEnabled) {
+        this.enabled = enabled;
+        this.retention = retention;
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "payment-idempotency");
+
+        this.localHits = lookupCounter(meterRegistry, "hit_local");
+        this.redisHits = lookupCounter(meterRegistry, "hit_redis");
+        this.databaseHits = lookupCounter(meterRegistry, "hit_database");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<PaymentResponseDTO> find(String key) {
+        if (!enabled || key == null) {
+            return Optional.empty();
+        }
+
+        PaymentResponseDTO cached = localCache.getIfPresent(key);
+        if (cached != null) {
+            localHits.increment();
+            return Optional.of(cached);
+        }
+
+        PaymentResponseDTO shared = findInRedis(key);
+        if (shared != null) {
+            redisHits.increment();
+            localCache.put(key, shared);
+            return Optional.of(shared);
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, PaymentResponseDTO response) {
+        if (!enabled || key == null) {
+            return;
+        }
+
+        localCache.put(key, response);
+        putInRedis(key, response);
+    }
+
+    /**
+     * Registra uma chave encontrada no MySQL após um miss (ex.: retenção expirada ou reinício).
+     */
+    public void recordDatabaseHit(String key, PaymentResponseDTO response) {
+        databaseHits.increment();
+        put(key, response);
+    }
+
+    private PaymentResponseDTO findInRedis(String key) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key);
+            return json != null ? objectMapper.readValue(json, PaymentResponseDTO.class) : null;
+        } catch (Exception e) {
+            log.warn("Falha ao consultar chave de idempotência no Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putInRedis(String key, PaymentResponseDTO response) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, objectMapper.writeValueAsString(response), retention);
+        } catch (JsonProcessingException e) {
+            log.error("Falha ao serializar resposta de idempotência", e);
+        } catch (Exception e) {
+            log.warn("Falha ao gravar chave de idempotência no Redis: {}", e.getMessage());
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("xunimpay.idempotency.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,7 +1,9 @@
 package com.xunim.paymentsystem.service.impl;
 
 import com.xunim.paymentsystem.dto.request.CreateAccountRequestDTO;
+import com.xunim.paymentsystem.dto.response.AccountBalanceResponseDTO;
 import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
+import com.xunim.paymentsystem.dto.response.AccountStatementResponseDTO;
 import com.xunim.paymentsystem.entity.Account;
 import com.xunim.paymentsystem.entity.User;
 import com.xunim.paymentsystem.enums.AccountStatus;
@@ -11,6 +13,8 @@ import com.xunim.paymentsystem.repository.mysql.AccountRepository;
 import com.xunim.paymentsystem.repository.mysql.UserRepository;
 import com.xunim.paymentsystem.service.AccountService;
 import com.xunim.paymentsystem.service.AuditService;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.ledger.StripedBalanceService;
 import com.xunim.paymentsystem.util.AccountNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,7 +22,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +38,8 @@ public class AccountServiceImpl implements AccountService {
     private final UserRepository userRepository;
     private final AuditService auditService;
     private final AccountNumberGenerator accountNumberGenerator;
+    private final StripedBalanceService stripedBalanceService;
+    private final LedgerJournal ledgerJournal;
 
     @Override
     public AccountResponseDTO createAccount(CreateAccountRequestDTO request) {
@@ -43,10 +52,8 @@ public class AccountServiceImpl implements AccountService {
             throw new BusinessException("Não é possível criar conta para usuário inativo");
         }
 
-        String accountNumber;
-        do {
-            accountNumber = accountNumberGenerator.generateAccountNumber();
-        } while (accountRepository.findByAccountNumber(accountNumber).isPresent());
+        // Números vêm de blocos reservados por instância: não colidem
+        String accountNumber = accountNumberGenerator.generateAccountNumber();
 
         Account account = Account.builder()
                 .user(user)
@@ -61,7 +68,7 @@ public class AccountServiceImpl implements AccountService {
                 "Conta criada: " + savedAccount.getAccountNumber());
 
         log.info("Conta criada com sucesso: ID {}", savedAccount.getId());
-        return convertToResponse(savedAccount);
+        return convertToResponse(savedAccount, BigDecimal.ZERO);
     }
 
     @Override
@@ -91,10 +98,16 @@ public class AccountServiceImpl implements AccountService {
     public List<AccountResponseDTO> getAccountsByUserId(Long userId) {
         log.debug("Buscando contas do usuário ID: {}", userId);
 
-        return accountRepository.findByUserId(userId)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return withJournalBalances(accountRepository.findResponsesByUserId(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AccountResponseDTO> getAccountsByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return withJournalBalances(accountRepository.findResponsesByUserIdIn(userIds));
     }
 
     @Override
@@ -102,10 +115,7 @@ public class AccountServiceImpl implements AccountService {
     public List<AccountResponseDTO> getAccountsByStatus(AccountStatus status) {
         log.debug("Buscando contas por status: {}", status);
 
-        return accountRepository.findByStatus(status)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return withJournalBalances(accountRepository.findResponsesByStatus(status));
     }
 
     @Override
@@ -155,7 +165,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Conta não encontrada: " + id));
 
-        if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+        if (ledgerJournal.balanceOf(id).compareTo(BigDecimal.ZERO) != 0) {
             throw new BusinessException("Não é possível encerrar conta com saldo");
         }
 
@@ -199,17 +209,88 @@ public class AccountServiceImpl implements AccountService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalActiveBalance() {
+        // Soma a projeção (conferida com o diário pelo LedgerReconciler): pelo diário seria preciso
+        // somar a cauda de lançamentos de todas as contas
         BigDecimal total = accountRepository.getTotalActiveBalance();
-        return total != null ? total : BigDecimal.ZERO;
+        total = total != null ? total : BigDecimal.ZERO;
+        return total.add(stripedBalanceService.getTotalActiveStripedBalance());
+    }
+
+    @Override
+    public AccountResponseDTO configureBalanceStripes(Long id, int stripes) {
+        log.info("Configurando {} faixas de saldo para conta ID: {}", stripes, id);
+
+        Account account = stripedBalanceService.configureStripes(id, stripes);
+
+        auditService.logAction("ACCOUNT", account.getId().toString(), "UPDATE",
+                "Faixas de saldo configuradas: " + stripes);
+
+        return convertToResponse(account);
+    }
+
+    @Override
+    public AccountResponseDTO rebalanceStripes(Long id) {
+        log.info("Redistribuindo faixas de saldo da conta ID: {}", id);
+        Account account = stripedBalanceService.rebalance(id);
+        return convertToResponse(account);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountStatementResponseDTO getStatement(Long id, long afterSeq, int size) {
+        log.debug("Buscando extrato da conta ID: {} após sequência {}", id, afterSeq);
+
+        if (!accountRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Conta não encontrada: " + id);
+        }
+        if (afterSeq < 0 || size < 1 || size > 500) {
+            throw new BusinessException("Parâmetros de paginação inválidos");
+        }
+
+        return ledgerJournal.statement(id, afterSeq, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountBalanceResponseDTO getJournalBalance(Long id, LocalDateTime at) {
+        log.debug("Buscando saldo do diário da conta ID: {} em {}", id, at);
+
+        if (!accountRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Conta não encontrada: " + id);
+        }
+
+        BigDecimal balance = at != null ? ledgerJournal.balanceAt(id, at) : ledgerJournal.balanceOf(id);
+        return AccountBalanceResponseDTO.builder()
+                .accountId(id)
+                .balance(balance)
+                .at(at != null ? at : LocalDateTime.now())
+                .build();
+    }
+
+    // O saldo vem do diário; accounts.balance e as faixas são só a projeção dele
+    private List<AccountResponseDTO> withJournalBalances(List<AccountResponseDTO> accounts) {
+        if (accounts.isEmpty()) {
+            return accounts;
+        }
+        Map<Long, BigDecimal> balances = ledgerJournal.balancesOf(accounts.stream()
+                .map(AccountResponseDTO::getId)
+                .collect(Collectors.toList()));
+        accounts.forEach(account -> account.setBalance(balances.get(account.getId())));
+        return accounts;
     }
 
     private AccountResponseDTO convertToResponse(Account account) {
+        return convertToResponse(account, ledgerJournal.balanceOf(account.getId()));
+    }
+
+    static AccountResponseDTO convertToResponse(Account account, BigDecimal balance) {
         return AccountResponseDTO.builder()
                 .id(account.getId())
                 .userId(account.getUser().getId())
                 .accountNumber(account.getAccountNumber())
-                .balance(account.getBalance())
+                .balance(balance)
                 .status(account.getStatus())
+                .balanceStripes(account.getBalanceStripes())
                 .createdAt(account.getCreatedAt())
                 .updatedAt(account.getUpdatedAt())
                 .build();
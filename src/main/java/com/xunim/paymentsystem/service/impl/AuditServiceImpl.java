@@ -1,10 +1,14 @@
 package com.xunim.paymentsystem.service.impl;
 
 import com.xunim.paymentsystem.entity.AuditLog;
+import com.xunim.paymentsystem.enums.OutboxEventType;
+import com.xunim.paymentsystem.messaging.outbox.OutboxWriter;
 import com.xunim.paymentsystem.repository.mongodb.AuditLogRepository;
 import com.xunim.paymentsystem.service.AuditService;
+import com.xunim.paymentsystem.service.audit.AuditLogWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,6 +24,11 @@ import java.util.Map;
 public class AuditServiceImpl implements AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final OutboxWriter outboxWriter;
+    private final AuditLogWriter auditLogWriter;
+
+    @Value("${xunimpay.outbox.enabled:true}")
+    private boolean outboxEnabled = true;
 
     @Override
     public void logAction(String entityType, String entityId, String action, String details) {
@@ -30,20 +39,23 @@ public class AuditServiceImpl implements AuditService {
 
     @Override
     public void logAction(String entityType, String entityId, String action, Map<String, Object> details) {
-        try {
-            AuditLog auditLog = AuditLog.builder()
-                    .entityType(entityType)
-                    .entityId(entityId)
-                    .action(action)
-                    .details(details)
-                    .timestamp(LocalDateTime.now())
-                    .build();
+        AuditLog auditLog = AuditLog.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .action(action)
+                .details(details)
+                .timestamp(LocalDateTime.now())
+                .build();
 
-            auditLogRepository.save(auditLog);
+        if (outboxEnabled) {
+            // Mesma transação MySQL da operação auditada; falhas aqui desfazem a operação
+            outboxWriter.append(entityType, entityId, OutboxEventType.AUDIT_LOG, auditLog);
+            return;
+        }
 
-            log.debug("Log de auditoria salvo: {} {} {}", entityType, entityId, action);
-        } catch (Exception e) {
-            log.error("Erro ao salvar log de auditoria", e);
+        // Gravação em lote fora da thread da requisição
+        if (auditLogWriter.write(auditLog)) {
+            log.debug("Log de auditoria enfileirado: {} {} {}", entityType, entityId, action);
         }
     }
 
@@ -1,6 +1,9 @@
 package com.xunim.paymentsystem.service.impl;
 
 import com.xunim.paymentsystem.dto.request.CreatePaymentRequestDTO;
+import com.xunim.paymentsystem.dto.response.PaymentBatchItemResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentBatchResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentHistoryResponseDTO;
 import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
 import com.xunim.paymentsystem.entity.Account;
 import com.xunim.paymentsystem.entity.Payment;
@@ -9,22 +12,48 @@ import com.xunim.paymentsystem.enums.PaymentStatus;
 import com.xunim.paymentsystem.enums.PaymentType;
 import com.xunim.paymentsystem.exception.BusinessException;
 import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.messaging.PaymentCreatedEvent;
 import com.xunim.paymentsystem.repository.mysql.AccountRepository;
 import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
-import com.xunim.paymentsystem.service.AccountService;
 import com.xunim.paymentsystem.service.AuditService;
 import com.xunim.paymentsystem.service.PaymentService;
+import com.xunim.paymentsystem.service.idempotency.PaymentIdempotencyStore;
+import com.xunim.paymentsystem.service.ledger.LedgerEngine;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.stats.PaymentStatistics;
+import com.xunim.paymentsystem.service.transfer.HotAccountCreditCoalescer;
+import com.xunim.paymentsystem.service.transfer.TransferExecutor;
+import com.xunim.paymentsystem.util.PaymentCursor;
+import com.xunim.paymentsystem.util.TransactionIdGenerator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,16 +62,57 @@ import java.util.stream.Collectors;
 @Transactional
 public class PaymentServiceImpl implements PaymentService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Comparator<PaymentResponseDTO> HISTORY_ORDER =
+            Comparator.comparing(PaymentResponseDTO::getCreatedAt).thenComparing(PaymentResponseDTO::getId).reversed();
+
     private final PaymentRepository paymentRepository;
     private final AccountRepository accountRepository;
-    private final AccountService accountService;
+    private final LedgerEngine ledgerEngine;
     private final AuditService auditService;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentIdempotencyStore idempotencyStore;
+    private final TransferExecutor transferExecutor;
+    private final HotAccountCreditCoalescer creditCoalescer;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final LedgerJournal ledgerJournal;
+    private final PaymentStatistics paymentStatistics;
+
+    @Value("${xunimpay.payments.batch.chunk-size:500}")
+    private int batchChunkSize = 500;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponseDTO createPayment(CreatePaymentRequestDTO request) {
         log.info("Criando pagamento: {} -> {}, valor: {}",
                 request.getFromAccountId(), request.getToAccountId(), request.getAmount());
 
+        // Idempotência: a mesma chave retorna o pagamento original
+        Optional<PaymentResponseDTO> existing = findIdempotentPayment(request.getExternalId());
+        if (existing.isPresent()) {
+            log.info("Pagamento já criado para externalId {}: ID {}", request.getExternalId(), existing.get().getId());
+            return existing.get();
+        }
+
+        // Inserção em transação própria: se uma requisição concorrente com a mesma chave confirmar antes,
+        // o índice único de external_id rejeita esta e o original é relido fora da transação desfeita
+        try {
+            return transferExecutor.execute(() -> doCreatePayment(request));
+        } catch (DataIntegrityViolationException e) {
+            if (request.getExternalId() == null) {
+                throw e;
+            }
+            PaymentResponseDTO original = paymentRepository.findFirstByExternalIdOrderByIdAsc(request.getExternalId())
+                    .map(PaymentServiceImpl::convertToResponse)
+                    .orElseThrow(() -> e);
+            rememberIdempotentPayment(request.getExternalId(), original);
+            log.info("Pagamento concorrente já criado para externalId {}: ID {}", request.getExternalId(), original.getId());
+            return original;
+        }
+    }
+
+    private PaymentResponseDTO doCreatePayment(CreatePaymentRequestDTO request) {
         // Validações
         validatePaymentRequest(request);
 
@@ -51,45 +121,184 @@ public class PaymentServiceImpl implements PaymentService {
         if (request.getFromAccountId() != null) {
             fromAccount = accountRepository.findById(request.getFromAccountId())
                     .orElseThrow(() -> new ResourceNotFoundException("Conta origem não encontrada: " + request.getFromAccountId()));
-
-            if (fromAccount.getStatus() != AccountStatus.ACTIVE) {
-                throw new BusinessException("Conta origem não está ativa");
-            }
         }
 
         Account toAccount = accountRepository.findById(request.getToAccountId())
                 .orElseThrow(() -> new ResourceNotFoundException("Conta destino não encontrada: " + request.getToAccountId()));
 
-        if (toAccount.getStatus() != AccountStatus.ACTIVE) {
-            throw new BusinessException("Conta destino não está ativa");
-        }
-
-        // Validar saldo (para transferências e débitos)
-        if (fromAccount != null && needsBalanceCheck(request.getPaymentType())) {
-            if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
-                throw new BusinessException("Saldo insuficiente");
-            }
-        }
+        validatePaymentAccounts(request, fromAccount, toAccount, request.getAmount());
 
         // Criar pagamento
-        Payment payment = Payment.builder()
-                .fromAccount(fromAccount)
-                .toAccount(toAccount)
-                .amount(request.getAmount())
-                .paymentType(request.getPaymentType())
-                .status(PaymentStatus.PENDING)
-                .description(request.getDescription())
-                .externalId(request.getExternalId())
-                .transactionId(generateTransactionId())
-                .build();
+        Payment payment = buildPayment(request, fromAccount, toAccount);
 
         Payment savedPayment = paymentRepository.save(payment);
+        paymentStatistics.recordCreated(List.of(savedPayment));
 
         auditService.logAction("PAYMENT", savedPayment.getId().toString(), "CREATE",
                 String.format("Pagamento criado: %s, valor: %s", savedPayment.getTransactionId(), savedPayment.getAmount()));
 
+        publishCreated(savedPayment);
+
+        PaymentResponseDTO response = convertToResponse(savedPayment);
+        rememberIdempotentPayment(request.getExternalId(), response);
+
         log.info("Pagamento criado com sucesso: ID {}", savedPayment.getId());
-        return convertToResponse(savedPayment);
+        return response;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaymentBatchResponseDTO createPayments(List<CreatePaymentRequestDTO> requests) {
+        log.info("Criando lote de {} pagamentos", requests.size());
+
+        // Pagamentos já criados para as chaves de idempotência do lote
+        Map<String, PaymentResponseDTO> replayed = findIdempotentPayments(requests);
+
+        // Inserção em transação própria, como em createPayment: se uma requisição concorrente confirmar antes
+        // uma das chaves do lote, o índice único desfaz a transação, os originais são relidos fora dela e o
+        // lote é refeito devolvendo-os. Cada nova tentativa conhece pelo menos uma chave a mais.
+        while (true) {
+            try {
+                return transferExecutor.execute(() -> doCreatePayments(requests, replayed));
+            } catch (DataIntegrityViolationException e) {
+                Map<String, PaymentResponseDTO> concurrent = findConcurrentPayments(requests, replayed.keySet());
+                if (concurrent.isEmpty()) {
+                    throw e;
+                }
+                concurrent.forEach(this::rememberIdempotentPayment);
+                replayed.putAll(concurrent);
+                log.info("Lote colidiu com pagamentos concorrentes para externalIds {}, refazendo", concurrent.keySet());
+            }
+        }
+    }
+
+    private PaymentBatchResponseDTO doCreatePayments(List<CreatePaymentRequestDTO> requests,
+                                                     Map<String, PaymentResponseDTO> replayed) {
+        // Buscar todas as contas referenciadas em uma única consulta
+        Set<Long> accountIds = new HashSet<>();
+        for (CreatePaymentRequestDTO request : requests) {
+            if (request == null) {
+                continue;
+            }
+            if (request.getFromAccountId() != null) {
+                accountIds.add(request.getFromAccountId());
+            }
+            if (request.getToAccountId() != null) {
+                accountIds.add(request.getToAccountId());
+            }
+        }
+        Map<Long, Account> accounts = accountRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        Map<String, Integer> keysInBatch = new HashMap<>();
+
+        // Saldo já comprometido por itens anteriores do mesmo lote
+        Map<Long, BigDecimal> reserved = new HashMap<>();
+
+        PaymentBatchItemResponseDTO[] results = new PaymentBatchItemResponseDTO[requests.size()];
+        List<Payment> payments = new ArrayList<>(requests.size());
+        List<Integer> paymentIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreatePaymentRequestDTO request = requests.get(i);
+            String externalId = request != null ? request.getExternalId() : null;
+            if (externalId != null && replayed.containsKey(externalId)) {
+                results[i] = PaymentBatchItemResponseDTO.builder()
+                        .index(i)
+                        .success(true)
+                        .payment(replayed.get(externalId))
+                        .build();
+                continue;
+            }
+            if (externalId != null && keysInBatch.containsKey(externalId)) {
+                // Chave repetida dentro do próprio lote: resolvida após a inserção
+                continue;
+            }
+
+            try {
+                validateBatchItem(request);
+
+                Account fromAccount = null;
+                if (request.getFromAccountId() != null) {
+                    fromAccount = accounts.get(request.getFromAccountId());
+                    if (fromAccount == null) {
+                        throw new ResourceNotFoundException("Conta origem não encontrada: " + request.getFromAccountId());
+                    }
+                }
+
+                Account toAccount = accounts.get(request.getToAccountId());
+                if (toAccount == null) {
+                    throw new ResourceNotFoundException("Conta destino não encontrada: " + request.getToAccountId());
+                }
+
+                BigDecimal committed = fromAccount != null
+                        ? reserved.getOrDefault(fromAccount.getId(), BigDecimal.ZERO).add(request.getAmount())
+                        : request.getAmount();
+                validatePaymentAccounts(request, fromAccount, toAccount, committed);
+                if (fromAccount != null && needsBalanceCheck(request.getPaymentType())) {
+                    reserved.put(fromAccount.getId(), committed);
+                }
+
+                payments.add(buildPayment(request, fromAccount, toAccount));
+                paymentIndexes.add(i);
+                if (externalId != null) {
+                    keysInBatch.put(externalId, i);
+                }
+            } catch (BusinessException | ResourceNotFoundException e) {
+                results[i] = PaymentBatchItemResponseDTO.builder()
+                        .index(i)
+                        .success(false)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
+
+        // Inserção em lotes JDBC (hibernate.jdbc.batch_size)
+        for (int from = 0; from < payments.size(); from += batchChunkSize) {
+            List<Payment> chunk = payments.subList(from, Math.min(from + batchChunkSize, payments.size()));
+            paymentRepository.saveAll(chunk);
+            paymentRepository.flush();
+        }
+        paymentStatistics.recordCreated(payments);
+
+        List<String> transactionIds = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            int index = paymentIndexes.get(i);
+            results[index] = PaymentBatchItemResponseDTO.builder()
+                    .index(index)
+                    .success(true)
+                    .payment(convertToResponse(payment))
+                    .build();
+            transactionIds.add(payment.getTransactionId());
+            publishCreated(payment);
+            rememberIdempotentPayment(payment.getExternalId(), results[index].getPayment());
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                PaymentBatchItemResponseDTO first = results[keysInBatch.get(requests.get(i).getExternalId())];
+                results[i] = first.toBuilder().index(i).build();
+            }
+        }
+
+        int failed = (int) Arrays.stream(results).filter(result -> !result.getSuccess()).count();
+
+        // Um único registro de auditoria por lote
+        if (!payments.isEmpty()) {
+            Map<String, Object> details = new HashMap<>();
+            details.put("description", String.format("Lote de pagamentos criado: %d itens, %d falhas", payments.size(), failed));
+            details.put("transactionIds", transactionIds);
+            auditService.logAction("PAYMENT", "BATCH", "CREATE", details);
+        }
+
+        log.info("Lote de pagamentos processado: {} criados, {} falhas", payments.size(), failed);
+        return PaymentBatchResponseDTO.builder()
+                .total(requests.size())
+                .succeeded(requests.size() - failed)
+                .failed(failed)
+                .results(Arrays.asList(results))
+                .build();
     }
 
     @Override
@@ -97,10 +306,8 @@ public class PaymentServiceImpl implements PaymentService {
     public PaymentResponseDTO getPaymentById(Long id) {
         log.debug("Buscando pagamento por ID: {}", id);
 
-        Payment payment = paymentRepository.findById(id)
+        return paymentRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pagamento não encontrado: " + id));
-
-        return convertToResponse(payment);
     }
 
     @Override
@@ -108,26 +315,21 @@ public class PaymentServiceImpl implements PaymentService {
     public PaymentResponseDTO getPaymentByTransactionId(String transactionId) {
         log.debug("Buscando pagamento por transaction ID: {}", transactionId);
 
-        Payment payment = paymentRepository.findByTransactionId(transactionId)
+        return paymentRepository.findResponseByTransactionId(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pagamento não encontrado: " + transactionId));
-
-        return convertToResponse(payment);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PaymentResponseDTO> getPaymentsByAccountId(Long accountId) {
-        log.debug("Buscando pagamentos da conta ID: {}", accountId);
+    public List<PaymentResponseDTO> getPaymentsByAccountId(Long accountId, int limit) {
+        log.debug("Buscando pagamentos recentes da conta ID: {}", accountId);
 
-        List<Payment> sentPayments = paymentRepository.findByFromAccountId(accountId);
-        List<Payment> receivedPayments = paymentRepository.findByToAccountId(accountId);
-
-        sentPayments.addAll(receivedPayments);
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new BusinessException("Limite deve estar entre 1 e " + MAX_HISTORY_PAGE_SIZE);
+        }
 
-        return sentPayments.stream()
-                .distinct()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        // Enviados e recebidos unidos no banco, já ordenados e limitados
+        return paymentRepository.findRecentByAccountId(accountId, limit);
     }
 
     @Override
@@ -135,8 +337,48 @@ public class PaymentServiceImpl implements PaymentService {
     public Page<PaymentResponseDTO> getPaymentsByAccount(Long accountId, Pageable pageable) {
         log.debug("Buscando pagamentos paginados da conta ID: {}", accountId);
 
-        return paymentRepository.findByAccountId(accountId, pageable)
-                .map(this::convertToResponse);
+        return paymentRepository.findResponsesByAccountId(accountId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaymentHistoryResponseDTO getPaymentHistory(Long accountId, String cursor, int size) {
+        log.debug("Buscando histórico de pagamentos da conta ID: {}", accountId);
+
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new BusinessException("Tamanho da página deve estar entre 1 e " + MAX_HISTORY_PAGE_SIZE);
+        }
+
+        // Um item a mais em cada lado indica se existe próxima página
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<PaymentResponseDTO> sent;
+        List<PaymentResponseDTO> received;
+        if (cursor == null || cursor.isBlank()) {
+            sent = paymentRepository.findLatestSent(accountId, limit);
+            received = paymentRepository.findLatestReceived(accountId, limit);
+        } else {
+            PaymentCursor position = PaymentCursor.decode(cursor);
+            sent = paymentRepository.findSentBefore(accountId, position.createdAt(), position.id(), limit);
+            received = paymentRepository.findReceivedBefore(accountId, position.createdAt(), position.id(), limit);
+        }
+
+        List<PaymentResponseDTO> page = mergeNewestFirst(sent, received, size + 1);
+        boolean hasMore = page.size() > size;
+        if (hasMore) {
+            page = page.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PaymentResponseDTO last = page.get(page.size() - 1);
+            nextCursor = new PaymentCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return PaymentHistoryResponseDTO.builder()
+                .accountId(accountId)
+                .payments(page)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
@@ -144,10 +386,7 @@ public class PaymentServiceImpl implements PaymentService {
     public List<PaymentResponseDTO> getPaymentsByStatus(PaymentStatus status) {
         log.debug("Buscando pagamentos por status: {}", status);
 
-        return paymentRepository.findByStatus(status)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return paymentRepository.findResponsesByStatus(status);
     }
 
     @Override
@@ -155,14 +394,41 @@ public class PaymentServiceImpl implements PaymentService {
     public List<PaymentResponseDTO> getPaymentsByDateRange(LocalDateTime start, LocalDateTime end) {
         log.debug("Buscando pagamentos por período: {} - {}", start, end);
 
-        return paymentRepository.findByDateRange(start, end)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return paymentRepository.findResponsesByDateRange(start, end);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponseDTO processPayment(Long paymentId) {
+        // Pagamentos para contas quentes são processados em grupo, com um único crédito no destino
+        if (creditCoalescer.isEnabled()) {
+            Long toAccountId = paymentRepository.findToAccountIdById(paymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Pagamento não encontrado: " + paymentId));
+
+            if (creditCoalescer.isHotAccount(toAccountId)) {
+                return processCoalesced(toAccountId, paymentId);
+            }
+        }
+
+        // Cada tentativa roda em transação própria; deadlocks e lock timeouts repetem a transação inteira
+        return transferExecutor.execute(() -> doProcessPayment(paymentId));
+    }
+
+    private PaymentResponseDTO processCoalesced(Long toAccountId, Long paymentId) {
+        log.info("Processando pagamento ID: {} (crédito agrupado na conta {})", paymentId, toAccountId);
+        try {
+            Payment payment = creditCoalescer.submit(toAccountId, paymentId).join();
+            log.info("Pagamento processado: ID {}, Status: {}", paymentId, payment.getStatus());
+            return convertToResponse(payment);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Erro no processamento do pagamento: " + e.getMessage(), e);
+        }
+    }
+
+    private PaymentResponseDTO doProcessPayment(Long paymentId) {
         log.info("Processando pagamento ID: {}", paymentId);
 
         Payment payment = paymentRepository.findById(paymentId)
@@ -172,9 +438,13 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BusinessException("Apenas pagamentos pendentes podem ser processados");
         }
 
+        // Outro nó ou requisição pode ter iniciado o mesmo pagamento depois da leitura
+        if (paymentRepository.markProcessing(paymentId) == 0) {
+            throw new BusinessException("Apenas pagamentos pendentes podem ser processados");
+        }
+
         try {
             payment.setStatus(PaymentStatus.PROCESSING);
-            paymentRepository.save(payment);
 
             // Processar transferência de saldo
             boolean success = processBalanceTransfer(payment);
@@ -193,11 +463,15 @@ public class PaymentServiceImpl implements PaymentService {
             }
 
             Payment updatedPayment = paymentRepository.save(payment);
+            paymentStatistics.recordTransition(updatedPayment, PaymentStatus.PENDING);
             log.info("Pagamento processado: ID {}, Status: {}", paymentId, updatedPayment.getStatus());
 
             return convertToResponse(updatedPayment);
 
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
+            if (TransferExecutor.isLockFailure(e)) {
+                throw e;
+            }
             log.error("Erro ao processar pagamento ID: {}", paymentId, e);
 
             payment.setStatus(PaymentStatus.FAILED);
@@ -222,8 +496,10 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BusinessException("Pagamento já está cancelado");
         }
 
+        PaymentStatus previousStatus = payment.getStatus();
         payment.setStatus(PaymentStatus.CANCELLED);
         Payment updatedPayment = paymentRepository.save(payment);
+        paymentStatistics.recordTransition(updatedPayment, previousStatus);
 
         auditService.logAction("PAYMENT", payment.getId().toString(), "UPDATE",
                 "Pagamento cancelado: " + payment.getTransactionId());
@@ -235,14 +511,13 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalAmountByType(PaymentType type) {
-        BigDecimal total = paymentRepository.getTotalAmountByType(type);
-        return total != null ? total : BigDecimal.ZERO;
+        return paymentStatistics.totalCompletedAmount(type);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countPaymentsByStatusSince(PaymentStatus status, LocalDateTime since) {
-        return paymentRepository.countByStatusSince(status, since);
+        return paymentStatistics.countSince(status, since);
     }
 
     private void validatePaymentRequest(CreatePaymentRequestDTO request) {
@@ -261,6 +536,142 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    private void validateBatchItem(CreatePaymentRequestDTO request) {
+        if (request == null) {
+            throw new BusinessException("Pagamento não informado");
+        }
+
+        Set<ConstraintViolation<CreatePaymentRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new BusinessException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        validatePaymentRequest(request);
+    }
+
+    private void validatePaymentAccounts(CreatePaymentRequestDTO request, Account fromAccount,
+                                         Account toAccount, BigDecimal requiredBalance) {
+        if (fromAccount != null && fromAccount.getStatus() != AccountStatus.ACTIVE) {
+            throw new BusinessException("Conta origem não está ativa");
+        }
+
+        if (toAccount.getStatus() != AccountStatus.ACTIVE) {
+            throw new BusinessException("Conta destino não está ativa");
+        }
+
+        // Validar saldo (para transferências e débitos); contas com faixas são conferidas no débito
+        if (fromAccount != null && needsBalanceCheck(request.getPaymentType()) && !fromAccount.isStriped()) {
+            if (fromAccount.getBalance().compareTo(requiredBalance) < 0) {
+                throw new BusinessException("Saldo insuficiente");
+            }
+        }
+    }
+
+    private Payment buildPayment(CreatePaymentRequestDTO request, Account fromAccount, Account toAccount) {
+        return Payment.builder()
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .amount(request.getAmount())
+                .paymentType(request.getPaymentType())
+                .status(PaymentStatus.PENDING)
+                .description(request.getDescription())
+                .externalId(request.getExternalId())
+                .transactionId(generateTransactionId())
+                .build();
+    }
+
+    private Optional<PaymentResponseDTO> findIdempotentPayment(String externalId) {
+        if (externalId == null || !idempotencyStore.isEnabled()) {
+            return Optional.empty();
+        }
+
+        Optional<PaymentResponseDTO> cached = idempotencyStore.find(externalId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        // Fora da janela de retenção ou após reinício: consulta o índice de external_id
+        Optional<PaymentResponseDTO> stored = paymentRepository.findFirstByExternalIdOrderByIdAsc(externalId)
+                .map(PaymentServiceImpl::convertToResponse);
+        stored.ifPresent(response -> idempotencyStore.recordDatabaseHit(externalId, response));
+        return stored;
+    }
+
+    private Map<String, PaymentResponseDTO> findIdempotentPayments(List<CreatePaymentRequestDTO> requests) {
+        Map<String, PaymentResponseDTO> found = new HashMap<>();
+        if (!idempotencyStore.isEnabled()) {
+            return found;
+        }
+
+        Set<String> missing = new HashSet<>();
+        for (CreatePaymentRequestDTO request : requests) {
+            if (request == null || request.getExternalId() == null || found.containsKey(request.getExternalId())) {
+                continue;
+            }
+            idempotencyStore.find(request.getExternalId()).ifPresentOrElse(
+                    response -> found.put(request.getExternalId(), response),
+                    () -> missing.add(request.getExternalId()));
+        }
+
+        if (!missing.isEmpty()) {
+            paymentRepository.findByExternalIdIn(missing).stream()
+                    .sorted(Comparator.comparing(Payment::getId))
+                    .forEach(payment -> found.computeIfAbsent(payment.getExternalId(), key -> {
+                        PaymentResponseDTO response = convertToResponse(payment);
+                        idempotencyStore.recordDatabaseHit(key, response);
+                        return response;
+                    }));
+        }
+        return found;
+    }
+
+    // Só memoriza a resposta se a transação for confirmada
+    private Map<String, PaymentResponseDTO> findConcurrentPayments(List<CreatePaymentRequestDTO> requests,
+                                                                 Set<String> known) {
+        Set<String> keys = new HashSet<>();
+        for (CreatePaymentRequestDTO request : requests) {
+            if (request != null && request.getExternalId() != null && !known.contains(request.getExternalId())) {
+                keys.add(request.getExternalId());
+            }
+        }
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, PaymentResponseDTO> found = new HashMap<>();
+        paymentRepository.findByExternalIdIn(keys).stream()
+                .sorted(Comparator.comparing(Payment::getId))
+                .forEach(payment -> found.putIfAbsent(payment.getExternalId(), convertToResponse(payment)));
+        return found;
+    }
+
+    private void rememberIdempotentPayment(String externalId, PaymentResponseDTO response) {
+        if (externalId == null || !idempotencyStore.isEnabled()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    idempotencyStore.put(externalId, response);
+                }
+            });
+        } else {
+            idempotencyStore.put(externalId, response);
+        }
+    }
+
+    private void publishCreated(Payment payment) {
+        eventPublisher.publishEvent(PaymentCreatedEvent.builder()
+                .paymentId(payment.getId())
+                .transactionId(payment.getTransactionId())
+                .build());
+    }
+
     private boolean needsFromAccount(PaymentType paymentType) {
         return paymentType == PaymentType.TRANSFER || paymentType == PaymentType.CARD;
     }
@@ -270,37 +681,50 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private boolean processBalanceTransfer(Payment payment) {
+        // Debita a conta origem apenas quando o tipo de pagamento exige
+        Long fromAccountId = payment.getFromAccount() != null && needsBalanceCheck(payment.getPaymentType())
+                ? payment.getFromAccount().getId()
+                : null;
+
+        boolean transferred;
         try {
-            // Debitar da conta origem (se existir)
-            if (payment.getFromAccount() != null && needsBalanceCheck(payment.getPaymentType())) {
-                boolean debitSuccess = accountService.subtractBalance(
-                        payment.getFromAccount().getId(),
-                        payment.getAmount()
-                );
-
-                if (!debitSuccess) {
-                    log.warn("Falha ao debitar conta origem: {}", payment.getFromAccount().getId());
-                    return false;
-                }
+            transferred = ledgerEngine.transfer(fromAccountId, payment.getToAccount().getId(), payment.getAmount());
+        } catch (RuntimeException e) {
+            if (TransferExecutor.isLockFailure(e)) {
+                throw e;
             }
-
-            // Creditar na conta destino
-            accountService.addBalance(payment.getToAccount().getId(), payment.getAmount());
-
-            return true;
-
-        } catch (Exception e) {
             log.error("Erro na transferência de saldo para pagamento {}", payment.getId(), e);
             return false;
         }
+
+        // Fora do try: uma falha no diário desfaz a transação inteira
+        if (transferred) {
+            ledgerJournal.record(payment.getId(), fromAccountId, payment.getToAccount().getId(), payment.getAmount());
+        }
+        return transferred;
     }
 
     private String generateTransactionId() {
-        return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase() +
-                "-" + System.currentTimeMillis();
+        return transactionIdGenerator.nextTransactionId();
+    }
+
+    // Intercala as duas listas já ordenadas por (created_at, id) decrescente
+    private static List<PaymentResponseDTO> mergeNewestFirst(List<PaymentResponseDTO> sent,
+                                                             List<PaymentResponseDTO> received, int limit) {
+        List<PaymentResponseDTO> merged = new ArrayList<>(Math.min(limit, sent.size() + received.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < sent.size() || j < received.size())) {
+            if (j >= received.size() || (i < sent.size() && HISTORY_ORDER.compare(sent.get(i), received.get(j)) <= 0)) {
+                merged.add(sent.get(i++));
+            } else {
+                merged.add(received.get(j++));
+            }
+        }
+        return merged;
     }
 
-    private PaymentResponseDTO convertToResponse(Payment payment) {
+    static PaymentResponseDTO convertToResponse(Payment payment) {
         return PaymentResponseDTO.builder()
                 .id(payment.getId())
                 .fromAccountId(payment.getFromAccount() != null ? payment.getFromAccount().getId() : null)
@@ -7,16 +7,20 @@ import com.xunim.paymentsystem.entity.User;
 import com.xunim.paymentsystem.exception.BusinessException;
 import com.xunim.paymentsystem.exception.ResourceNotFoundException;
 import com.xunim.paymentsystem.repository.mysql.UserRepository;
+import com.xunim.paymentsystem.service.AccountService;
 import com.xunim.paymentsystem.service.AuditService;
 import com.xunim.paymentsystem.service.UserService;
+import com.xunim.paymentsystem.service.cache.LookupCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +31,8 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final AuditService auditService;
+    private final AccountService accountService;
+    private final LookupCache lookupCache;
 
     @Override
     public UserResponseDTO createUser(CreateUserRequestDTO request) {
@@ -66,10 +72,7 @@ public class UserServiceImpl implements UserService {
     public UserResponseDTO getUserById(Long id) {
         log.debug("Buscando usuário por ID: {}", id);
 
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado: " + id));
-
-        return convertToResponse(user);
+        return withAccounts(lookupCache.user(id, () -> loadUser(id)));
     }
 
     @Override
@@ -77,10 +80,11 @@ public class UserServiceImpl implements UserService {
     public UserResponseDTO getUserByEmail(String email) {
         log.debug("Buscando usuário por email: {}", email);
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado para email: " + email));
+        Long id = lookupCache.userId(email, () -> userRepository.findByEmail(email)
+                .map(User::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado para email: " + email)));
 
-        return convertToResponse(user);
+        return withAccounts(lookupCache.user(id, () -> loadUser(id)));
     }
 
     @Override
@@ -91,7 +95,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByDocument(document)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado para documento: " + document));
 
-        return convertToResponse(user);
+        return convertToResponses(List.of(user)).get(0);
     }
 
     @Override
@@ -99,10 +103,7 @@ public class UserServiceImpl implements UserService {
     public List<UserResponseDTO> getAllActiveUsers() {
         log.debug("Buscando todos os usuários ativos");
 
-        return userRepository.findByIsActiveTrue()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(userRepository.findByIsActiveTrue());
     }
 
     @Override
@@ -110,8 +111,8 @@ public class UserServiceImpl implements UserService {
     public Page<UserResponseDTO> getAllUsers(Pageable pageable) {
         log.debug("Buscando usuários paginados: {}", pageable);
 
-        return userRepository.findAll(pageable)
-                .map(this::convertToResponse);
+        Page<User> users = userRepository.findAll(pageable);
+        return new PageImpl<>(convertToResponses(users.getContent()), users.getPageable(), users.getTotalElements());
     }
 
     @Override
@@ -131,6 +132,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("Documento já cadastrado: " + request.getDocument());
         }
 
+        lookupCache.evictUser(id, existingUser.getEmail());
+
         // Atualizar dados
         existingUser.setEmail(request.getEmail());
         existingUser.setDocument(request.getDocument());
@@ -156,6 +159,7 @@ public class UserServiceImpl implements UserService {
 
         user.setIsActive(false);
         userRepository.save(user);
+        lookupCache.evictUser(id, null);
 
         // Auditoria
         auditService.logAction("USER", user.getId().toString(), "UPDATE",
@@ -173,6 +177,7 @@ public class UserServiceImpl implements UserService {
 
         user.setIsActive(true);
         userRepository.save(user);
+        lookupCache.evictUser(id, null);
 
         // Auditoria
         auditService.logAction("USER", user.getId().toString(), "UPDATE",
@@ -193,7 +198,33 @@ public class UserServiceImpl implements UserService {
         return userRepository.existsByDocument(document);
     }
 
-    private UserResponseDTO convertToResponse(User user) {
+    private UserResponseDTO loadUser(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado: " + id));
+
+        return baseResponse(user).build();
+    }
+
+    // Contas e saldos não ficam no cache do usuário: são lidos do banco em uma consulta
+    private UserResponseDTO withAccounts(UserResponseDTO user) {
+        return user.toBuilder().accounts(accountService.getAccountsByUserId(user.getId())).build();
+    }
+
+    // Contas de todos os usuários em uma única consulta, em vez de user.getAccounts() por usuário
+    private List<UserResponseDTO> convertToResponses(List<User> users) {
+        List<Long> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+        Map<Long, List<AccountResponseDTO>> accountsByUser = accountService.getAccountsByUserIds(userIds)
+                .stream()
+                .collect(Collectors.groupingBy(AccountResponseDTO::getUserId));
+
+        return users.stream()
+                .map(user -> baseResponse(user)
+                        .accounts(accountsByUser.getOrDefault(user.getId(), List.of()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    static UserResponseDTO convertToResponse(User user) {
         List<AccountResponseDTO> accounts = null;
         if (user.getAccounts() != null) {
             accounts = user.getAccounts().stream()
@@ -209,6 +240,12 @@ public class UserServiceImpl implements UserService {
                     .collect(Collectors.toList());
         }
 
+        return baseResponse(user)
+                .accounts(accounts)
+                .build();
+    }
+
+    private static UserResponseDTO.UserResponseDTOBuilder baseResponse(User user) {
         return UserResponseDTO.builder()
                 .id(user.getId())
                 .email(user.getEmail())
@@ -217,8 +254,6 @@ public class UserServiceImpl implements UserService {
                 .phone(user.getPhone())
                 .isActive(user.getIsActive())
                 .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
-                .accounts(accounts)
-                .build();
+                .updatedAt(user.getUpdatedAt());
     }
 }
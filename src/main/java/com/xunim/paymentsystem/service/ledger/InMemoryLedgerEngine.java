@@ -0,0 +1,263 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger com saldos em memória, particionado por ID de conta entre shards de escritor único.
+ * Débitos e créditos são aplicados sem locks e gravados em lote na tabela {@code accounts}
+ * a cada {@code xunimpay.ledger.flush-interval-ms}; saldos lidos do MySQL podem estar
+ * atrasados em até um flush.
+ * <p>
+ * Dentro de uma transação, o débito da origem é uma reserva: o destino só é creditado depois
+ * do commit, e o rollback devolve o valor à origem. O flush grava variações
+ * ({@code balance = balance + ?}), então não sobrescreve outros escritores da coluna; o que
+ * eles escrevem só entra nos saldos em memória na próxima recuperação.
+ */
+@Component
+@ConditionalOnProperty(name = "xunimpay.ledger.mode", havingValue = "memory")
+@Slf4j
+public class InMemoryLedgerEngine implements LedgerEngine {
+
+    private static final String SELECT_BALANCES = "SELECT id, balance FROM accounts";
+    private static final String SELECT_BALANCE = "SELECT balance FROM accounts WHERE id = ?";
+    private static final String UPDATE_BALANCE = "UPDATE accounts SET balance = balance + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerShard[] shards;
+    private final long flushIntervalMs;
+    private final int flushBatchSize;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final Counter completedTransfers;
+    private final Counter rejectedTransfers;
+
+    public InMemoryLedgerEngine(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${xunimpay.ledger.shards:8}") int shardCount,
+                                @Value("${xunimpay.ledger.queue-capacity:100000}") int queueCapacity,
+                                @Value("${xunimpay.ledger.flush-interval-ms:50}") long flushIntervalMs,
+                                @Value("${xunimpay.ledger.flush-batch-size:500}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = flushBatchSize;
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, queueCapacity, this::loadBalance, this::persistBalances);
+        }
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ledger-flush");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.completedTransfers = Counter.builder("xunimpay.ledger.transfers")
+                .tag("result", "completed")
+                .register(meterRegistry);
+        this.rejectedTransfers = Counter.builder("xunimpay.ledger.transfers")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.ledger.pending", this, InMemoryLedgerEngine::pendingCommands)
+                .description("Comandos aguardando nas filas dos shards")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        flushScheduler.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Ledger em memória iniciado com {} shards", shards.length);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flushScheduler.shutdown();
+        flushScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        log.info("Ledger em memória finalizado");
+    }
+
+    @Override
+    public boolean transfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        long amountCents = toCents(amount);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            return reserve(fromAccountId, toAccountId, amountCents);
+        }
+
+        CompletableFuture<Boolean> result;
+        if (fromAccountId == null) {
+            result = shardFor(toAccountId).credit(toAccountId, amountCents);
+        } else {
+            result = shardFor(fromAccountId).debit(fromAccountId, amountCents)
+                    .thenCompose(debited -> debited
+                            ? creditOrRefund(fromAccountId, toAccountId, amountCents)
+                            : CompletableFuture.completedFuture(false));
+        }
+
+        try {
+            boolean success = result.join();
+            (success ? completedTransfers : rejectedTransfers).increment();
+            return success;
+        } catch (CompletionException e) {
+            rejectedTransfers.increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Erro no ledger em memória", e.getCause());
+        }
+    }
+
+    /**
+     * Debita a origem agora e deixa o crédito do destino para o commit da transação corrente.
+     */
+    private boolean reserve(Long fromAccountId, Long toAccountId, long amountCents) {
+        if (fromAccountId != null) {
+            boolean debited;
+            try {
+                debited = shardFor(fromAccountId).debit(fromAccountId, amountCents).join();
+            } catch (CompletionException e) {
+                rejectedTransfers.increment();
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new BusinessException("Erro no ledger em memória", e.getCause());
+            }
+            if (!debited) {
+                rejectedTransfers.increment();
+                return false;
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    settle(toAccountId, amountCents, "crédito da conta " + toAccountId);
+                    completedTransfers.increment();
+                    return;
+                }
+                if (status == STATUS_UNKNOWN) {
+                    log.error("Resultado do commit desconhecido; estornando reserva de {} centavos da conta {} para {}",
+                            amountCents, fromAccountId, toAccountId);
+                }
+                if (fromAccountId != null) {
+                    settle(fromAccountId, amountCents, "estorno da conta " + fromAccountId);
+                }
+                rejectedTransfers.increment();
+            }
+        });
+        return true;
+    }
+
+    private void settle(Long accountId, long amountCents, String description) {
+        try {
+            shardFor(accountId).settle(accountId, amountCents).join();
+        } catch (CompletionException e) {
+            log.error("Falha no {} ({} centavos) após o fim da transação", description, amountCents, e.getCause());
+        }
+    }
+
+    public BigDecimal getBalance(Long accountId) {
+        return BigDecimal.valueOf(shardFor(accountId).balance(accountId).join(), 2);
+    }
+
+    public void flushAll() {
+        for (LedgerShard shard : shards) {
+            shard.flush();
+        }
+    }
+
+    private CompletableFuture<Boolean> creditOrRefund(Long fromAccountId, Long toAccountId, long amountCents) {
+        return shardFor(toAccountId).credit(toAccountId, amountCents)
+                .handle((credited, ex) -> {
+                    if (ex == null) {
+                        return true;
+                    }
+                    // Estorno do débito já aplicado na conta origem
+                    log.error("Falha ao creditar conta {}, estornando débito da conta {}", toAccountId, fromAccountId, ex);
+                    shardFor(fromAccountId).settle(fromAccountId, amountCents);
+                    return false;
+                });
+    }
+
+    private void recover() {
+        long start = System.currentTimeMillis();
+        int[] loaded = {0};
+        jdbcTemplate.query(SELECT_BALANCES, rs -> {
+            long accountId = rs.getLong(1);
+            shardFor(accountId).seed(accountId, toCents(rs.getBigDecimal(2)));
+            loaded[0]++;
+        });
+        log.info("Ledger recuperado do MySQL: {} contas em {} ms", loaded[0], System.currentTimeMillis() - start);
+    }
+
+    private Long loadBalance(long accountId) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(SELECT_BALANCE, BigDecimal.class, accountId);
+        return balances.isEmpty() ? null : toCents(balances.get(0));
+    }
+
+    private void persistBalances(List<LedgerShard.BalanceUpdate> updates) {
+        // Uma transação por snapshot: se falhar, nenhuma variação foi aplicada e o shard pode reenviá-las
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < updates.size(); from += flushBatchSize) {
+                List<LedgerShard.BalanceUpdate> chunk = updates.subList(from, Math.min(from + flushBatchSize, updates.size()));
+                List<Object[]> args = new ArrayList<>(chunk.size());
+                for (LedgerShard.BalanceUpdate update : chunk) {
+                    args.add(new Object[]{BigDecimal.valueOf(update.deltaCents(), 2), update.accountId()});
+                }
+                jdbcTemplate.batchUpdate(UPDATE_BALANCE, args);
+            }
+        });
+        log.debug("Ledger gravou {} saldos", updates.size());
+    }
+
+    private LedgerShard shardFor(long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+
+    private double pendingCommands() {
+        int total = 0;
+        for (LedgerShard shard : shards) {
+            total += shard.pendingCommands();
+        }
+        return total;
+    }
+
+    private static long toCents(BigDecimal value) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+}
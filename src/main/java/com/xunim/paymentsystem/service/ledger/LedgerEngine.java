@@ -0,0 +1,18 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import java.math.BigDecimal;
+
+/**
+ * Aplica a movimentação de saldo de um pagamento.
+ * A implementação é escolhida pela propriedade {@code xunimpay.ledger.mode} (sql | memory).
+ */
+public interface LedgerEngine {
+
+    /**
+     * Debita {@code amount} da conta origem (quando informada) e credita na conta destino.
+     *
+     * @param fromAccountId conta a debitar, ou {@code null} quando o pagamento não exige débito
+     * @return {@code false} quando a conta origem não tem saldo suficiente
+     */
+    boolean transfer(Long fromAccountId, Long toAccountId, BigDecimal amount);
+}
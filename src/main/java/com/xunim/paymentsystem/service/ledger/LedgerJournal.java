@@ -0,0 +1,213 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.dto.response.AccountStatementResponseDTO;
+import com.xunim.paymentsystem.dto.response.LedgerEntryResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diário append-only de partidas dobradas ({@code ledger_entries}). Cada pagamento concluído
+ * grava um débito (valor negativo) e um crédito na mesma transação que movimenta os saldos;
+ * o saldo no diário é o último checkpoint mais os lançamentos posteriores a ele.
+ * Depósitos sem conta origem debitam a conta externa {@link #EXTERNAL_ACCOUNT_ID}.
+ * <p>
+ * O diário é a fonte da verdade do saldo: o débito condicional e as consultas de conta usam
+ * {@link #balanceForDebit} e {@link #balancesOf}. {@code accounts.balance} e as faixas são uma
+ * projeção atualizada na mesma transação, que serve de reserva para o débito sem lock da conta
+ * ({@link StripedBalanceService}) e de linha a travar; o {@link LedgerReconciler} confere que ela
+ * não diverge do diário. No modo memory o débito continua conferido nos shards do
+ * {@link InMemoryLedgerEngine}, que gravam no diário na mesma transação.
+ */
+@Component
+@Slf4j
+public class LedgerJournal {
+
+    public static final long EXTERNAL_ACCOUNT_ID = 0L;
+
+    public enum EntryType {
+        DEBIT, CREDIT, OPENING
+    }
+
+    public record Posting(Long paymentId, Long debitAccountId, Long creditAccountId, BigDecimal amount) {
+    }
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO ledger_entries (account_id, payment_id, entry_type, amount) VALUES (?, ?, ?, ?)";
+    private static final String LATEST_CHECKPOINT =
+            "SELECT account_seq, balance FROM ledger_checkpoints WHERE account_id = ? ORDER BY account_seq DESC LIMIT 1";
+    private static final String CHECKPOINT_AS_OF =
+            "SELECT account_seq, balance FROM ledger_checkpoints WHERE account_id = ? AND as_of <= ? " +
+                    "ORDER BY account_seq DESC LIMIT 1";
+    private static final String CHECKPOINT_UP_TO_SEQ =
+            "SELECT account_seq, balance FROM ledger_checkpoints WHERE account_id = ? AND account_seq <= ? " +
+                    "ORDER BY account_seq DESC LIMIT 1";
+    private static final String SUM_AFTER_SEQ =
+            "SELECT COALESCE(SUM(amount), 0) FROM ledger_entries " +
+                    "WHERE account_id = ? AND (account_seq > ? OR account_seq IS NULL)";
+    private static final String SUM_AFTER_SEQ_UNTIL =
+            "SELECT COALESCE(SUM(amount), 0) FROM ledger_entries " +
+                    "WHERE account_id = ? AND (account_seq > ? OR account_seq IS NULL) AND created_at <= ?";
+    private static final String SUM_SEQ_RANGE =
+            "SELECT COALESCE(SUM(amount), 0) FROM ledger_entries " +
+                    "WHERE account_id = ? AND account_seq > ? AND account_seq <= ?";
+    // Último checkpoint mais os lançamentos posteriores, de várias contas num único comando
+    private static final String BALANCES =
+            "SELECT t.account_id, SUM(t.amount) AS balance FROM (" +
+                    "SELECT c.account_id, c.balance AS amount FROM ledger_checkpoints c " +
+                    "WHERE c.account_id IN (:ids) AND c.account_seq = " +
+                    "(SELECT MAX(m.account_seq) FROM ledger_checkpoints m WHERE m.account_id = c.account_id) " +
+                    "UNION ALL " +
+                    "SELECT e.account_id, e.amount FROM ledger_entries e " +
+                    "WHERE e.account_id IN (:ids) AND (e.account_seq IS NULL OR e.account_seq > COALESCE(" +
+                    "(SELECT MAX(m.account_seq) FROM ledger_checkpoints m WHERE m.account_id = e.account_id), 0))" +
+                    ") t GROUP BY t.account_id";
+    private static final String SELECT_PAGE =
+            "SELECT account_seq, payment_id, entry_type, amount, created_at FROM ledger_entries " +
+                    "WHERE account_id = ? AND account_seq > ? ORDER BY account_seq LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public LedgerJournal(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void record(Long paymentId, Long debitAccountId, Long creditAccountId, BigDecimal amount) {
+        recordAll(List.of(new Posting(paymentId, debitAccountId, creditAccountId, amount)));
+    }
+
+    /**
+     * Grava os lançamentos na transação corrente, num único batch.
+     */
+    public void recordAll(List<Posting> postings) {
+        if (postings.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(postings.size() * 2);
+        for (Posting posting : postings) {
+            Long debitAccountId = posting.debitAccountId() != null ? posting.debitAccountId() : EXTERNAL_ACCOUNT_ID;
+            args.add(new Object[]{debitAccountId, posting.paymentId(), EntryType.DEBIT.name(), posting.amount().negate()});
+            args.add(new Object[]{posting.creditAccountId(), posting.paymentId(), EntryType.CREDIT.name(), posting.amount()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, args);
+        log.debug("Diário registrou {} lançamentos", args.size());
+    }
+
+    public BigDecimal balanceOf(Long accountId) {
+        Checkpoint checkpoint = checkpoint(LATEST_CHECKPOINT, accountId);
+        BigDecimal tail = jdbcTemplate.queryForObject(SUM_AFTER_SEQ, BigDecimal.class, accountId, checkpoint.seq());
+        return checkpoint.balance().add(tail);
+    }
+
+    /**
+     * Saldo de cada conta; contas sem lançamentos ficam com zero.
+     */
+    public Map<Long, BigDecimal> balancesOf(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return balances;
+        }
+        namedJdbcTemplate.query(BALANCES, new MapSqlParameterSource("ids", accountIds), rs -> {
+            balances.put(rs.getLong("account_id"), rs.getBigDecimal("balance"));
+        });
+        accountIds.forEach(accountId -> balances.putIfAbsent(accountId, BigDecimal.ZERO));
+        return balances;
+    }
+
+    /**
+     * Saldo para o débito condicional. Quem chama já travou a conta (ou as faixas dela), então
+     * nenhum outro débito grava lançamentos até o commit; em READ COMMITTED cada leitura vê os
+     * lançamentos confirmados por quem travou a conta antes. Num snapshot mais antigo (REPEATABLE
+     * READ) esses lançamentos poderiam faltar e o débito passaria sem saldo.
+     */
+    public BigDecimal balanceForDebit(Long accountId) {
+        requireReadCommitted();
+        return balanceOf(accountId);
+    }
+
+    public Map<Long, BigDecimal> balancesForDebit(Collection<Long> accountIds) {
+        requireReadCommitted();
+        return balancesOf(accountIds);
+    }
+
+    static boolean inReadCommitted() {
+        Integer isolation = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+        return isolation != null && isolation == TransactionDefinition.ISOLATION_READ_COMMITTED;
+    }
+
+    private static void requireReadCommitted() {
+        if (!inReadCommitted()) {
+            throw new IllegalStateException("Débito pelo saldo do diário exige transação em READ COMMITTED");
+        }
+    }
+
+    /**
+     * Saldo no instante {@code at}: parte do último checkpoint cujos lançamentos são todos
+     * anteriores a {@code at} e soma apenas os lançamentos seguintes até esse instante.
+     */
+    public BigDecimal balanceAt(Long accountId, LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        Checkpoint checkpoint = checkpoint(CHECKPOINT_AS_OF, accountId, timestamp);
+        BigDecimal tail = jdbcTemplate.queryForObject(SUM_AFTER_SEQ_UNTIL, BigDecimal.class,
+                accountId, checkpoint.seq(), timestamp);
+        return checkpoint.balance().add(tail);
+    }
+
+    /**
+     * Extrato paginado por sequência (keyset): lê apenas os lançamentos após {@code afterSeq},
+     * com o saldo após cada um.
+     */
+    public AccountStatementResponseDTO statement(Long accountId, long afterSeq, int size) {
+        Checkpoint checkpoint = checkpoint(CHECKPOINT_UP_TO_SEQ, accountId, afterSeq);
+        BigDecimal balance = checkpoint.balance().add(jdbcTemplate.queryForObject(SUM_SEQ_RANGE, BigDecimal.class,
+                accountId, checkpoint.seq(), afterSeq));
+
+        List<LedgerEntryResponseDTO> entries = jdbcTemplate.query(SELECT_PAGE, (rs, rowNum) ->
+                LedgerEntryResponseDTO.builder()
+                        .accountSeq(rs.getLong("account_seq"))
+                        .paymentId(rs.getObject("payment_id", Long.class))
+                        .entryType(rs.getString("entry_type"))
+                        .amount(rs.getBigDecimal("amount"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .build(), accountId, afterSeq, size + 1);
+
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        for (LedgerEntryResponseDTO entry : entries) {
+            balance = balance.add(entry.getAmount());
+            entry.setBalanceAfter(balance);
+        }
+
+        return AccountStatementResponseDTO.builder()
+                .accountId(accountId)
+                .entries(entries)
+                .nextAfterSeq(hasMore ? entries.get(entries.size() - 1).getAccountSeq() : null)
+                .build();
+    }
+
+    private Checkpoint checkpoint(String sql, Object... args) {
+        List<Checkpoint> rows = jdbcTemplate.query(sql, (rs, rowNum) ->
+                new Checkpoint(rs.getLong("account_seq"), rs.getBigDecimal("balance")), args);
+        return rows.isEmpty() ? new Checkpoint(0L, BigDecimal.ZERO) : rows.get(0);
+    }
+
+    private record Checkpoint(long seq, BigDecimal balance) {
+    }
+}
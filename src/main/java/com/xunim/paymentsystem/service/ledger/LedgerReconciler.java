@@ -0,0 +1,136 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confere a projeção {@code accounts.balance} (mais as faixas) com o saldo do diário (último
+ * checkpoint mais os lançamentos posteriores), que é a fonte da verdade do débito e das consultas.
+ * Uma projeção divergente deixa as faixas reservando saldo que o diário não tem, ou o contrário;
+ * divergências vão para o log e para {@code xunimpay.journal.reconcile.mismatches}, sem correção
+ * automática.
+ * <p>
+ * Cada execução confere até {@code reconcile-batch-size} contas em ordem de ID e a seguinte continua
+ * de onde parou. As duas leituras usam o mesmo snapshot (REPEATABLE READ), então um pagamento em
+ * andamento não aparece como divergência. Desligado com o ledger em modo memory, em que
+ * {@code accounts.balance} fica atrasado até o próximo flush.
+ */
+@Component
+@Slf4j
+public class LedgerReconciler {
+
+    private static final String SELECT_BALANCES =
+            "SELECT a.id, a.balance + COALESCE((SELECT SUM(s.balance) FROM account_balance_stripes s " +
+                    "WHERE s.account_id = a.id), 0) AS balance FROM accounts a WHERE a.id > ? ORDER BY a.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerJournal ledgerJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private long cursor;
+
+    private final Counter reconciledAccounts;
+    private final Counter mismatches;
+
+    public LedgerReconciler(JdbcTemplate jdbcTemplate,
+                            LedgerJournal ledgerJournal,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${xunimpay.ledger.mode:sql}") String ledgerMode,
+                            @Value("${xunimpay.journal.reconcile-interval-ms:60000}") long intervalMs,
+                            @Value("${xunimpay.journal.reconcile-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerJournal = ledgerJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = "sql".equals(ledgerMode) && intervalMs > 0;
+        this.intervalMs = intervalMs;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ledger-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.reconciledAccounts = Counter.builder("xunimpay.journal.reconciled")
+                .description("Contas conferidas com o diário")
+                .register(meterRegistry);
+        this.mismatches = Counter.builder("xunimpay.journal.reconcile.mismatches")
+                .description("Contas cujo saldo diverge do diário")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Conferência do diário desligada (ledger fora do modo sql ou intervalo zerado)");
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Confere o próximo lote de contas e devolve quantas divergem do diário.
+     */
+    public int reconcileBatch() {
+        Integer found = transactionTemplate.execute(status -> {
+            List<ProjectedBalance> balances = jdbcTemplate.query(SELECT_BALANCES, (rs, rowNum) ->
+                    new ProjectedBalance(rs.getLong("id"), rs.getBigDecimal("balance")), cursor, batchSize);
+
+            int divergent = 0;
+            for (ProjectedBalance projected : balances) {
+                BigDecimal journal = ledgerJournal.balanceOf(projected.accountId());
+                if (journal.compareTo(projected.balance()) != 0) {
+                    log.error("Saldo da conta {} diverge do diário: conta {}, diário {}",
+                            projected.accountId(), projected.balance(), journal);
+                    divergent++;
+                }
+            }
+
+            // Lote incompleto: chegou ao fim das contas, a próxima execução recomeça do início
+            cursor = balances.size() < batchSize ? 0 : balances.get(balances.size() - 1).accountId();
+            reconciledAccounts.increment(balances.size());
+            return divergent;
+        });
+        int divergent = found != null ? found : 0;
+        mismatches.increment(divergent);
+        return divergent;
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcileBatch();
+        } catch (RuntimeException e) {
+            log.error("Falha ao conferir o diário, nova tentativa em {} ms", intervalMs, e);
+        }
+    }
+
+    private record ProjectedBalance(long accountId, BigDecimal balance) {
+    }
+}
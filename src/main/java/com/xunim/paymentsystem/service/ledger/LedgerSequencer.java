@@ -0,0 +1,206 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Atribui a sequência por conta ({@code account_seq}) aos lançamentos do diário, em ordem de
+ * ID, e grava um checkpoint de saldo a cada {@code checkpoint-interval} lançamentos da conta.
+ * Fica fora do caminho do pagamento: as transações só inserem lançamentos, sem disputar um
+ * contador por conta.
+ * <p>
+ * Os pendentes são lidos com {@code FOR UPDATE} em READ COMMITTED, sem gap locks que
+ * bloqueariam novos inserts; sequenciadores em outros nós esperam pelo mesmo lote.
+ */
+@Component
+@Slf4j
+public class LedgerSequencer {
+
+    private static final String SELECT_PENDING =
+            "SELECT id, account_id, created_at FROM ledger_entries WHERE account_seq IS NULL ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String SELECT_LAST_SEQ =
+            "SELECT account_id, MAX(account_seq) FROM ledger_entries " +
+                    "WHERE account_id IN (:ids) AND account_seq IS NOT NULL GROUP BY account_id";
+    private static final String SELECT_LAST_CHECKPOINTS =
+            "SELECT c.account_id, c.account_seq, c.balance, c.as_of FROM ledger_checkpoints c " +
+                    "JOIN (SELECT account_id, MAX(account_seq) AS account_seq FROM ledger_checkpoints " +
+                    "WHERE account_id IN (:ids) GROUP BY account_id) m " +
+                    "ON m.account_id = c.account_id AND m.account_seq = c.account_seq";
+    private static final String UPDATE_SEQ = "UPDATE ledger_entries SET account_seq = ? WHERE id = ?";
+    private static final String SUM_RANGE =
+            "SELECT COALESCE(SUM(amount), 0) AS total, MAX(created_at) AS last_at FROM ledger_entries " +
+                    "WHERE account_id = ? AND account_seq > ? AND account_seq <= ?";
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO ledger_checkpoints (account_id, account_seq, balance, as_of) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long intervalMs;
+    private final int batchSize;
+    private final long checkpointInterval;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final Counter sequencedEntries;
+    private final Counter checkpoints;
+
+    public LedgerSequencer(JdbcTemplate jdbcTemplate,
+                           NamedParameterJdbcTemplate namedJdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${xunimpay.journal.sequencer-interval-ms:1000}") long intervalMs,
+                           @Value("${xunimpay.journal.batch-size:1000}") int batchSize,
+                           @Value("${xunimpay.journal.checkpoint-interval:1000}") long checkpointInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.intervalMs = intervalMs;
+        this.batchSize = batchSize;
+        this.checkpointInterval = checkpointInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ledger-sequencer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.sequencedEntries = Counter.builder("xunimpay.journal.sequenced")
+                .description("Lançamentos do diário sequenciados")
+                .register(meterRegistry);
+        this.checkpoints = Counter.builder("xunimpay.journal.checkpoints")
+                .description("Checkpoints de saldo gravados")
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.journal.lag", oldestPendingMillis, value -> value.get() / 1000.0)
+                .description("Idade, em segundos, do lançamento mais antigo sem sequência")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sequencePending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sequencia lotes até não restarem lançamentos pendentes.
+     */
+    public void sequencePending() {
+        try {
+            Integer sequenced;
+            do {
+                sequenced = transactionTemplate.execute(status -> sequenceBatch());
+            } while (sequenced != null && sequenced == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Falha ao sequenciar o diário, nova tentativa em {} ms", intervalMs, e);
+        }
+    }
+
+    private int sequenceBatch() {
+        List<PendingEntry> pending = jdbcTemplate.query(SELECT_PENDING, (rs, rowNum) ->
+                new PendingEntry(rs.getLong("id"), rs.getLong("account_id"),
+                        rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+        if (pending.isEmpty()) {
+            oldestPendingMillis.set(0);
+            return 0;
+        }
+        oldestPendingMillis.set(Math.max(0, Duration.between(pending.get(0).createdAt(), LocalDateTime.now()).toMillis()));
+
+        Set<Long> accountIds = new LinkedHashSet<>();
+        pending.forEach(entry -> accountIds.add(entry.accountId()));
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", accountIds);
+
+        Map<Long, Long> lastSeq = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_LAST_SEQ, ids, rs -> {
+            lastSeq.put(rs.getLong(1), rs.getLong(2));
+        });
+
+        List<Object[]> updates = new ArrayList<>(pending.size());
+        for (PendingEntry entry : pending) {
+            long seq = lastSeq.merge(entry.accountId(), 1L, Long::sum);
+            updates.add(new Object[]{seq, entry.id()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SEQ, updates);
+
+        writeCheckpoints(ids, lastSeq);
+
+        sequencedEntries.increment(pending.size());
+        log.debug("Diário sequenciou {} lançamentos de {} contas", pending.size(), accountIds.size());
+        return pending.size();
+    }
+
+    private void writeCheckpoints(MapSqlParameterSource ids, Map<Long, Long> lastSeq) {
+        Map<Long, Checkpoint> latest = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_LAST_CHECKPOINTS, ids, rs -> {
+            latest.put(rs.getLong("account_id"), new Checkpoint(rs.getLong("account_seq"),
+                    rs.getBigDecimal("balance"), rs.getTimestamp("as_of").toLocalDateTime()));
+        });
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (Map.Entry<Long, Long> account : lastSeq.entrySet()) {
+            Long accountId = account.getKey();
+            long seq = account.getValue();
+            Checkpoint previous = latest.getOrDefault(accountId, Checkpoint.EMPTY);
+            if (seq - previous.seq() < checkpointInterval) {
+                continue;
+            }
+
+            Checkpoint next = jdbcTemplate.queryForObject(SUM_RANGE, (rs, rowNum) -> {
+                BigDecimal total = rs.getBigDecimal("total");
+                Timestamp lastAt = rs.getTimestamp("last_at");
+                LocalDateTime asOf = previous.asOf();
+                if (lastAt != null && (asOf == null || lastAt.toLocalDateTime().isAfter(asOf))) {
+                    asOf = lastAt.toLocalDateTime();
+                }
+                return new Checkpoint(seq, previous.balance().add(total), asOf);
+            }, accountId, previous.seq(), seq);
+
+            inserts.add(new Object[]{accountId, next.seq(), next.balance(), Timestamp.valueOf(next.asOf())});
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CHECKPOINT, inserts);
+            checkpoints.increment(inserts.size());
+        }
+    }
+
+    private record PendingEntry(long id, long accountId, LocalDateTime createdAt) {
+    }
+
+    private record Checkpoint(long seq, BigDecimal balance, LocalDateTime asOf) {
+        static final Checkpoint EMPTY = new Checkpoint(0L, BigDecimal.ZERO, null);
+    }
+}
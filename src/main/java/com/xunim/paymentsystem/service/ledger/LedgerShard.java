@@ -0,0 +1,257 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Partição do ledger em memória. Apenas a thread do shard lê e altera os saldos,
+ * então as operações não precisam de locks: produtores enfileiram comandos numa
+ * fila lock-free e a thread os aplica em ordem. O flush grava a variação acumulada
+ * desde o último flush, não o saldo absoluto.
+ */
+@Slf4j
+final class LedgerShard implements Runnable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final int index;
+    private final int capacity;
+    private final LongFunction<Long> loader;
+    private final Consumer<List<BalanceUpdate>> persister;
+
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ExecutorService persistExecutor;
+
+    // Estado confinado à thread do shard
+    private final Map<Long, Slot> balances = new HashMap<>();
+    private final List<Slot> dirty = new ArrayList<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    LedgerShard(int index, int capacity, LongFunction<Long> loader, Consumer<List<BalanceUpdate>> persister) {
+        this.index = index;
+        this.capacity = capacity;
+        this.loader = loader;
+        this.persister = persister;
+        this.persistExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ledger-persist-" + index);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Carrega um saldo antes de o shard iniciar (recuperação a partir do MySQL).
+     */
+    void seed(long accountId, long balanceCents) {
+        if (running) {
+            throw new IllegalStateException("Shard já iniciado");
+        }
+        balances.put(accountId, new Slot(accountId, balanceCents));
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, "ledger-shard-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        CompletableFuture<Void> flushed = flush();
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+        flushed.handle((v, e) -> null).join();
+        persistExecutor.shutdown();
+        persistExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    CompletableFuture<Boolean> debit(long accountId, long amountCents) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        submit(result, () -> {
+            Slot slot = slot(accountId);
+            if (slot.balance < amountCents) {
+                result.complete(false);
+                return;
+            }
+            slot.balance -= amountCents;
+            slot.unflushed -= amountCents;
+            markDirty(slot);
+            result.complete(true);
+        }, true);
+        return result;
+    }
+
+    CompletableFuture<Boolean> credit(long accountId, long amountCents) {
+        return credit(accountId, amountCents, true);
+    }
+
+    /**
+     * Crédito que completa um débito já aceito (liquidação ou estorno). Não passa pelo limite
+     * da fila: recusá-lo deixaria o valor debitado sem destino.
+     */
+    CompletableFuture<Boolean> settle(long accountId, long amountCents) {
+        return credit(accountId, amountCents, false);
+    }
+
+    private CompletableFuture<Boolean> credit(long accountId, long amountCents, boolean bounded) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        submit(result, () -> {
+            Slot slot = slot(accountId);
+            slot.balance += amountCents;
+            slot.unflushed += amountCents;
+            markDirty(slot);
+            result.complete(true);
+        }, bounded);
+        return result;
+    }
+
+    CompletableFuture<Long> balance(long accountId) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        submit(result, () -> result.complete(slot(accountId).balance), true);
+        return result;
+    }
+
+    /**
+     * Tira um snapshot das variações pendentes e o grava de forma assíncrona.
+     * Os snapshots de um shard são gravados em ordem por um único executor.
+     */
+    CompletableFuture<Void> flush() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        pending.incrementAndGet();
+        inbox.offer(() -> {
+            if (dirty.isEmpty()) {
+                result.complete(null);
+                return;
+            }
+            List<BalanceUpdate> snapshot = new ArrayList<>(dirty.size());
+            for (Slot slot : dirty) {
+                if (slot.unflushed != 0) {
+                    snapshot.add(new BalanceUpdate(slot.accountId, slot.unflushed));
+                    slot.unflushed = 0;
+                }
+                slot.dirty = false;
+            }
+            dirty.clear();
+            if (snapshot.isEmpty()) {
+                result.complete(null);
+                return;
+            }
+            persistExecutor.execute(() -> persist(snapshot, result));
+        });
+        LockSupport.unpark(thread);
+        return result;
+    }
+
+    int pendingCommands() {
+        return pending.get();
+    }
+
+    @Override
+    public void run() {
+        while (running || !inbox.isEmpty()) {
+            Runnable task = inbox.poll();
+            if (task == null) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Erro inesperado no shard {} do ledger", index, e);
+            }
+        }
+    }
+
+    private void submit(CompletableFuture<?> result, Runnable command, boolean bounded) {
+        int queued = pending.incrementAndGet();
+        if (bounded && queued > capacity) {
+            pending.decrementAndGet();
+            result.completeExceptionally(new BusinessException("Ledger sobrecarregado, tente novamente"));
+            return;
+        }
+        inbox.offer(() -> {
+            try {
+                command.run();
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        LockSupport.unpark(thread);
+    }
+
+    private Slot slot(long accountId) {
+        Slot slot = balances.get(accountId);
+        if (slot == null) {
+            // Conta criada após a recuperação: carrega uma única vez do banco
+            Long balance = loader.apply(accountId);
+            if (balance == null) {
+                throw new ResourceNotFoundException("Conta não encontrada: " + accountId);
+            }
+            slot = new Slot(accountId, balance);
+            balances.put(accountId, slot);
+        }
+        return slot;
+    }
+
+    private void markDirty(Slot slot) {
+        if (!slot.dirty) {
+            slot.dirty = true;
+            dirty.add(slot);
+        }
+    }
+
+    private void persist(List<BalanceUpdate> snapshot, CompletableFuture<Void> result) {
+        try {
+            persister.accept(snapshot);
+            result.complete(null);
+        } catch (Exception e) {
+            log.error("Falha ao gravar {} saldos do shard {}, nova tentativa no próximo flush",
+                    snapshot.size(), index, e);
+            // A gravação é atômica: nada do snapshot foi aplicado, as variações voltam para o próximo flush
+            pending.incrementAndGet();
+            inbox.offer(() -> snapshot.forEach(update -> {
+                Slot slot = balances.get(update.accountId());
+                slot.unflushed += update.deltaCents();
+                markDirty(slot);
+            }));
+            result.completeExceptionally(e);
+        }
+    }
+
+    record BalanceUpdate(long accountId, long deltaCents) {
+    }
+
+    private static final class Slot {
+        private final long accountId;
+        private long balance;
+        // Variação ainda não gravada no banco
+        private long unflushed;
+        private boolean dirty;
+
+        private Slot(long accountId, long balance) {
+            this.accountId = accountId;
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import com.xunim.paymentsystem.service.AccountService;
+import com.xunim.paymentsystem.service.transfer.TransferContentionMonitor;
+import com.xunim.paymentsystem.service.transfer.TransferExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Movimenta os saldos direto no MySQL. Transferências travam as duas contas em ordem
+ * crescente de ID numa única instrução, então transferências A→B e B→A simultâneas
+ * esperam uma pela outra em vez de entrar em deadlock. Contas com faixas de saldo
+ * não travam a linha da conta: débito e crédito vão para as faixas.
+ * <p>
+ * Com a conta travada, o débito confere o saldo do diário ({@link LedgerJournal#balanceForDebit})
+ * e só então atualiza a projeção em {@code accounts.balance}, sem condição.
+ */
+@Component
+@ConditionalOnProperty(name = "xunimpay.ledger.mode", havingValue = "sql", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SqlLedgerEngine implements LedgerEngine {
+
+    private final AccountService accountService;
+    private final AccountRepository accountRepository;
+    private final TransferContentionMonitor contentionMonitor;
+    private final StripedBalanceService stripedBalances;
+    private final LedgerJournal ledgerJournal;
+
+    @Override
+    public boolean transfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        if (stripedBalances.isStriped(fromAccountId) || stripedBalances.isStriped(toAccountId)) {
+            return stripedTransfer(fromAccountId, toAccountId, amount);
+        }
+
+        // Apenas crédito: uma única linha, sem risco de deadlock
+        if (fromAccountId == null) {
+            accountService.addBalance(toAccountId, amount);
+            return true;
+        }
+
+        lockAccounts(fromAccountId, toAccountId);
+
+        if (ledgerJournal.balanceForDebit(fromAccountId).compareTo(amount) < 0) {
+            log.warn("Falha ao debitar conta origem: {}", fromAccountId);
+            return false;
+        }
+
+        accountRepository.transferBalance(fromAccountId, toAccountId, amount);
+        log.debug("Transferência aplicada: {} -> {}, valor: {}", fromAccountId, toAccountId, amount);
+
+        return true;
+    }
+
+    private boolean stripedTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        if (fromAccountId != null) {
+            boolean debited = stripedBalances.isStriped(fromAccountId)
+                    ? stripedBalances.debit(fromAccountId, amount)
+                    : debitUnstriped(fromAccountId, amount);
+            if (!debited) {
+                log.warn("Falha ao debitar conta origem: {}", fromAccountId);
+                return false;
+            }
+        }
+
+        if (stripedBalances.isStriped(toAccountId)) {
+            stripedBalances.credit(toAccountId, amount);
+        } else {
+            accountService.addBalance(toAccountId, amount);
+        }
+        log.debug("Transferência aplicada via faixas: {} -> {}, valor: {}", fromAccountId, toAccountId, amount);
+        return true;
+    }
+
+    private boolean debitUnstriped(Long fromAccountId, BigDecimal amount) {
+        if (accountRepository.lockBalancesOrderedById(List.of(fromAccountId)).isEmpty()) {
+            throw new ResourceNotFoundException("Conta origem não encontrada: " + fromAccountId);
+        }
+        if (ledgerJournal.balanceForDebit(fromAccountId).compareTo(amount) < 0) {
+            return false;
+        }
+        accountRepository.addToBalance(fromAccountId, amount.negate());
+        return true;
+    }
+
+    private void lockAccounts(Long fromAccountId, Long toAccountId) {
+        long start = System.nanoTime();
+        List<Object[]> rows;
+        try {
+            rows = accountRepository.lockBalancesOrderedById(List.of(fromAccountId, toAccountId));
+        } catch (RuntimeException e) {
+            if (TransferExecutor.isLockFailure(e)) {
+                contentionMonitor.recordLockFailure(fromAccountId, toAccountId);
+            }
+            throw e;
+        }
+        contentionMonitor.recordLockAcquired(System.nanoTime() - start, fromAccountId, toAccountId);
+
+        boolean fromFound = false;
+        boolean toFound = false;
+        for (Object[] row : rows) {
+            long accountId = ((Number) row[0]).longValue();
+            if (accountId == fromAccountId) {
+                fromFound = true;
+            } else if (accountId == toAccountId) {
+                toFound = true;
+            }
+        }
+
+        if (!fromFound) {
+            throw new ResourceNotFoundException("Conta origem não encontrada: " + fromAccountId);
+        }
+        if (!toFound) {
+            throw new ResourceNotFoundException("Conta destino não encontrada: " + toAccountId);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.AccountBalanceStripe;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.repository.mysql.AccountBalanceStripeRepository;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saldo particionado em faixas ({@code account_balance_stripes}) para contas de alta contenção.
+ * O saldo da conta é o do diário; {@code accounts.balance} mais a soma das faixas é a projeção dele,
+ * repartida em reservas: créditos vão para uma faixa aleatória e débitos tentam uma faixa aleatória
+ * antes de travar todas, então escritas concorrentes na mesma conta raramente disputam a mesma linha.
+ * Uma faixa que cobre o valor basta como garantia de saldo; quando nenhuma cobre, o débito trava a
+ * conta e as faixas e confere o saldo do diário.
+ * <p>
+ * Os métodos de movimentação devem ser chamados dentro da transação do pagamento, em READ COMMITTED
+ * (o isolamento do {@link com.xunim.paymentsystem.service.transfer.TransferExecutor}): a faixa que não
+ * cobre o valor não fica travada e o diário é lido depois dos locks.
+ */
+@Component
+@Slf4j
+public class StripedBalanceService {
+
+    private static final int MAX_STRIPES = 64;
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceStripeRepository stripeRepository;
+    private final LedgerJournal ledgerJournal;
+    private final String ledgerMode;
+    private final long refreshIntervalMs;
+    private final ScheduledExecutorService refreshScheduler;
+
+    // Contas com faixas -> quantidade, recarregada periodicamente para refletir outros nós
+    private final Map<Long, Integer> stripedAccounts = new ConcurrentHashMap<>();
+
+    private final Counter fastDebits;
+    private final Counter slowDebits;
+
+    public StripedBalanceService(AccountRepository accountRepository,
+                                 AccountBalanceStripeRepository stripeRepository,
+                                 LedgerJournal ledgerJournal,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${xunimpay.ledger.mode:sql}") String ledgerMode,
+                                 @Value("${xunimpay.striping.refresh-interval-ms:30000}") long refreshIntervalMs) {
+        this.accountRepository = accountRepository;
+        this.stripeRepository = stripeRepository;
+        this.ledgerJournal = ledgerJournal;
+        this.ledgerMode = ledgerMode;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "balance-stripes-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.fastDebits = Counter.builder("xunimpay.striping.debits")
+                .tag("path", "single_stripe")
+                .description("Débitos cobertos por uma única faixa")
+                .register(meterRegistry);
+        this.slowDebits = Counter.builder("xunimpay.striping.debits")
+                .tag("path", "all_stripes")
+                .description("Débitos que precisaram travar todas as faixas")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshScheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refreshScheduler.shutdownNow();
+    }
+
+    public void refresh() {
+        try {
+            Map<Long, Integer> current = new HashMap<>();
+            for (Object[] row : accountRepository.findStripedAccounts()) {
+                current.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
+            stripedAccounts.keySet().retainAll(current.keySet());
+            stripedAccounts.putAll(current);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao recarregar contas com faixas de saldo", e);
+        }
+    }
+
+    public boolean isStriped(Long accountId) {
+        return accountId != null && stripedAccounts.containsKey(accountId);
+    }
+
+    public void credit(Long accountId, BigDecimal amount) {
+        Integer stripes = stripedAccounts.get(accountId);
+        if (stripes != null && stripeRepository.addToStripe(accountId, randomStripe(stripes), amount) > 0) {
+            return;
+        }
+        // Faixa inexistente (quantidade alterada por outro nó): o saldo principal também compõe o total
+        accountRepository.addToBalance(accountId, amount);
+    }
+
+    public boolean debit(Long accountId, BigDecimal amount) {
+        // Fora de READ COMMITTED o InnoDB manteria até o commit o lock da faixa que não cobre o valor,
+        // e dois débitos lentos travariam faixa e conta em ordens opostas
+        if (!LedgerJournal.inReadCommitted()) {
+            throw new IllegalStateException("Débito em faixas exige transação em READ COMMITTED");
+        }
+        Integer stripes = stripedAccounts.get(accountId);
+        if (stripes != null && stripeRepository.subtractFromStripe(accountId, randomStripe(stripes), amount) > 0) {
+            fastDebits.increment();
+            return true;
+        }
+
+        // Nenhuma faixa cobre o valor sozinha: trava a conta e todas as faixas e confere o diário
+        slowDebits.increment();
+        lockMainBalance(accountId);
+        List<AccountBalanceStripe> locked = stripeRepository.lockByAccountId(accountId);
+        if (ledgerJournal.balanceForDebit(accountId).compareTo(amount) < 0) {
+            return false;
+        }
+
+        BigDecimal remaining = amount;
+        for (AccountBalanceStripe stripe : locked) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal taken = stripe.getBalance().min(remaining);
+            if (taken.signum() > 0) {
+                stripe.setBalance(stripe.getBalance().subtract(taken));
+                remaining = remaining.subtract(taken);
+            }
+        }
+        stripeRepository.saveAll(locked);
+
+        if (remaining.signum() > 0) {
+            accountRepository.addToBalance(accountId, remaining.negate());
+        }
+        return true;
+    }
+
+    public BigDecimal getTotalActiveStripedBalance() {
+        BigDecimal total = stripeRepository.getTotalActiveStripedBalance();
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
+    /**
+     * Define a quantidade de faixas da conta e redistribui o saldo total entre elas.
+     * Com {@code stripes = 0} todo o saldo volta para {@code accounts.balance}.
+     * Trava apenas a conta e suas faixas durante a redistribuição.
+     */
+    @Transactional
+    public Account configureStripes(Long accountId, int stripes) {
+        if (stripes < 0 || stripes > MAX_STRIPES) {
+            throw new BusinessException("Quantidade de faixas deve estar entre 0 e " + MAX_STRIPES);
+        }
+        if (stripes > 0 && !"sql".equals(ledgerMode)) {
+            throw new BusinessException("Faixas de saldo exigem o ledger em modo sql");
+        }
+
+        BigDecimal mainBalance = lockMainBalance(accountId);
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conta não encontrada: " + accountId));
+        List<AccountBalanceStripe> locked = stripeRepository.lockByAccountId(accountId);
+
+        BigDecimal total = mainBalance;
+        for (AccountBalanceStripe stripe : locked) {
+            total = total.add(stripe.getBalance());
+        }
+
+        Map<Integer, AccountBalanceStripe> byIndex = new HashMap<>();
+        locked.forEach(stripe -> byIndex.put(stripe.getStripeIndex(), stripe));
+
+        if (stripes == 0) {
+            stripeRepository.deleteAll(locked);
+            account.setBalance(total);
+        } else {
+            BigDecimal[] shares = split(total, stripes);
+            for (int i = 0; i < stripes; i++) {
+                // Atualiza as faixas existentes no lugar, para não invalidar locks aguardando nelas
+                AccountBalanceStripe stripe = byIndex.remove(i);
+                if (stripe == null) {
+                    stripe = AccountBalanceStripe.builder().accountId(accountId).stripeIndex(i).build();
+                }
+                stripe.setBalance(shares[i]);
+                stripeRepository.save(stripe);
+            }
+            stripeRepository.deleteAll(byIndex.values());
+            account.setBalance(BigDecimal.ZERO);
+        }
+        account.setBalanceStripes(stripes);
+        Account saved = accountRepository.save(account);
+
+        if (stripes == 0) {
+            stripedAccounts.remove(accountId);
+        } else {
+            stripedAccounts.put(accountId, stripes);
+        }
+        log.info("Conta {} com {} faixas de saldo, total {}", accountId, stripes, total);
+        return saved;
+    }
+
+    /**
+     * Redistribui o saldo igualmente entre as faixas atuais, recolhendo também o que
+     * foi creditado em {@code accounts.balance}.
+     */
+    @Transactional
+    public Account rebalance(Long accountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conta não encontrada: " + accountId));
+        if (!account.isStriped()) {
+            throw new BusinessException("Conta não possui faixas de saldo");
+        }
+        return configureStripes(accountId, account.getBalanceStripes());
+    }
+
+    private BigDecimal lockMainBalance(Long accountId) {
+        List<Object[]> rows = accountRepository.lockBalancesOrderedById(List.of(accountId));
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Conta não encontrada: " + accountId);
+        }
+        Object balance = rows.get(0)[1];
+        return balance != null ? (BigDecimal) balance : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal[] split(BigDecimal total, int parts) {
+        long cents = total.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        long share = cents / parts;
+        long remainder = cents % parts;
+        BigDecimal[] shares = new BigDecimal[parts];
+        for (int i = 0; i < parts; i++) {
+            shares[i] = BigDecimal.valueOf(share + (i < remainder ? 1 : 0), 2);
+        }
+        return shares;
+    }
+
+    private static int randomStripe(int stripes) {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+}
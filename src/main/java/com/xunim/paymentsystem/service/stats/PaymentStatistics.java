@@ -0,0 +1,442 @@
+package com.xunim.paymentsystem.service.stats;
+
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estatísticas de pagamentos mantidas em memória a cada mudança de estado, para que os
+ * endpoints de estatística não varram a tabela {@code payments}:
+ * <ul>
+ *     <li>valor concluído por tipo, em centavos;</li>
+ *     <li>quantidade por status em baldes de um minuto pelo {@code created_at}, dentro de uma
+ *     janela; consultas anteriores à janela vão ao MySQL.</li>
+ * </ul>
+ * Os contadores usam {@link LongAdder}, que distribui escritas concorrentes entre células.
+ * Com Redis habilitado, cada nó envia seus deltas ({@code HINCRBY}) e lê os totais globais
+ * periodicamente. Uma reconciliação periódica recalcula tudo no MySQL e corrige o desvio.
+ */
+@Component
+@Slf4j
+public class PaymentStatistics {
+
+    private static final String AMOUNT_KEY = "xunimpay:stats:amount";
+    private static final String STATUS_KEY_PREFIX = "xunimpay:stats:status:";
+    private static final String RECONCILED_KEY = "xunimpay:stats:reconciled-at";
+    private static final String RECONCILE_LOCK_KEY = "xunimpay:stats:reconcile-lock";
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final long MINUTES_PER_DAY = 1440;
+
+    private final PaymentRepository paymentRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final long windowMinutes;
+    private final long syncIntervalMs;
+    private final long reconcileIntervalMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<PaymentType, SharedCounter> completedCents = new EnumMap<>(PaymentType.class);
+    private final ConcurrentSkipListMap<Long, Map<PaymentStatus, SharedCounter>> statusByMinute =
+            new ConcurrentSkipListMap<>();
+    private volatile boolean ready;
+
+    private final Counter reconciliations;
+    private final Counter syncFailures;
+    private final AtomicLong amountDrift = new AtomicLong();
+    private final AtomicLong countDrift = new AtomicLong();
+
+    public PaymentStatistics(PaymentRepository paymentRepository,
+                             ObjectProvider<StringRedisTemplate> redisTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${xunimpay.stats.window:24h}") Duration window,
+                             @Value("${xunimpay.stats.sync-interval-ms:5000}") long syncIntervalMs,
+                             @Value("${xunimpay.stats.reconcile-interval-ms:600000}") long reconcileIntervalMs,
+                             @Value("${xunimpay.stats.redis.enabled:false}") boolean redisEnabled) {
+        this.paymentRepository = paymentRepository;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.windowMinutes = window.toMinutes();
+        this.syncIntervalMs = syncIntervalMs;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        for (PaymentType type : PaymentType.values()) {
+            completedCents.put(type, new SharedCounter());
+        }
+
+        this.reconciliations = Counter.builder("xunimpay.stats.reconciliations")
+                .description("Reconciliações das estatísticas com o MySQL")
+                .register(meterRegistry);
+        this.syncFailures = Counter.builder("xunimpay.stats.sync.failures")
+                .description("Falhas ao sincronizar estatísticas com o Redis")
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.stats.drift", amountDrift, AtomicLong::get)
+                .tag("kind", "amount_cents")
+                .description("Desvio corrigido na última reconciliação")
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.stats.drift", countDrift, AtomicLong::get)
+                .tag("kind", "count")
+                .description("Desvio corrigido na última reconciliação")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Mesma thread para sincronização e reconciliação: nunca rodam ao mesmo tempo
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, 0, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+    }
+
+    public void recordCreated(Collection<Payment> payments) {
+        Map<Long, Map<PaymentStatus, Long>> deltas = new HashMap<>();
+        for (Payment payment : payments) {
+            if (payment.getCreatedAt() != null) {
+                deltas.computeIfAbsent(minuteOf(payment.getCreatedAt()), minute -> new EnumMap<>(PaymentStatus.class))
+                        .merge(payment.getStatus(), 1L, Long::sum);
+            }
+        }
+        afterCommit(() -> deltas.forEach((minute, counts) -> {
+            Map<PaymentStatus, SharedCounter> bucket = bucket(minute);
+            if (bucket != null) {
+                counts.forEach((status, count) -> bucket.get(status).add(count));
+            }
+        }));
+    }
+
+    /**
+     * Registra a mudança de {@code from} para o status atual do pagamento. Só é aplicada
+     * quando a transação corrente confirma.
+     */
+    public void recordTransition(Payment payment, PaymentStatus from) {
+        PaymentStatus to = payment.getStatus();
+        if (from == to) {
+            return;
+        }
+        LocalDateTime createdAt = payment.getCreatedAt();
+        PaymentType type = payment.getPaymentType();
+        long cents = to == PaymentStatus.COMPLETED ? toCents(payment.getAmount()) : 0;
+
+        afterCommit(() -> {
+            Map<PaymentStatus, SharedCounter> bucket = createdAt != null ? bucket(minuteOf(createdAt)) : null;
+            if (bucket != null) {
+                bucket.get(from).add(-1);
+                bucket.get(to).add(1);
+            }
+            if (cents != 0) {
+                completedCents.get(type).add(cents);
+            }
+        });
+    }
+
+    public BigDecimal totalCompletedAmount(PaymentType type) {
+        if (!ready) {
+            BigDecimal total = paymentRepository.getTotalAmountByType(type);
+            return total != null ? total : BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(completedCents.get(type).get(), 2);
+    }
+
+    /**
+     * Pagamentos com o status informado criados a partir de {@code since}. Minutos inteiros
+     * vêm dos baldes; um minuto inicial parcial é contado no MySQL (intervalo de até 1 minuto).
+     */
+    public long countSince(PaymentStatus status, LocalDateTime since) {
+        long minute = minuteOf(since);
+        if (!ready || minute < windowStartMinute()) {
+            return paymentRepository.countByStatusSince(status, since);
+        }
+
+        boolean aligned = since.equals(startOf(minute));
+        long total = aligned ? 0 : paymentRepository.countByStatusBetween(status, since, startOf(minute + 1));
+        for (Map<PaymentStatus, SharedCounter> bucket : statusByMinute.tailMap(aligned ? minute : minute + 1).values()) {
+            total += bucket.get(status).get();
+        }
+        return total;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Recalcula os contadores no MySQL. Com Redis, apenas o nó que obtém o lock grava os
+     * valores corretos para os demais.
+     */
+    public void reconcile() {
+        long windowStart = windowStartMinute();
+        Map<PaymentType, Long> amounts = new EnumMap<>(PaymentType.class);
+        for (Object[] row : paymentRepository.sumCompletedAmountByType()) {
+            amounts.put((PaymentType) row[0], toCents((BigDecimal) row[1]));
+        }
+        Map<Long, Map<PaymentStatus, Long>> counts = new HashMap<>();
+        for (Object[] row : paymentRepository.countByMinuteAndStatusSince(startOf(windowStart))) {
+            long minute = minuteOf(LocalDateTime.parse((String) row[0], MINUTE_FORMAT));
+            counts.computeIfAbsent(minute, m -> new EnumMap<>(PaymentStatus.class))
+                    .put(PaymentStatus.valueOf((String) row[1]), ((Number) row[2]).longValue());
+        }
+
+        long amountDiff = 0;
+        for (PaymentType type : PaymentType.values()) {
+            amountDiff += Math.abs(completedCents.get(type).reset(amounts.getOrDefault(type, 0L)));
+        }
+        long countDiff = 0;
+        for (Long minute : counts.keySet()) {
+            bucket(minute);
+        }
+        for (Map.Entry<Long, Map<PaymentStatus, SharedCounter>> bucket : statusByMinute.entrySet()) {
+            Map<PaymentStatus, Long> truth = counts.getOrDefault(bucket.getKey(), Map.of());
+            for (PaymentStatus status : PaymentStatus.values()) {
+                countDiff += Math.abs(bucket.getValue().get(status).reset(truth.getOrDefault(status, 0L)));
+            }
+        }
+
+        if (redisTemplate != null) {
+            publishReconciled(windowStart);
+        }
+
+        amountDrift.set(amountDiff);
+        countDrift.set(countDiff);
+        reconciliations.increment();
+        if (ready && (amountDiff != 0 || countDiff != 0)) {
+            log.info("Estatísticas de pagamentos reconciliadas: desvio de {} centavos e {} pagamentos",
+                    amountDiff, countDiff);
+        }
+        ready = true;
+    }
+
+    /**
+     * Envia os deltas locais ao Redis e lê os totais globais. Sem Redis, apenas descarta
+     * baldes que saíram da janela.
+     */
+    public void sync() {
+        statusByMinute.headMap(windowStartMinute()).clear();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            push();
+            pull();
+        } catch (RuntimeException e) {
+            syncFailures.increment();
+            log.warn("Falha ao sincronizar estatísticas de pagamentos com o Redis: {}", e.getMessage());
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Falha ao reconciliar estatísticas de pagamentos", e);
+        }
+    }
+
+    private void push() {
+        for (Map.Entry<PaymentType, SharedCounter> entry : completedCents.entrySet()) {
+            pushDelta(entry.getValue(), AMOUNT_KEY, entry.getKey().name());
+        }
+        for (Map.Entry<Long, Map<PaymentStatus, SharedCounter>> bucket : statusByMinute.entrySet()) {
+            String key = statusKey(bucket.getKey());
+            for (Map.Entry<PaymentStatus, SharedCounter> entry : bucket.getValue().entrySet()) {
+                if (pushDelta(entry.getValue(), key, bucket.getKey() + ":" + entry.getKey().name())) {
+                    redisTemplate.expire(key, Duration.ofMinutes(windowMinutes + MINUTES_PER_DAY));
+                }
+            }
+        }
+    }
+
+    private boolean pushDelta(SharedCounter counter, String key, String field) {
+        long delta = counter.drain();
+        if (delta == 0) {
+            return false;
+        }
+        try {
+            redisTemplate.opsForHash().increment(key, field, delta);
+            return true;
+        } catch (RuntimeException e) {
+            counter.undrain(delta);
+            throw e;
+        }
+    }
+
+    private void pull() {
+        // Antes da primeira reconciliação compartilhada o Redis só tem deltas, não totais
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(RECONCILED_KEY))) {
+            return;
+        }
+        redisTemplate.<String, String>opsForHash().entries(AMOUNT_KEY).forEach((field, value) ->
+                completedCents.get(PaymentType.valueOf(field)).setBase(Long.parseLong(value)));
+
+        long windowStart = windowStartMinute();
+        for (long day = Math.floorDiv(windowStart, MINUTES_PER_DAY); day <= Math.floorDiv(currentMinute(), MINUTES_PER_DAY); day++) {
+            redisTemplate.<String, String>opsForHash().entries(STATUS_KEY_PREFIX + day).forEach((field, value) -> {
+                int separator = field.indexOf(':');
+                long minute = Long.parseLong(field.substring(0, separator));
+                Map<PaymentStatus, SharedCounter> bucket = minute >= windowStart ? bucket(minute) : null;
+                if (bucket != null) {
+                    bucket.get(PaymentStatus.valueOf(field.substring(separator + 1))).setBase(Long.parseLong(value));
+                }
+            });
+        }
+    }
+
+    private void publishReconciled(long windowStart) {
+        Boolean locked = redisTemplate.opsForValue()
+                .setIfAbsent(RECONCILE_LOCK_KEY, "1", Duration.ofMillis(Math.max(1000, reconcileIntervalMs / 2)));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            Map<String, String> amounts = new HashMap<>();
+            completedCents.forEach((type, counter) -> amounts.put(type.name(), String.valueOf(counter.get())));
+            redisTemplate.opsForHash().putAll(AMOUNT_KEY, amounts);
+
+            Map<String, Map<String, String>> byDay = new HashMap<>();
+            statusByMinute.tailMap(windowStart).forEach((minute, bucket) -> bucket.forEach((status, counter) ->
+                    byDay.computeIfAbsent(statusKey(minute), key -> new HashMap<>())
+                            .put(minute + ":" + status.name(), String.valueOf(counter.get()))));
+            byDay.forEach((key, fields) -> {
+                redisTemplate.opsForHash().putAll(key, fields);
+                redisTemplate.expire(key, Duration.ofMinutes(windowMinutes + MINUTES_PER_DAY));
+            });
+            redisTemplate.opsForValue().set(RECONCILED_KEY, LocalDateTime.now().toString());
+        } catch (RuntimeException e) {
+            syncFailures.increment();
+            log.warn("Falha ao publicar estatísticas reconciliadas no Redis: {}", e.getMessage());
+        }
+    }
+
+    private Map<PaymentStatus, SharedCounter> bucket(long minute) {
+        if (minute < windowStartMinute()) {
+            return null;
+        }
+        return statusByMinute.computeIfAbsent(minute, m -> {
+            Map<PaymentStatus, SharedCounter> counters = new EnumMap<>(PaymentStatus.class);
+            for (PaymentStatus status : PaymentStatus.values()) {
+                counters.put(status, new SharedCounter());
+            }
+            return counters;
+        });
+    }
+
+    private long windowStartMinute() {
+        return currentMinute() - windowMinutes;
+    }
+
+    private static long currentMinute() {
+        return minuteOf(LocalDateTime.now());
+    }
+
+    private static long minuteOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime startOf(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static String statusKey(long minute) {
+        return STATUS_KEY_PREFIX + Math.floorDiv(minute, MINUTES_PER_DAY);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Valor global conhecido ({@code base}) mais os deltas locais ainda não enviados ao Redis.
+     */
+    static final class SharedCounter {
+
+        private final LongAdder pending = new LongAdder();
+        private final AtomicLong base = new AtomicLong();
+
+        void add(long delta) {
+            pending.add(delta);
+        }
+
+        long get() {
+            return base.get() + pending.sum();
+        }
+
+        long drain() {
+            long delta = pending.sumThenReset();
+            base.addAndGet(delta);
+            return delta;
+        }
+
+        void undrain(long delta) {
+            base.addAndGet(-delta);
+            pending.add(delta);
+        }
+
+        void setBase(long value) {
+            base.set(value);
+        }
+
+        /**
+         * Substitui o valor pelo correto e retorna o desvio que havia.
+         */
+        long reset(long value) {
+            long drift = get() - value;
+            pending.reset();
+            base.set(value);
+            return drift;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import com.xunim.paymentsystem.service.AuditService;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.ledger.StripedBalanceService;
+import com.xunim.paymentsystem.service.stats.PaymentStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa os pagamentos destinados a contas "quentes" (ex.: grandes recebedores PIX).
+ * Os pagamentos que chegam dentro de {@code window-ms}, ou até {@code max-batch} itens, são
+ * processados numa única transação: cada um debita sua origem e é marcado COMPLETED
+ * individualmente, e o destino recebe um único {@code balance = balance + soma}.
+ * As linhas das origens e do destino são travadas juntas, em ordem crescente de id, antes de
+ * qualquer débito, seguindo a mesma ordem de locks do {@code SqlLedgerEngine}, e cada débito
+ * confere o saldo do diário das origens lido depois dos locks.
+ * <p>
+ * Os lançamentos vão direto ao banco, sem passar pelo {@code LedgerEngine}: com contas quentes
+ * configuradas, a aplicação não sobe se o ledger não estiver em modo sql.
+ */
+@Component
+@Slf4j
+public class HotAccountCreditCoalescer {
+
+    private final PaymentRepository paymentRepository;
+    private final AccountRepository accountRepository;
+    private final AuditService auditService;
+    private final TransferExecutor transferExecutor;
+    private final StripedBalanceService stripedBalances;
+    private final LedgerJournal ledgerJournal;
+    private final PaymentStatistics paymentStatistics;
+
+    private final boolean enabled;
+    private final Set<Long> hotAccounts;
+    private final long windowNanos;
+    private final int maxBatch;
+
+    private final Map<Long, BlockingQueue<PendingPayment>> queues = new HashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Counter coalescedCredits;
+    private final Counter balanceUpdates;
+    private final DistributionSummary batchSize;
+
+    public HotAccountCreditCoalescer(PaymentRepository paymentRepository,
+                                     AccountRepository accountRepository,
+                                     AuditService auditService,
+                                     TransferExecutor transferExecutor,
+                                     StripedBalanceService stripedBalances,
+                                     LedgerJournal ledgerJournal,
+                                     PaymentStatistics paymentStatistics,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${xunimpay.ledger.mode:sql}") String ledgerMode,
+                                     @Value("${xunimpay.coalescing.hot-accounts:}") Set<Long> hotAccounts,
+                                     @Value("${xunimpay.coalescing.window-ms:5}") long windowMs,
+                                     @Value("${xunimpay.coalescing.max-batch:100}") int maxBatch) {
+        this.paymentRepository = paymentRepository;
+        this.accountRepository = accountRepository;
+        this.auditService = auditService;
+        this.transferExecutor = transferExecutor;
+        this.stripedBalances = stripedBalances;
+        this.ledgerJournal = ledgerJournal;
+        this.paymentStatistics = paymentStatistics;
+        this.hotAccounts = Set.copyOf(hotAccounts);
+        if (!this.hotAccounts.isEmpty() && !"sql".equals(ledgerMode)) {
+            throw new IllegalStateException("Agrupamento de créditos exige o ledger em modo sql: " + ledgerMode);
+        }
+        this.enabled = !this.hotAccounts.isEmpty();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatch = maxBatch;
+
+        this.coalescedCredits = Counter.builder("xunimpay.coalescing.credits")
+                .description("Créditos aplicados por meio do agrupamento")
+                .register(meterRegistry);
+        this.balanceUpdates = Counter.builder("xunimpay.coalescing.updates")
+                .description("UPDATEs de saldo executados nas contas quentes")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("xunimpay.coalescing.batch.size")
+                .description("Créditos por UPDATE (taxa de agrupamento)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (Long accountId : hotAccounts) {
+            BlockingQueue<PendingPayment> queue = new LinkedBlockingQueue<>();
+            queues.put(accountId, queue);
+
+            Thread worker = new Thread(() -> drain(accountId, queue), "credit-coalescer-" + accountId);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Agrupamento de créditos ativo para as contas {}", hotAccounts);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public boolean isHotAccount(Long accountId) {
+        return enabled && hotAccounts.contains(accountId);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enfileira o processamento de um pagamento cujo destino é uma conta quente.
+     * O futuro é concluído com o pagamento já confirmado no banco.
+     */
+    public CompletableFuture<Payment> submit(Long toAccountId, Long paymentId) {
+        BlockingQueue<PendingPayment> queue = queues.get(toAccountId);
+        if (queue == null) {
+            throw new IllegalArgumentException("Conta não configurada para agrupamento: " + toAccountId);
+        }
+        PendingPayment pending = new PendingPayment(paymentId, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.result();
+    }
+
+    private void drain(Long accountId, BlockingQueue<PendingPayment> queue) {
+        List<PendingPayment> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    PendingPayment next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (batch.isEmpty()) {
+                    queue.drainTo(batch, maxBatch);
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+            }
+
+            processBatch(accountId, batch);
+            batch.clear();
+        }
+    }
+
+    private void processBatch(Long accountId, List<PendingPayment> batch) {
+        Map<Long, RuntimeException> rejected = new HashMap<>();
+        Map<Long, Payment> processed;
+        try {
+            processed = transferExecutor.execute(() -> applyBatch(accountId, batch, rejected));
+        } catch (RuntimeException e) {
+            log.error("Falha ao processar lote de {} créditos da conta {}", batch.size(), accountId, e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+
+        for (PendingPayment pending : batch) {
+            RuntimeException error = rejected.get(pending.paymentId());
+            if (error != null) {
+                pending.result().completeExceptionally(error);
+            } else {
+                pending.result().complete(processed.get(pending.paymentId()));
+            }
+        }
+    }
+
+    private Map<Long, Payment> applyBatch(Long accountId, List<PendingPayment> batch, Map<Long, RuntimeException> rejected) {
+        rejected.clear();
+        Map<Long, Payment> payments = new LinkedHashMap<>();
+        for (PendingPayment pending : batch) {
+            Payment payment = paymentRepository.findById(pending.paymentId()).orElse(null);
+            if (payment == null) {
+                rejected.put(pending.paymentId(), new ResourceNotFoundException("Pagamento não encontrado: " + pending.paymentId()));
+            } else if (payment.getStatus() != PaymentStatus.PENDING || payments.containsKey(payment.getId())
+                    || paymentRepository.markProcessing(payment.getId()) == 0) {
+                rejected.put(pending.paymentId(), new BusinessException("Apenas pagamentos pendentes podem ser processados"));
+            } else {
+                payments.put(payment.getId(), payment);
+            }
+        }
+
+        List<Payment> ordered = new ArrayList<>(payments.values());
+        ordered.sort(Comparator.comparing((Payment p) -> p.getFromAccount() != null ? p.getFromAccount().getId() : 0L)
+                .thenComparing(Payment::getId));
+        Map<Long, BigDecimal> available = lockAccounts(accountId, ordered);
+
+        BigDecimal credit = BigDecimal.ZERO;
+        int credits = 0;
+        List<LedgerJournal.Posting> postings = new ArrayList<>();
+        for (Payment payment : ordered) {
+            boolean debited = true;
+            Long fromAccountId = null;
+            if (payment.getFromAccount() != null && needsBalanceCheck(payment.getPaymentType())) {
+                fromAccountId = payment.getFromAccount().getId();
+                debited = stripedBalances.isStriped(fromAccountId)
+                        ? stripedBalances.debit(fromAccountId, payment.getAmount())
+                        : debitLocked(available, fromAccountId, payment.getAmount());
+            }
+
+            if (debited) {
+                payment.setStatus(PaymentStatus.COMPLETED);
+                payment.setProcessedAt(LocalDateTime.now());
+                credit = credit.add(payment.getAmount());
+                credits++;
+                postings.add(new LedgerJournal.Posting(payment.getId(), fromAccountId, accountId, payment.getAmount()));
+            } else {
+                log.warn("Falha ao debitar conta origem: {}", payment.getFromAccount().getId());
+                payment.setStatus(PaymentStatus.FAILED);
+            }
+        }
+
+        if (credits > 0) {
+            if (stripedBalances.isStriped(accountId)) {
+                stripedBalances.credit(accountId, credit);
+            } else {
+                accountRepository.addToBalance(accountId, credit);
+            }
+            ledgerJournal.recordAll(postings);
+        }
+        paymentRepository.saveAll(ordered);
+
+        for (Payment payment : ordered) {
+            paymentStatistics.recordTransition(payment, PaymentStatus.PENDING);
+            if (payment.getStatus() == PaymentStatus.COMPLETED) {
+                auditService.logAction("PAYMENT", payment.getId().toString(), "UPDATE",
+                        "Pagamento processado com sucesso: " + payment.getTransactionId());
+            } else {
+                auditService.logAction("PAYMENT", payment.getId().toString(), "UPDATE",
+                        "Falha no processamento do pagamento: " + payment.getTransactionId());
+            }
+        }
+
+        if (credits > 0) {
+            coalescedCredits.increment(credits);
+            balanceUpdates.increment();
+            batchSize.record(credits);
+        }
+        log.debug("Conta {} recebeu {} créditos agrupados, total {}", accountId, credits, credit);
+        return payments;
+    }
+
+    /**
+     * Trava, num único {@code ORDER BY id FOR UPDATE}, as origens debitadas e a conta quente, e devolve
+     * o saldo do diário das origens travadas. Contas com faixas ficam de fora, como no
+     * {@code SqlLedgerEngine}: seus débitos travam as faixas.
+     */
+    private Map<Long, BigDecimal> lockAccounts(Long accountId, List<Payment> payments) {
+        Set<Long> sources = new TreeSet<>();
+        for (Payment payment : payments) {
+            if (payment.getFromAccount() != null && needsBalanceCheck(payment.getPaymentType())
+                    && !stripedBalances.isStriped(payment.getFromAccount().getId())) {
+                sources.add(payment.getFromAccount().getId());
+            }
+        }
+        Set<Long> ids = new TreeSet<>(sources);
+        boolean hotStriped = stripedBalances.isStriped(accountId);
+        if (!hotStriped) {
+            ids.add(accountId);
+        }
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        List<Object[]> rows = accountRepository.lockBalancesOrderedById(ids);
+        if (!hotStriped && rows.stream().noneMatch(row -> ((Number) row[0]).longValue() == accountId)) {
+            throw new ResourceNotFoundException("Conta destino não encontrada: " + accountId);
+        }
+        return sources.isEmpty() ? new HashMap<>() : ledgerJournal.balancesForDebit(sources);
+    }
+
+    // Os lançamentos do lote só são gravados no fim: o saldo disponível desconta os débitos já aceitos
+    private boolean debitLocked(Map<Long, BigDecimal> available, Long fromAccountId, BigDecimal amount) {
+        BigDecimal balance = available.get(fromAccountId);
+        if (balance == null || balance.compareTo(amount) < 0) {
+            return false;
+        }
+        available.put(fromAccountId, balance.subtract(amount));
+        accountRepository.addToBalance(fromAccountId, amount.negate());
+        return true;
+    }
+
+    private boolean needsBalanceCheck(PaymentType paymentType) {
+        return paymentType == PaymentType.TRANSFER || paymentType == PaymentType.PIX;
+    }
+
+    private record PendingPayment(Long paymentId, CompletableFuture<Payment> result) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.service.PaymentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processa pagamentos PENDING em lotes, sem depender de {@code PATCH /v1/payments/{id}/process}.
+ * Cada lote é reservado com {@code SELECT ... FOR UPDATE SKIP LOCKED} e marcado com
+ * {@code claimed_until}, então sweepers em vários nós pegam lotes disjuntos sem esperar
+ * uns pelos outros; a reserva expira sozinha se o nó cair.
+ * <p>
+ * Dentro do lote, pagamentos que compartilham alguma conta (origem ou destino) formam um
+ * grupo processado em ordem de ID por uma única thread; grupos distintos rodam em paralelo.
+ * O processamento em si passa por {@link PaymentService#processPayment}, cuja transição
+ * condicional PENDING → PROCESSING impede processamento duplo.
+ */
+@Component
+@ConditionalOnProperty(name = "xunimpay.sweeper.enabled", havingValue = "true")
+@Slf4j
+public class PendingPaymentSweeper {
+
+    private static final String CLAIM_PENDING =
+            "SELECT id, from_account_id, to_account_id FROM payments " +
+                    "WHERE status = 'PENDING' AND (claimed_until IS NULL OR claimed_until < ?) " +
+                    "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_CLAIMED = "UPDATE payments SET claimed_until = :until WHERE id IN (:ids)";
+
+    private final PaymentService paymentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long intervalMs;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxPerSecond;
+    private final Duration claimTimeout;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+
+    private volatile boolean running;
+
+    private final Timer chunkTimer;
+    private final Counter completedPayments;
+    private final Counter failedPayments;
+    private final Counter skippedPayments;
+    private final Counter erroredPayments;
+
+    public PendingPaymentSweeper(PaymentService paymentService,
+                                 JdbcTemplate jdbcTemplate,
+                                 NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${xunimpay.sweeper.interval-ms:1000}") long intervalMs,
+                                 @Value("${xunimpay.sweeper.chunk-size:200}") int chunkSize,
+                                 @Value("${xunimpay.sweeper.parallelism:4}") int parallelism,
+                                 @Value("${xunimpay.sweeper.max-per-second:0}") int maxPerSecond,
+                                 @Value("${xunimpay.sweeper.claim-timeout:5m}") Duration claimTimeout) {
+        this.paymentService = paymentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.intervalMs = intervalMs;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxPerSecond = maxPerSecond;
+        this.claimTimeout = claimTimeout;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "payment-sweeper-" + workerCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.chunkTimer = Timer.builder("xunimpay.sweeper.chunk")
+                .description("Duração do processamento de um lote de pagamentos pendentes")
+                .register(meterRegistry);
+        this.completedPayments = paymentsCounter(meterRegistry, "completed");
+        this.failedPayments = paymentsCounter(meterRegistry, "failed");
+        this.skippedPayments = paymentsCounter(meterRegistry, "skipped");
+        this.erroredPayments = paymentsCounter(meterRegistry, "error");
+        Gauge.builder("xunimpay.sweeper.chunk.size", () -> this.chunkSize)
+                .description("Pagamentos reservados por lote")
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.sweeper.parallelism", () -> this.parallelism)
+                .description("Threads processando grupos de pagamentos")
+                .register(meterRegistry);
+        Gauge.builder("xunimpay.sweeper.max.rate", () -> this.maxPerSecond)
+                .description("Limite de pagamentos por segundo (0 = sem limite)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::sweep, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("Sweeper de pagamentos pendentes iniciado (lote {}, paralelismo {}, limite {}/s)",
+                chunkSize, parallelism, maxPerSecond);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Processa lotes até não restarem pagamentos pendentes livres.
+     */
+    public void sweep() {
+        try {
+            int claimed;
+            do {
+                long start = System.nanoTime();
+                claimed = sweepChunk();
+                long elapsed = System.nanoTime() - start;
+                if (claimed > 0) {
+                    chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                    throttle(claimed, elapsed);
+                }
+            } while (running && claimed == chunkSize);
+        } catch (RuntimeException e) {
+            log.error("Falha no sweeper de pagamentos pendentes, nova tentativa em {} ms", intervalMs, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int sweepChunk() {
+        List<ClaimedPayment> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (List<Long> group : groupBySharedAccount(claimed)) {
+            tasks.add(CompletableFuture.runAsync(() -> group.forEach(this::process), workers));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+        log.debug("Sweeper processou {} pagamentos em {} grupos", claimed.size(), tasks.size());
+        return claimed.size();
+    }
+
+    private List<ClaimedPayment> claim() {
+        List<ClaimedPayment> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ClaimedPayment> rows = jdbcTemplate.query(CLAIM_PENDING, (rs, rowNum) ->
+                    new ClaimedPayment(rs.getLong("id"), rs.getObject("from_account_id", Long.class),
+                            rs.getLong("to_account_id")), Timestamp.valueOf(now), chunkSize);
+            if (!rows.isEmpty()) {
+                namedJdbcTemplate.update(MARK_CLAIMED, new MapSqlParameterSource()
+                        .addValue("until", Timestamp.valueOf(now.plus(claimTimeout)))
+                        .addValue("ids", rows.stream().map(ClaimedPayment::id).toList()));
+            }
+            return rows;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Agrupa os pagamentos ligados por contas em comum (union-find sobre as contas), mantendo
+     * a ordem de ID dentro de cada grupo.
+     */
+    static List<List<Long>> groupBySharedAccount(List<ClaimedPayment> payments) {
+        int[] parent = new int[payments.size()];
+        Map<Long, Integer> firstByAccount = new HashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            parent[i] = i;
+            ClaimedPayment payment = payments.get(i);
+            if (payment.fromAccountId() != null) {
+                join(parent, i, firstByAccount.putIfAbsent(payment.fromAccountId(), i));
+            }
+            join(parent, i, firstByAccount.putIfAbsent(payment.toAccountId(), i));
+        }
+
+        Map<Integer, List<Long>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(payments.get(i).id());
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static void join(int[] parent, int index, Integer other) {
+        if (other == null) {
+            return;
+        }
+        int a = find(parent, index);
+        int b = find(parent, other);
+        if (a != b) {
+            parent[Math.max(a, b)] = Math.min(a, b);
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void process(Long paymentId) {
+        try {
+            PaymentResponseDTO result = paymentService.processPayment(paymentId);
+            if (result.getStatus() == PaymentStatus.COMPLETED) {
+                completedPayments.increment();
+            } else {
+                failedPayments.increment();
+            }
+        } catch (BusinessException | ResourceNotFoundException e) {
+            // Processado, cancelado ou removido por outro caminho depois da reserva
+            skippedPayments.increment();
+            log.debug("Pagamento {} ignorado pelo sweeper: {}", paymentId, e.getMessage());
+        } catch (RuntimeException e) {
+            // Continua PENDING: volta a ser elegível quando a reserva expirar
+            erroredPayments.increment();
+            log.error("Erro ao processar pagamento {} no sweeper", paymentId, e);
+        }
+    }
+
+    private void throttle(int processed, long elapsedNanos) throws InterruptedException {
+        if (maxPerSecond <= 0) {
+            return;
+        }
+        long minimumNanos = TimeUnit.SECONDS.toNanos(processed) / maxPerSecond;
+        if (minimumNanos > elapsedNanos) {
+            TimeUnit.NANOSECONDS.sleep(minimumNanos - elapsedNanos);
+        }
+    }
+
+    private static Counter paymentsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("xunimpay.sweeper.payments")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    record ClaimedPayment(long id, Long fromAccountId, long toAccountId) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contenção de locks por conta. Os totais vão para o Micrometer sem a tag de conta
+ * (cardinalidade); o detalhamento por conta fica em {@code /actuator/transfercontention}.
+ * Só entram no mapa contas com conflito ou espera acima de {@code lock-wait-threshold-ms}.
+ */
+@Component
+@Endpoint(id = "transfercontention")
+public class TransferContentionMonitor {
+
+    private static final int TOP_ACCOUNTS = 20;
+
+    private final long lockWaitThresholdNanos;
+    private final Map<Long, AccountContention> contention = new ConcurrentHashMap<>();
+
+    private final Timer lockAcquire;
+    private final Counter lockFailures;
+
+    public TransferContentionMonitor(MeterRegistry meterRegistry,
+                                     @Value("${xunimpay.transfer.lock-wait-threshold-ms:1}") long lockWaitThresholdMs) {
+        this.lockWaitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(lockWaitThresholdMs);
+        this.lockAcquire = Timer.builder("xunimpay.transfer.lock.acquire")
+                .description("Tempo para travar as contas de uma transferência")
+                .register(meterRegistry);
+        this.lockFailures = Counter.builder("xunimpay.transfer.lock.failures")
+                .description("Deadlocks e lock timeouts ao travar contas")
+                .register(meterRegistry);
+    }
+
+    public void recordLockAcquired(long waitNanos, Long... accountIds) {
+        lockAcquire.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos < lockWaitThresholdNanos) {
+            return;
+        }
+        for (Long accountId : accountIds) {
+            AccountContention stats = contention.computeIfAbsent(accountId, id -> new AccountContention());
+            stats.lockWaits.increment();
+            stats.lockWaitNanos.add(waitNanos);
+        }
+    }
+
+    public void recordLockFailure(Long... accountIds) {
+        lockFailures.increment();
+        for (Long accountId : accountIds) {
+            contention.computeIfAbsent(accountId, id -> new AccountContention()).retries.increment();
+        }
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> topContendedAccounts() {
+        return contention.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, AccountContention> e) -> e.getValue().score()).reversed())
+                .limit(TOP_ACCOUNTS)
+                .map(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("accountId", e.getKey());
+                    row.put("retries", e.getValue().retries.sum());
+                    row.put("lockWaits", e.getValue().lockWaits.sum());
+                    row.put("lockWaitMs", TimeUnit.NANOSECONDS.toMillis(e.getValue().lockWaitNanos.sum()));
+                    return row;
+                })
+                .toList();
+    }
+
+    private static final class AccountContention {
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder lockWaits = new LongAdder();
+        private final LongAdder lockWaitNanos = new LongAdder();
+
+        private long score() {
+            return retries.sum() + lockWaits.sum();
+        }
+    }
+}
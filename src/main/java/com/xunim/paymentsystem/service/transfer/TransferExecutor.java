@@ -0,0 +1,118 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Executa uma transferência em transação própria, repetindo a transação inteira quando o
+ * MySQL aborta por deadlock (1213) ou lock wait timeout (1205). O intervalo entre tentativas
+ * cresce exponencialmente com jitter completo, para as transações em conflito não colidirem de novo.
+ * <p>
+ * A transação roda em READ COMMITTED: o InnoDB solta na hora o lock das linhas que um UPDATE examina
+ * mas não altera, como a faixa de saldo que não cobre o débito em
+ * {@link com.xunim.paymentsystem.service.ledger.StripedBalanceService#debit}.
+ */
+@Component
+@Slf4j
+public class TransferExecutor {
+
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final String SQL_STATE_SERIALIZATION_FAILURE = "40001";
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public TransferExecutor(PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${xunimpay.transfer.retry.max-attempts:5}") int maxAttempts,
+                            @Value("${xunimpay.transfer.retry.initial-backoff-ms:10}") long initialBackoffMs,
+                            @Value("${xunimpay.transfer.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+
+        this.retries = Counter.builder("xunimpay.transfer.retries")
+                .description("Transações de transferência repetidas por deadlock ou lock timeout")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("xunimpay.transfer.retries.exhausted")
+                .description("Transferências que falharam após esgotar as tentativas")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (!isLockFailure(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.error("Conflito de lock persistiu após {} tentativas", attempt);
+                    throw e;
+                }
+
+                retries.increment();
+                long backoffMs = backoff(attempt);
+                log.warn("Conflito de lock na tentativa {}, repetindo em {} ms: {}", attempt, backoffMs, e.getMessage());
+                sleep(backoffMs);
+            }
+        }
+    }
+
+    public static boolean isLockFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PessimisticLockingFailureException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof LockTimeoutException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException
+                    && (sqlException.getErrorCode() == MYSQL_DEADLOCK
+                    || sqlException.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                    || SQL_STATE_SERIALIZATION_FAILURE.equals(sqlException.getSQLState()))) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando nova tentativa de transferência", e);
+        }
+    }
+}
@@ -1,35 +1,183 @@
 package com.xunim.paymentsystem.util;
 
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Números de conta sequenciais no formato {@code 001-<número>-<dígito>}. Cada instância
+ * reserva blocos de {@code xunimpay.accounts.number-block-size} números na tabela
+ * {@code account_number_seq} e os distribui da memória sem locks; instâncias diferentes
+ * nunca recebem o mesmo bloco, então não há colisão nem consulta por número existente.
+ * Números não usados de um bloco se perdem quando a instância para.
+ * <p>
+ * O próximo bloco é reservado por uma thread própria quando metade do atual foi usada, fora da
+ * transação de quem pede o número: a criação de conta não faz a ida ao banco nem pega uma
+ * segunda conexão do pool enquanto segura a sua.
+ * <p>
+ * A sequência começa em 1000000; os números de 6 dígitos ficam com as contas criadas
+ * antes, quando eram sorteados.
+ */
 @Component
+@Slf4j
 public class AccountNumberGenerator {
 
     private static final String BANK_CODE = "001";
-    private static final SecureRandom random = new SecureRandom();
 
-    public String generateAccountNumber() {
-        // Gera 6 dígitos aleatórios para o número da conta
-        int accountNumber = 100000 + random.nextInt(900000);
+    private static final String SELECT_NEXT = "SELECT next_val FROM account_number_seq FOR UPDATE";
+    private static final String ADVANCE_NEXT = "UPDATE account_number_seq SET next_val = next_val + ?";
 
-        // Calcula o dígito verificador
-        int checkDigit = calculateCheckDigit(accountNumber);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+    private final ExecutorService reserver;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private CompletableFuture<Block> nextBlock;
 
-        return String.format("%s-%d-%d", BANK_CODE, accountNumber, checkDigit);
+    public AccountNumberGenerator(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${xunimpay.accounts.number-block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Tamanho do bloco de números de conta deve ser positivo");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // Transação própria: a linha da sequência fica travada só durante a reserva
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blockSize = blockSize;
+        this.reserver = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "account-number-reserver");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
-    private int calculateCheckDigit(int accountNumber) {
-        // Algoritmo simples para dígito verificador
-        String numberStr = String.valueOf(accountNumber);
-        int sum = 0;
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        reserver.shutdown();
+        reserver.awaitTermination(5, TimeUnit.SECONDS);
+    }
 
-        for (int i = 0; i < numberStr.length(); i++) {
-            int digit = Character.getNumericValue(numberStr.charAt(i));
-            sum += digit * (i + 1);
+    public String generateAccountNumber() {
+        long number = nextNumber();
+        return new StringBuilder(BANK_CODE.length() + 22)
+                .append(BANK_CODE).append('-')
+                .append(number).append('-')
+                .append(calculateCheckDigit(number))
+                .toString();
+    }
+
+    long nextNumber() {
+        while (true) {
+            Block current = block.get();
+            long number = current.next.getAndIncrement();
+            if (number < current.end) {
+                if (number == current.prefetchAt) {
+                    requestNextBlock();
+                }
+                return number;
+            }
+            advance(current);
         }
+    }
 
+    /**
+     * Soma dos dígitos ponderados pela posição (1 para o mais à esquerda), módulo 10.
+     */
+    static int calculateCheckDigit(long accountNumber) {
+        int length = 1;
+        for (long n = accountNumber / 10; n > 0; n /= 10) {
+            length++;
+        }
+
+        int sum = 0;
+        long n = accountNumber;
+        for (int position = length; position >= 1; position--) {
+            sum += (int) (n % 10) * position;
+            n /= 10;
+        }
         return sum % 10;
     }
-}
\ No newline at end of file
+
+    private CompletableFuture<Block> requestNextBlock() {
+        refillLock.lock();
+        try {
+            if (nextBlock == null) {
+                nextBlock = CompletableFuture.supplyAsync(this::reserveBlock, reserver);
+            }
+            return nextBlock;
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    // Bloco esgotado: espera a reserva em andamento (ou pede uma) sem segurar o lock
+    private void advance(Block current) {
+        if (block.get() != current) {
+            return;
+        }
+        CompletableFuture<Block> pending = requestNextBlock();
+        Block reserved;
+        try {
+            reserved = pending.join();
+        } catch (CompletionException e) {
+            refillLock.lock();
+            try {
+                if (nextBlock == pending) {
+                    nextBlock = null;
+                }
+            } finally {
+                refillLock.unlock();
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        refillLock.lock();
+        try {
+            if (nextBlock == pending && block.compareAndSet(current, reserved)) {
+                nextBlock = null;
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private Block reserveBlock() {
+        Long start = transactionTemplate.execute(status -> {
+            Long next = jdbcTemplate.queryForObject(SELECT_NEXT, Long.class);
+            jdbcTemplate.update(ADVANCE_NEXT, blockSize);
+            return next;
+        });
+        if (start == null) {
+            throw new IllegalStateException("Sequência de números de conta não inicializada");
+        }
+        log.debug("Bloco de números de conta reservado: {} a {}", start, start + blockSize - 1);
+        return new Block(start, start + blockSize);
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long end;
+        private final long prefetchAt;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = start + (end - start) / 2;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.xunim.paymentsystem.util;
+
+import com.xunim.paymentsystem.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição no histórico de pagamentos de uma conta: o {@code (created_at, id)} do último
+ * pagamento entregue. Trafega como token opaco (Base64 URL-safe), para que o cliente não
+ * dependa do formato.
+ */
+public record PaymentCursor(LocalDateTime createdAt, Long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        return ENCODER.encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PaymentCursor decode(String token) {
+        try {
+            String value = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new PaymentCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.xunim.paymentsystem.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera IDs de transação de 64 bits no estilo Snowflake:
+ * {@code [41 bits ms desde 2024-01-01][10 bits nó][12 bits sequência]}.
+ * <p>
+ * O estado (timestamp + sequência) fica num único {@link AtomicLong} atualizado por CAS, então
+ * a geração não usa locks. Os IDs são estritamente crescentes por nó: se a sequência de um
+ * milissegundo se esgota ou o relógio volta, o gerador avança sobre o último timestamp usado
+ * em vez de esperar. O texto usa Base32 Crockford de largura fixa, então a ordem textual é a
+ * mesma ordem numérica e os inserts no índice de {@code transaction_id} ficam sempre no fim.
+ * <p>
+ * O node ID vem de {@link TransactionIdNodeLease}: fixo por configuração ou alugado no banco, para
+ * que duas instâncias nunca usem o mesmo. Com o prazo do aluguel vencido, {@link #nextId()} falha em
+ * vez de emitir IDs com um node ID que outra instância pode ter assumido.
+ */
+@Component
+@Slf4j
+public class TransactionIdGenerator {
+
+    public static final String PREFIX = "TXN-";
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    // Nulo com node ID fixo (testes, benchmarks)
+    private final TransactionIdNodeLease lease;
+    private volatile long nodeBits;
+    // (timestamp relativo << SEQUENCE_BITS) | sequência do último ID emitido
+    private final AtomicLong state = new AtomicLong();
+
+    public TransactionIdGenerator(long nodeId) {
+        this(nodeId, null);
+    }
+
+    @Autowired
+    public TransactionIdGenerator(TransactionIdNodeLease lease) {
+        this(lease.acquire(), lease);
+        lease.onReassigned(this::reassign);
+    }
+
+    private TransactionIdGenerator(long nodeId, TransactionIdNodeLease lease) {
+        this.nodeBits = toNodeBits(nodeId);
+        this.lease = lease;
+    }
+
+    public long nextId() {
+        if (lease != null && !lease.isValid()) {
+            throw new IllegalStateException("Prazo do node ID " + (nodeBits >>> SEQUENCE_BITS)
+                    + " venceu sem renovação; IDs de transação suspensos");
+        }
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        while (true) {
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next = now > lastTimestamp ? now << SEQUENCE_BITS : last + 1;
+            if (state.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public String nextTransactionId() {
+        return encode(nextId());
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static long decode(String transactionId) {
+        if (transactionId == null || transactionId.length() != PREFIX.length() + ENCODED_LENGTH
+                || !transactionId.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("ID de transação inválido: " + transactionId);
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < transactionId.length(); i++) {
+            int value = indexOf(transactionId.charAt(i));
+            if (value < 0) {
+                throw new IllegalArgumentException("ID de transação inválido: " + transactionId);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    public static long nodeIdOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void reassign(long nodeId) {
+        this.nodeBits = toNodeBits(nodeId);
+        log.warn("IDs de transação passam a usar o node ID {}", nodeId);
+    }
+
+    private static long toNodeBits(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID deve estar entre 0 e " + MAX_NODE_ID);
+        }
+        return nodeId << SEQUENCE_BITS;
+    }
+}
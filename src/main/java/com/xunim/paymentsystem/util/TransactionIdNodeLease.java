@@ -0,0 +1,182 @@
+package com.xunim.paymentsystem.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Node ID do {@link TransactionIdGenerator}. Com {@code xunimpay.transaction-id.node-id} configurado,
+ * usa esse valor. Com -1, aluga uma linha de {@code transaction_id_nodes} e renova o prazo a cada
+ * terço de {@code lease-seconds}; o ID de uma instância que parou só volta a ser alugado depois que o
+ * prazo vence. Os prazos usam o relógio do banco.
+ * <p>
+ * Se a renovação encontra o ID alugado por outra instância (pausa maior que o prazo), aluga outro e
+ * avisa o gerador.
+ * <p>
+ * O prazo também é acompanhado localmente, a partir do instante em que a última renovação bem-sucedida
+ * foi enviada. Se as renovações falham até ele vencer (banco fora do ar, pausa longa), o gerador para
+ * de emitir IDs até a próxima renovação, porque outra instância já pode ter alugado o mesmo node ID.
+ */
+@Component
+@Slf4j
+public class TransactionIdNodeLease {
+
+    private static final String SELECT_EXPIRED = "SELECT node_id FROM transaction_id_nodes " +
+            "WHERE leased_until < CURRENT_TIMESTAMP(6) ORDER BY node_id LIMIT 1 FOR UPDATE";
+    private static final String TAKE_EXPIRED = "UPDATE transaction_id_nodes " +
+            "SET owner = ?, leased_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)) WHERE node_id = ?";
+    private static final String SELECT_MAX = "SELECT MAX(node_id) FROM transaction_id_nodes";
+    private static final String INSERT = "INSERT INTO transaction_id_nodes (node_id, owner, leased_until) " +
+            "VALUES (?, ?, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)))";
+    private static final String RENEW = "UPDATE transaction_id_nodes " +
+            "SET leased_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)) WHERE node_id = ? AND owner = ?";
+    private static final int MAX_CLAIM_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long configuredNodeId;
+    private final long leaseSeconds;
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier nanoClock;
+
+    private volatile long nodeId = -1;
+    // System.nanoTime() em que o prazo local vence; só vale com o node ID alugado
+    private volatile long validUntilNanos;
+    private volatile LongConsumer reassignListener = id -> { };
+
+    @Autowired
+    public TransactionIdNodeLease(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${xunimpay.transaction-id.node-id:-1}") long configuredNodeId,
+                                  @Value("${xunimpay.transaction-id.lease-seconds:30}") long leaseSeconds) {
+        this(jdbcTemplate, transactionManager, configuredNodeId, leaseSeconds, System::nanoTime);
+    }
+
+    TransactionIdNodeLease(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           long configuredNodeId,
+                           long leaseSeconds,
+                           LongSupplier nanoClock) {
+        if (configuredNodeId > TransactionIdGenerator.MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID deve estar entre 0 e " + TransactionIdGenerator.MAX_NODE_ID);
+        }
+        if (leaseSeconds < 3) {
+            throw new IllegalArgumentException("Prazo do node ID deve ser de pelo menos 3 segundos");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.configuredNodeId = configuredNodeId;
+        this.leaseSeconds = leaseSeconds;
+        this.nanoClock = nanoClock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "transaction-id-lease");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Node ID configurado ou, sem configuração, um ID alugado no banco e renovado até a instância parar.
+     */
+    public long acquire() {
+        if (configuredNodeId >= 0) {
+            return configuredNodeId;
+        }
+        if (nodeId < 0) {
+            long requestedAt = nanoClock.getAsLong();
+            nodeId = claim();
+            extendUntil(requestedAt);
+            long periodMs = TimeUnit.SECONDS.toMillis(leaseSeconds) / 3;
+            scheduler.scheduleWithFixedDelay(this::renew, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        }
+        return nodeId;
+    }
+
+    public void onReassigned(LongConsumer listener) {
+        this.reassignListener = listener;
+    }
+
+    /**
+     * Se o node ID pode ser usado agora: configurado, ou alugado com o prazo local ainda em aberto.
+     */
+    public boolean isValid() {
+        return configuredNodeId >= 0 || (nodeId >= 0 && nanoClock.getAsLong() - validUntilNanos < 0);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void renew() {
+        try {
+            long requestedAt = nanoClock.getAsLong();
+            if (jdbcTemplate.update(RENEW, leaseSeconds, nodeId, owner) > 0) {
+                extendUntil(requestedAt);
+                return;
+            }
+            // O ID já é de outra instância: suspende a geração até o gerador trocar de ID
+            validUntilNanos = requestedAt;
+            long lost = nodeId;
+            requestedAt = nanoClock.getAsLong();
+            nodeId = claim();
+            log.error("Node ID {} de IDs de transação foi alugado por outra instância; usando {}", lost, nodeId);
+            reassignListener.accept(nodeId);
+            extendUntil(requestedAt);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao renovar o node ID {} de IDs de transação: {}", nodeId, e.getMessage());
+        }
+    }
+
+    // O banco grava o prazo a partir do próprio relógio, depois do envio; contar do envio fica a favor da segurança
+    private void extendUntil(long requestedAt) {
+        validUntilNanos = requestedAt + TimeUnit.SECONDS.toNanos(leaseSeconds);
+    }
+
+    private long claim() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long claimed = transactionTemplate.execute(status -> claimOnce());
+                log.info("Node ID {} alugado para IDs de transação (prazo {} s)", claimed, leaseSeconds);
+                return claimed;
+            } catch (DuplicateKeyException e) {
+                // Outra instância inseriu o mesmo ID ao mesmo tempo
+                if (attempt >= MAX_CLAIM_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Long claimOnce() {
+        List<Long> expired = jdbcTemplate.queryForList(SELECT_EXPIRED, Long.class);
+        if (!expired.isEmpty()) {
+            jdbcTemplate.update(TAKE_EXPIRED, owner, leaseSeconds, expired.get(0));
+            return expired.get(0);
+        }
+
+        Long max = jdbcTemplate.queryForObject(SELECT_MAX, Long.class);
+        long next = max != null ? max + 1 : 0;
+        if (next > TransactionIdGenerator.MAX_NODE_ID) {
+            throw new IllegalStateException("Todos os node IDs de IDs de transação estão alugados");
+        }
+        jdbcTemplate.update(INSERT, next, owner, leaseSeconds);
+        return next;
+    }
+}
@@ -2,80 +2,119 @@ package com.xunim.paymentsystem.util;
 
 import org.springframework.stereotype.Component;
 
+import java.util.BitSet;
+import java.util.List;
 import java.util.regex.Pattern;
 
+/**
+ * CPF e CNPJ são validados em uma única passada pelos caracteres, sem alocação: formato,
+ * dígitos repetidos e as duas somas dos dígitos verificadores saem do mesmo laço. Aceita só
+ * dígitos ou a máscara completa ({@code 123.456.789-09}, {@code 12.345.678/0001-95}).
+ */
 @Component
 public class ValidationUtils {
 
-    private static final Pattern CPF_PATTERN = Pattern.compile("\\d{11}");
-    private static final Pattern CNPJ_PATTERN = Pattern.compile("\\d{14}");
     private static final Pattern PHONE_PATTERN = Pattern.compile("\\d{10,11}");
 
-    public boolean isValidCPF(String cpf) {
-        if (cpf == null || !CPF_PATTERN.matcher(cpf).matches()) {
-            return false;
-        }
+    private static final String CPF_MASK = "###.###.###-##";
+    private static final String CNPJ_MASK = "##.###.###/####-##";
+    private static final char DIGIT = '#';
 
-        // Verifica se todos os dígitos são iguais
-        if (cpf.chars().distinct().count() == 1) {
-            return false;
-        }
+    // Peso de cada dígito nas somas do primeiro e do segundo verificador (zero onde não entra)
+    private static final int[] CPF_WEIGHTS_1 = {10, 9, 8, 7, 6, 5, 4, 3, 2, 0, 0};
+    private static final int[] CPF_WEIGHTS_2 = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 0};
+    private static final int[] CNPJ_WEIGHTS_1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2, 0, 0};
+    private static final int[] CNPJ_WEIGHTS_2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2, 0};
 
-        // Algoritmo de validação do CPF
-        int[] weights1 = {10, 9, 8, 7, 6, 5, 4, 3, 2};
-        int[] weights2 = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2};
+    public boolean isValidCPF(CharSequence cpf) {
+        return isValidDocument(cpf, CPF_MASK, CPF_WEIGHTS_1, CPF_WEIGHTS_2);
+    }
 
-        return isValidDocument(cpf, weights1, 9) && isValidDocument(cpf, weights2, 10);
+    public boolean isValidCNPJ(CharSequence cnpj) {
+        return isValidDocument(cnpj, CNPJ_MASK, CNPJ_WEIGHTS_1, CNPJ_WEIGHTS_2);
     }
 
-    public boolean isValidCNPJ(String cnpj) {
-        if (cnpj == null || !CNPJ_PATTERN.matcher(cnpj).matches()) {
-            return false;
-        }
+    public boolean isValidPhone(String phone) {
+        return phone != null && PHONE_PATTERN.matcher(phone).matches();
+    }
 
-        // Verifica se todos os dígitos são iguais
-        if (cnpj.chars().distinct().count() == 1) {
-            return false;
+    public DocumentType getDocumentType(CharSequence document) {
+        // O tamanho descarta o tipo errado no primeiro caractere fora do formato
+        if (isValidCPF(document)) {
+            return DocumentType.CPF;
         }
-
-        // Algoritmo de validação do CNPJ
-        int[] weights1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
-        int[] weights2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
-
-        return isValidDocument(cnpj, weights1, 12) && isValidDocument(cnpj, weights2, 13);
+        if (isValidCNPJ(document)) {
+            return DocumentType.CNPJ;
+        }
+        return DocumentType.INVALID;
     }
 
-    public boolean isValidPhone(String phone) {
-        return phone != null && PHONE_PATTERN.matcher(phone).matches();
+    /**
+     * Valida documentos em lote (CPF ou CNPJ, com ou sem máscara), como as linhas de um arquivo
+     * de cadastro. Retorna os índices dos inválidos; nulos contam como inválidos.
+     */
+    public BitSet findInvalidDocuments(List<? extends CharSequence> documents) {
+        BitSet invalid = new BitSet(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            CharSequence document = documents.get(i);
+            if (!isValidCPF(document) && !isValidCNPJ(document)) {
+                invalid.set(i);
+            }
+        }
+        return invalid;
     }
 
-    public DocumentType getDocumentType(String document) {
+    private static boolean isValidDocument(CharSequence document, String mask, int[] weights1, int[] weights2) {
         if (document == null) {
-            return DocumentType.INVALID;
+            return false;
+        }
+        int digits = weights1.length;
+        int length = document.length();
+        boolean masked = length == mask.length();
+        if (length != digits && !masked) {
+            return false;
         }
 
-        if (document.length() == 11) {
-            return isValidCPF(document) ? DocumentType.CPF : DocumentType.INVALID;
-        } else if (document.length() == 14) {
-            return isValidCNPJ(document) ? DocumentType.CNPJ : DocumentType.INVALID;
+        int sum1 = 0;
+        int sum2 = 0;
+        int first = -1;
+        boolean repeated = true;
+        int checkDigit1 = 0;
+        int checkDigit2 = 0;
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = document.charAt(i);
+            if (masked && mask.charAt(i) != DIGIT) {
+                if (c != mask.charAt(i)) {
+                    return false;
+                }
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            if (index == 0) {
+                first = digit;
+            } else if (digit != first) {
+                repeated = false;
+            }
+            sum1 += digit * weights1[index];
+            sum2 += digit * weights2[index];
+            checkDigit1 = checkDigit2;
+            checkDigit2 = digit;
+            index++;
         }
 
-        return DocumentType.INVALID;
+        return !repeated && checkDigit1 == checkDigit(sum1) && checkDigit2 == checkDigit(sum2);
     }
 
-    private boolean isValidDocument(String document, int[] weights, int position) {
-        int sum = 0;
-        for (int i = 0; i < weights.length; i++) {
-            sum += Character.getNumericValue(document.charAt(i)) * weights[i];
-        }
-
+    private static int checkDigit(int sum) {
         int remainder = sum % 11;
-        int checkDigit = (remainder < 2) ? 0 : 11 - remainder;
-
-        return checkDigit == Character.getNumericValue(document.charAt(position));
+        return (remainder < 2) ? 0 : 11 - remainder;
     }
 
     public enum DocumentType {
         CPF, CNPJ, INVALID
     }
-}
\ No newline at end of file
+}
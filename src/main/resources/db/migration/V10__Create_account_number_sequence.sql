@@ -0,0 +1,7 @@
+-- Números de conta reservados em blocos por instância (ver AccountNumberGenerator).
+-- Começa acima da faixa de 6 dígitos, que pertence aos números sorteados até aqui.
+CREATE TABLE account_number_seq (
+                                    next_val BIGINT NOT NULL
+);
+
+INSERT INTO account_number_seq (next_val) VALUES (1000000);
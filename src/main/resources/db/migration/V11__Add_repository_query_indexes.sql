@@ -0,0 +1,20 @@
+-- Índices compostos das consultas dos repositórios; QueryPlanRegressionTest verifica o plano de cada uma.
+-- external_id já tem índice (V4) e o histórico por conta usa os compostos de V9.
+
+-- countByStatusSince / countByStatusBetween: igualdade em status + range em created_at
+CREATE INDEX idx_payments_status_created ON payments (status, created_at);
+
+-- getTotalAmountByType e sumCompletedAmountByType: filtro, agrupamento e soma lidos só do índice
+CREATE INDEX idx_payments_status_type_amount ON payments (status, payment_type, amount);
+
+-- countByMinuteAndStatusSince: range em created_at com o status no índice.
+-- Substitui idx_payments_created_at, que é prefixo dele.
+CREATE INDEX idx_payments_created_status ON payments (created_at, status);
+DROP INDEX idx_payments_created_at ON payments;
+
+-- findStripedAccounts: poucas contas têm faixas, então balance_stripes > 0 é seletivo
+CREATE INDEX idx_accounts_balance_stripes ON accounts (balance_stripes);
+
+-- getTotalActiveBalance: soma do saldo direto do índice. Substitui idx_accounts_status.
+CREATE INDEX idx_accounts_status_balance ON accounts (status, balance);
+DROP INDEX idx_accounts_status ON accounts;
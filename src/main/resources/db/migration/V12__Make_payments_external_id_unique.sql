@@ -0,0 +1,27 @@
+-- Chave de idempotência única: duas requisições concorrentes com o mesmo external_id não geram dois
+-- pagamentos (PaymentServiceImpl.createPayment relê o original). NULLs não colidem, então
+-- pagamentos sem chave não são afetados. Substitui o índice simples de V4.
+
+-- Até aqui nada impedia chaves repetidas. O pagamento mais antigo de cada chave continua sendo o
+-- original (é o que a idempotência devolve); as cópias ficam sem chave e são registradas abaixo.
+CREATE TABLE payments_external_id_duplicates (
+    payment_id BIGINT NOT NULL PRIMARY KEY,
+    external_id VARCHAR(255) NOT NULL,
+    original_payment_id BIGINT NOT NULL
+);
+
+INSERT INTO payments_external_id_duplicates (payment_id, external_id, original_payment_id)
+SELECT p.id, p.external_id, o.original_id
+FROM payments p
+JOIN (SELECT external_id, MIN(id) AS original_id
+      FROM payments
+      WHERE external_id IS NOT NULL
+      GROUP BY external_id
+      HAVING COUNT(*) > 1) o ON o.external_id = p.external_id
+WHERE p.id <> o.original_id;
+
+UPDATE payments SET external_id = NULL
+WHERE id IN (SELECT payment_id FROM payments_external_id_duplicates);
+
+CREATE UNIQUE INDEX uk_payments_external_id ON payments (external_id);
+DROP INDEX idx_payments_external_id ON payments;
@@ -0,0 +1,7 @@
+-- Node IDs alugados pelo gerador de IDs de transação (ver TransactionIdNodeLease). Cada instância sem
+-- node-id fixo ocupa uma linha e renova leased_until; uma linha vencida pode ser alugada por outra.
+CREATE TABLE transaction_id_nodes (
+                                      node_id INT NOT NULL PRIMARY KEY,
+                                      owner VARCHAR(64) NOT NULL,
+                                      leased_until TIMESTAMP(6) NOT NULL
+);
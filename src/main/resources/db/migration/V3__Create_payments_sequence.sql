@@ -0,0 +1,9 @@
+-- Gerador de IDs em tabela para pagamentos (MySQL não possui sequences).
+-- O Hibernate aloca blocos de 50 IDs (otimizador pooled), o que permite batch insert via JDBC.
+CREATE TABLE payments_seq (
+                              next_val BIGINT NOT NULL
+);
+
+-- Inicia acima do maior ID existente, com folga de um bloco de alocação
+INSERT INTO payments_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM payments;
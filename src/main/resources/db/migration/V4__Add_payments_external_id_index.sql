@@ -0,0 +1,2 @@
+-- Consulta de idempotência por external_id (fallback quando a chave não está em cache)
+CREATE INDEX idx_payments_external_id ON payments (external_id);
@@ -0,0 +1,10 @@
+-- Saldo particionado para contas de alta contenção (0 = conta sem faixas)
+ALTER TABLE accounts ADD COLUMN balance_stripes INT NOT NULL DEFAULT 0;
+
+CREATE TABLE account_balance_stripes (
+                                         account_id BIGINT NOT NULL,
+                                         stripe_index INT NOT NULL,
+                                         balance DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+                                         PRIMARY KEY (account_id, stripe_index),
+                                         FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE RESTRICT
+);
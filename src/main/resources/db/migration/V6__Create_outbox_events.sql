@@ -0,0 +1,9 @@
+-- Outbox transacional: eventos de auditoria e de pagamento publicados pelo relay
+CREATE TABLE outbox_events (
+                               id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                               aggregate_type VARCHAR(50) NOT NULL,
+                               aggregate_id VARCHAR(100) NOT NULL,
+                               event_type VARCHAR(50) NOT NULL,
+                               payload TEXT NOT NULL,
+                               created_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)
+);
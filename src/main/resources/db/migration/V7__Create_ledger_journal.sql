@@ -0,0 +1,34 @@
+-- Diário de partidas dobradas: cada pagamento concluído gera um débito e um crédito.
+-- account_seq é atribuído pelo sequenciador em segundo plano (NULL = ainda não sequenciado).
+CREATE TABLE ledger_entries (
+                                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                account_id BIGINT NOT NULL,
+                                account_seq BIGINT NULL,
+                                payment_id BIGINT NULL,
+                                entry_type VARCHAR(10) NOT NULL,
+                                amount DECIMAL(15,2) NOT NULL,
+                                created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+                                UNIQUE KEY uk_ledger_entries_account_seq (account_id, account_seq),
+                                INDEX idx_ledger_entries_unsequenced (account_seq, id),
+                                INDEX idx_ledger_entries_payment (payment_id)
+);
+
+-- Saldo de cada conta até account_seq; as_of é o created_at mais recente coberto
+CREATE TABLE ledger_checkpoints (
+                                    account_id BIGINT NOT NULL,
+                                    account_seq BIGINT NOT NULL,
+                                    balance DECIMAL(15,2) NOT NULL,
+                                    as_of TIMESTAMP(6) NOT NULL,
+                                    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+                                    PRIMARY KEY (account_id, account_seq)
+);
+
+-- Saldo de abertura das contas existentes (saldo principal + faixas)
+INSERT INTO ledger_entries (account_id, account_seq, entry_type, amount)
+SELECT a.id, 1, 'OPENING',
+       a.balance + COALESCE((SELECT SUM(s.balance) FROM account_balance_stripes s WHERE s.account_id = a.id), 0)
+FROM accounts a;
+
+INSERT INTO ledger_checkpoints (account_id, account_seq, balance, as_of)
+SELECT e.account_id, e.account_seq, e.amount, e.created_at
+FROM ledger_entries e;
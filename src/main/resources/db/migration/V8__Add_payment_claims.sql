@@ -0,0 +1,3 @@
+-- Reserva de pagamentos PENDING pelo sweeper: enquanto claimed_until não expira,
+-- outros nós pulam o pagamento. Um nó que cai libera a reserva ao fim do prazo.
+ALTER TABLE payments ADD COLUMN claimed_until TIMESTAMP(6) NULL;
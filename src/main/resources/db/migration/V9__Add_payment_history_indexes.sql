@@ -0,0 +1,4 @@
+-- Histórico por conta com seek em (created_at, id): cada lado da conta vira um range scan
+-- já ordenado, sem filesort nem OFFSET.
+CREATE INDEX idx_payments_from_account_created ON payments (from_account_id, created_at, id);
+CREATE INDEX idx_payments_to_account_created ON payments (to_account_id, created_at, id);
@@ -0,0 +1,59 @@
+package com.xunim.paymentsystem.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xunim.paymentsystem.exception.GlobalExceptionHandler;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import com.xunim.paymentsystem.service.PaymentService;
+import com.xunim.paymentsystem.service.export.PaymentExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentController Tests")
+class PaymentControllerTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        PaymentExportService exportService = new PaymentExportService(paymentRepository, entityManager, new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(new PaymentController(paymentService, exportService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve responder 400 para exportação com período invertido antes de abrir o streaming")
+    void shouldRejectInvertedExportRange() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/v1/payments/export")
+                        .param("start", "2025-02-01T00:00:00")
+                        .param("end", "2025-01-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(request().asyncNotStarted())
+                .andExpect(jsonPath("$.message").value("Data início deve ser anterior à data fim"));
+
+        verify(paymentRepository, never()).streamByDateRange(any(), any());
+    }
+}
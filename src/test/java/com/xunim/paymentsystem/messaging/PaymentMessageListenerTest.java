@@ -0,0 +1,161 @@
+package com.xunim.paymentsystem.messaging;
+
+import com.xunim.paymentsystem.config.RabbitConfig;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.exception.ResourceNotFoundException;
+import com.xunim.paymentsystem.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentMessageListener Tests")
+class PaymentMessageListenerTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PaymentMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new PaymentMessageListener(paymentService, meterRegistry, 2);
+    }
+
+    @Test
+    @DisplayName("Deve descartar mensagem duplicada dentro e entre lotes")
+    void shouldSkipDuplicateMessages() {
+        // When
+        listener.onPaymentsCreated(List.of(event(1L), event(1L)));
+        listener.onPaymentsCreated(List.of(event(1L)));
+
+        // Then
+        verify(paymentService, times(1)).processPayment(1L);
+        assertThat(messages("processed")).isEqualTo(1);
+        assertThat(messages("duplicate")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve esquecer os IDs mais antigos ao passar da capacidade do filtro")
+    void shouldEvictEldestWhenCapacityIsExceeded() {
+        // Given
+        listener.onPaymentsCreated(List.of(event(1L), event(2L), event(3L)));
+
+        // When
+        listener.onPaymentsCreated(List.of(event(1L), event(3L)));
+
+        // Then
+        verify(paymentService, times(2)).processPayment(1L);
+        verify(paymentService, times(1)).processPayment(3L);
+        assertThat(messages("duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve seguir com o lote quando um pagamento é rejeitado pelo negócio")
+    void shouldContinueBatchWhenOneMessageIsRejected() {
+        // Given
+        when(paymentService.processPayment(anyLong())).thenAnswer(invocation -> {
+            Long paymentId = invocation.getArgument(0);
+            if (paymentId == 2L) {
+                throw new BusinessException("Apenas pagamentos pendentes podem ser processados");
+            }
+            if (paymentId == 3L) {
+                throw new ResourceNotFoundException("Pagamento não encontrado: 3");
+            }
+            return null;
+        });
+
+        // When
+        listener.onPaymentsCreated(List.of(event(1L), event(2L), event(3L), event(4L)));
+        listener.onPaymentsCreated(List.of(event(3L)));
+
+        // Then
+        verify(paymentService).processPayment(1L);
+        verify(paymentService).processPayment(2L);
+        verify(paymentService).processPayment(4L);
+        verify(paymentService, times(1)).processPayment(3L);
+        assertThat(messages("processed")).isEqualTo(2);
+        assertThat(messages("rejected")).isEqualTo(2);
+        assertThat(messages("duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve propagar erro inesperado e pular os já processados na reentrega")
+    void shouldPropagateUnexpectedErrorAndSkipProcessedOnRedelivery() {
+        // Given
+        AtomicBoolean failed = new AtomicBoolean();
+        when(paymentService.processPayment(anyLong())).thenAnswer(invocation -> {
+            if (invocation.<Long>getArgument(0) == 2L && failed.compareAndSet(false, true)) {
+                throw new QueryTimeoutException("timeout");
+            }
+            return null;
+        });
+        List<PaymentCreatedEvent> batch = List.of(event(1L), event(2L), event(3L));
+
+        // When & Then
+        assertThatThrownBy(() -> listener.onPaymentsCreated(batch)).isInstanceOf(QueryTimeoutException.class);
+        verify(paymentService, never()).processPayment(3L);
+
+        // When
+        listener.onPaymentsCreated(batch);
+
+        // Then
+        verify(paymentService, times(1)).processPayment(1L);
+        verify(paymentService, times(2)).processPayment(2L);
+        verify(paymentService, times(1)).processPayment(3L);
+        assertThat(messages("duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve confirmar por lote em AUTO e reenfileirar o lote em erro")
+    void shouldAckBatchesAutomaticallyAndRequeueOnError() {
+        // Given
+        SimpleRabbitListenerContainerFactory factory = new RabbitConfig()
+                .paymentListenerContainerFactory(connectionFactory, new MockEnvironment(), 4, 8, 250, 50, 100);
+
+        // When
+        SimpleMessageListenerContainer container = factory.createListenerContainer();
+
+        // Then
+        assertThat(container.getAcknowledgeMode()).isEqualTo(AcknowledgeMode.AUTO);
+        assertThat(ReflectionTestUtils.getField(container, "defaultRequeueRejected")).isEqualTo(true);
+        assertThat(container.isConsumerBatchEnabled()).isTrue();
+        assertThat(ReflectionTestUtils.getField(container, "batchSize")).isEqualTo(50);
+        assertThat(ReflectionTestUtils.getField(container, "prefetchCount")).isEqualTo(250);
+    }
+
+    private double messages(String result) {
+        return meterRegistry.counter("xunimpay.payments.async.messages", "result", result).count();
+    }
+
+    private static PaymentCreatedEvent event(Long paymentId) {
+        return PaymentCreatedEvent.builder()
+                .paymentId(paymentId)
+                .transactionId("TXN-" + paymentId)
+                .build();
+    }
+}
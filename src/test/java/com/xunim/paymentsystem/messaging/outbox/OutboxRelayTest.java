@@ -0,0 +1,143 @@
+package com.xunim.paymentsystem.messaging.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.xunim.paymentsystem.config.RabbitConfig;
+import com.xunim.paymentsystem.entity.AuditLog;
+import com.xunim.paymentsystem.entity.OutboxEvent;
+import com.xunim.paymentsystem.enums.OutboxEventType;
+import com.xunim.paymentsystem.messaging.PaymentCreatedEvent;
+import com.xunim.paymentsystem.repository.mongodb.AuditLogRepository;
+import com.xunim.paymentsystem.repository.mysql.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations rabbitOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, auditLogRepository, rabbitTemplate, transactionManager,
+                objectMapper, new SimpleMeterRegistry(), 200, 10, true, 1_000);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitTemplate.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitOperations));
+    }
+
+    @Test
+    @DisplayName("Deve publicar eventos em ordem e apagá-los após a confirmação")
+    void shouldPublishInOrderAndDeleteAfterConfirm() throws Exception {
+        // Given
+        List<OutboxEvent> events = List.of(
+                auditEvent(1L, "PAYMENT", "10", Map.of("amount", new BigDecimal("10.50"))),
+                paymentEvent(2L, 10L),
+                auditEvent(3L, "PAYMENT", "10", Map.of("description", "processado")));
+        when(outboxEventRepository.lockOldest(any(Pageable.class))).thenReturn(events);
+
+        // When
+        relay.drain();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AuditLog>> saved = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(AuditLog::getId).containsExactly("outbox-1", "outbox-3");
+        assertThat(saved.getValue().get(0).getDetails().get("amount")).isEqualTo(new BigDecimal("10.50"));
+
+        InOrder inOrder = inOrder(rabbitOperations, outboxEventRepository);
+        inOrder.verify(rabbitOperations).convertAndSend(eq(RabbitConfig.AUDIT_EXCHANGE), eq(RabbitConfig.AUDIT_ROUTING_KEY),
+                any(AuditLog.class), any(MessagePostProcessor.class));
+        inOrder.verify(rabbitOperations).convertAndSend(eq(RabbitConfig.PAYMENT_EXCHANGE), eq(RabbitConfig.PAYMENT_ROUTING_KEY),
+                any(PaymentCreatedEvent.class), any(MessagePostProcessor.class));
+        inOrder.verify(rabbitOperations).convertAndSend(eq(RabbitConfig.AUDIT_EXCHANGE), eq(RabbitConfig.AUDIT_ROUTING_KEY),
+                any(AuditLog.class), any(MessagePostProcessor.class));
+        inOrder.verify(rabbitOperations).waitForConfirmsOrDie(1_000);
+        inOrder.verify(outboxEventRepository).deleteAllInBatch(events);
+    }
+
+    @Test
+    @DisplayName("Deve manter os eventos no outbox quando o RabbitMQ não confirma")
+    void shouldKeepEventsWhenConfirmFails() throws Exception {
+        // Given
+        List<OutboxEvent> events = List.of(auditEvent(1L, "USER", "5", Map.of("description", "criado")));
+        when(outboxEventRepository.lockOldest(any(Pageable.class))).thenReturn(events);
+        doThrow(new AmqpException("nack")).when(rabbitOperations).waitForConfirmsOrDie(anyLong());
+
+        // When
+        relay.drain();
+
+        // Then
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    private OutboxEvent auditEvent(Long id, String entityType, String entityId, Map<String, Object> details) throws Exception {
+        AuditLog auditLog = AuditLog.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .action("UPDATE")
+                .details(details)
+                .timestamp(LocalDateTime.now())
+                .build();
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(entityType)
+                .aggregateId(entityId)
+                .eventType(OutboxEventType.AUDIT_LOG)
+                .payload(objectMapper.writeValueAsString(auditLog))
+                .createdAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+
+    private OutboxEvent paymentEvent(Long id, Long paymentId) throws Exception {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("PAYMENT")
+                .aggregateId(paymentId.toString())
+                .eventType(OutboxEventType.PAYMENT_CREATED)
+                .payload(objectMapper.writeValueAsString(new PaymentCreatedEvent(paymentId, "TXN-1")))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
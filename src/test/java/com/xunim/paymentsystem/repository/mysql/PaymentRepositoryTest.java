@@ -0,0 +1,180 @@
+package com.xunim.paymentsystem.repository.mysql;
+
+import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.entity.User;
+import com.xunim.paymentsystem.enums.AccountStatus;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.util.TransactionIdGenerator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@DisplayName("PaymentRepository Tests")
+class PaymentRepositoryTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Account source;
+    private Account target;
+    private Payment transfer;
+    private Payment deposit;
+    private final TransactionIdGenerator transactionIds = new TransactionIdGenerator(0);
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .email("joao@email.com")
+                .document("11144477735")
+                .fullName("João Silva")
+                .build();
+        entityManager.persist(user);
+
+        source = account(user, "001-1000000-1", "500.00");
+        target = account(user, "001-1000001-8", "0.00");
+
+        transfer = payment(source, target, PaymentStatus.COMPLETED);
+        // Depósito: sem conta de origem
+        deposit = payment(null, target, PaymentStatus.PENDING);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Deve projetar o pagamento direto no DTO sem carregar entidades")
+    void shouldProjectPaymentWithoutManagedEntities() {
+        // When
+        Optional<PaymentResponseDTO> response = paymentRepository.findResponseById(transfer.getId());
+
+        // Then
+        assertThat(response).hasValueSatisfying(dto -> {
+            assertThat(dto.getFromAccountId()).isEqualTo(source.getId());
+            assertThat(dto.getToAccountId()).isEqualTo(target.getId());
+            assertThat(dto.getAmount()).isEqualByComparingTo("10.00");
+            assertThat(dto.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+            assertThat(dto.getTransactionId()).isEqualTo(transfer.getTransactionId());
+        });
+        assertThat(entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Deve manter pagamentos sem conta de origem nas projeções")
+    void shouldKeepPaymentsWithoutSourceAccount() {
+        // When
+        Page<PaymentResponseDTO> page = paymentRepository.findResponsesByAccountId(target.getId(), PageRequest.of(0, 10));
+        List<PaymentResponseDTO> pending = paymentRepository.findResponsesByStatus(PaymentStatus.PENDING);
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(PaymentResponseDTO::getId)
+                .containsExactlyInAnyOrder(transfer.getId(), deposit.getId());
+        assertThat(pending).singleElement().satisfies(dto -> {
+            assertThat(dto.getId()).isEqualTo(deposit.getId());
+            assertThat(dto.getFromAccountId()).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Deve unir enviados e recebidos da conta, mais recentes primeiro, até o limite")
+    void shouldReturnRecentAccountActivityNewestFirst() {
+        // Given
+        Payment older = payment(target, source, PaymentStatus.COMPLETED);
+        Payment newest = payment(source, target, PaymentStatus.PENDING);
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE payments SET created_at = CASE id " +
+                        "WHEN :transfer THEN TIMESTAMP '2025-01-10 12:02:00' " +
+                        "WHEN :deposit THEN TIMESTAMP '2025-01-10 12:03:00' " +
+                        "WHEN :older THEN TIMESTAMP '2025-01-10 12:01:00' " +
+                        "ELSE TIMESTAMP '2025-01-10 12:04:00' END")
+                .setParameter("transfer", transfer.getId())
+                .setParameter("deposit", deposit.getId())
+                .setParameter("older", older.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        // When
+        List<PaymentResponseDTO> all = paymentRepository.findRecentByAccountId(source.getId(), 10);
+        List<PaymentResponseDTO> limited = paymentRepository.findRecentByAccountId(source.getId(), 2);
+
+        // Then
+        assertThat(all).extracting(PaymentResponseDTO::getId)
+                .containsExactly(newest.getId(), transfer.getId(), older.getId());
+        assertThat(limited).extracting(PaymentResponseDTO::getId)
+                .containsExactly(newest.getId(), transfer.getId());
+        assertThat(all.get(0)).satisfies(dto -> {
+            assertThat(dto.getFromAccountId()).isEqualTo(source.getId());
+            assertThat(dto.getPaymentType()).isEqualTo(PaymentType.TRANSFER);
+            assertThat(dto.getStatus()).isEqualTo(PaymentStatus.PENDING);
+            assertThat(dto.getTransactionId()).isEqualTo(newest.getTransactionId());
+        });
+    }
+
+    @Test
+    @DisplayName("Deve projetar contas do usuário e por status")
+    void shouldProjectAccounts() {
+        // When
+        List<AccountResponseDTO> byUser = accountRepository.findResponsesByUserId(source.getUser().getId());
+        List<AccountResponseDTO> active = accountRepository.findResponsesByStatus(AccountStatus.ACTIVE);
+
+        // Then
+        assertThat(byUser).extracting(AccountResponseDTO::getAccountNumber)
+                .containsExactlyInAnyOrder("001-1000000-1", "001-1000001-8");
+        assertThat(active).hasSize(2);
+        assertThat(byUser).filteredOn(dto -> dto.getId().equals(source.getId())).singleElement()
+                .satisfies(dto -> {
+                    assertThat(dto.getBalance()).isEqualByComparingTo("500.00");
+                    assertThat(dto.getBalanceStripes()).isZero();
+                });
+    }
+
+    private Account account(User user, String number, String balance) {
+        Account account = Account.builder()
+                .user(user)
+                .accountNumber(number)
+                .balance(new BigDecimal(balance))
+                .build();
+        entityManager.persist(account);
+        return account;
+    }
+
+    private Payment payment(Account from, Account to, PaymentStatus status) {
+        Payment payment = Payment.builder()
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(new BigDecimal("10.00"))
+                .paymentType(PaymentType.TRANSFER)
+                .status(status)
+                .transactionId(transactionIds.nextTransactionId())
+                .build();
+        entityManager.persist(payment);
+        return payment;
+    }
+}
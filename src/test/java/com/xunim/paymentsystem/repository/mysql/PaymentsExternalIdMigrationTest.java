@@ -0,0 +1,85 @@
+package com.xunim.paymentsystem.repository.mysql;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("V12 external_id Migration Tests")
+class PaymentsExternalIdMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:external_id_migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;BUILTIN_ALIAS_OVERRIDE=TRUE",
+                "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Deve manter o pagamento mais antigo de cada chave repetida e registrar as cópias")
+    void shouldKeepOldestPaymentPerDuplicatedExternalId() {
+        // Given
+        flyway("11").migrate();
+        payment("TXN-A1", "partner-1");
+        payment("TXN-B", "partner-2");
+        payment("TXN-A2", "partner-1");
+        payment("TXN-A3", "partner-1");
+        payment("TXN-C", null);
+        Long original = jdbcTemplate.queryForObject(
+                "SELECT id FROM payments WHERE transaction_id = 'TXN-A1'", Long.class);
+
+        // When
+        flyway("latest").migrate();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT transaction_id FROM payments WHERE external_id = 'partner-1'", String.class))
+                .containsExactly("TXN-A1");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT transaction_id FROM payments WHERE external_id = 'partner-2'", String.class))
+                .containsExactly("TXN-B");
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(
+                "SELECT d.external_id, d.original_payment_id, p.transaction_id FROM payments_external_id_duplicates d " +
+                        "JOIN payments p ON p.id = d.payment_id ORDER BY p.transaction_id");
+        assertThat(duplicates).extracting(row -> row.get("transaction_id")).containsExactly("TXN-A2", "TXN-A3");
+        assertThat(duplicates).allSatisfy(row -> {
+            assertThat(row.get("external_id")).isEqualTo("partner-1");
+            assertThat(((Number) row.get("original_payment_id")).longValue()).isEqualTo(original);
+        });
+        assertThatThrownBy(() -> payment("TXN-D", "partner-2")).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .target(target)
+                // V2 usa UNIX_TIMESTAMP() * 1000, que estoura INT no H2
+                .initSql("CREATE ALIAS IF NOT EXISTS UNIX_TIMESTAMP AS " +
+                        "'long unixTimestamp() { return System.currentTimeMillis() / 1000; }'")
+                .load();
+    }
+
+    private void payment(String transactionId, String externalId) {
+        jdbcTemplate.update("INSERT INTO payments (from_account_id, to_account_id, amount, payment_type, status, " +
+                "transaction_id, external_id) VALUES (1, 2, 10.00, 'PIX', 'COMPLETED', ?, ?)", transactionId, externalId);
+    }
+}
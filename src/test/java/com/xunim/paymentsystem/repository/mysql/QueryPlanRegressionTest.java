@@ -0,0 +1,335 @@
+package com.xunim.paymentsystem.repository.mysql;
+
+import com.xunim.paymentsystem.enums.AccountStatus;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Executa cada consulta de {@link PaymentRepository}, {@link AccountRepository} e {@link UserRepository}
+ * sobre uma base semeada com o schema das migrations Flyway e confere o EXPLAIN de cada comando SQL
+ * emitido: nenhum pode ler uma tabela inteira. O planner é o do H2 (modo MySQL), que escolhe o índice
+ * por regras e seletividade; ele acusa índice ausente ou predicado que não usa índice, não as
+ * escolhas de custo do MySQL.
+ * <p>
+ * Consulta nova no repositório sem caso aqui também quebra o build.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;BUILTIN_ALIAS_OVERRIDE=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=true",
+        // V2 usa UNIX_TIMESTAMP() * 1000, que estoura INT no H2; countByMinuteAndStatusSince usa DATE_FORMAT,
+        // que o H2 não tem (o formato não importa para o plano)
+        "spring.flyway.init-sqls[0]=CREATE ALIAS IF NOT EXISTS UNIX_TIMESTAMP AS 'long unixTimestamp() { return System.currentTimeMillis() / 1000; }';",
+        "spring.flyway.init-sqls[1]=CREATE ALIAS IF NOT EXISTS DATE_FORMAT AS 'String dateFormat(java.sql.Timestamp value, String pattern) { return String.valueOf(value); }';",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Query Plan Regression Tests")
+class QueryPlanRegressionTest {
+
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* public\\.\\w+\\.tableScan");
+
+    // Leituras completas aceitas, com o motivo
+    private static final Map<String, String> KNOWN_SCANS = Map.of(
+            "UserRepository.findByNameContaining",
+            "LIKE com curinga à esquerda não usa índice B-tree",
+            "PaymentRepository.findResponsesByAccountId",
+            "OR entre origem e destino: o MySQL combina os índices das duas FKs (index_merge), o H2 não; " +
+                    "o histórico por cursor e /recent não usam OR"
+    );
+
+    // Consultas para as quais um índice composto foi desenhado (V11): o plano tem de usá-lo
+    private static final Map<String, String> EXPECTED_INDEXES = Map.of(
+            "PaymentRepository.countByStatusSince", "idx_payments_status_created",
+            "PaymentRepository.countByStatusBetween", "idx_payments_status_created",
+            "PaymentRepository.getTotalAmountByType", "idx_payments_status_type_amount",
+            "PaymentRepository.sumCompletedAmountByType", "idx_payments_status_type_amount",
+            "PaymentRepository.countByMinuteAndStatusSince", "idx_payments_created_status",
+            "PaymentRepository.findRecentByAccountId", "idx_payments_from_account_created",
+            "AccountRepository.findStripedAccounts", "idx_accounts_balance_stripes",
+            "AccountRepository.getTotalActiveBalance", "idx_accounts_status_balance"
+    );
+
+    private static final int USERS = 200;
+    private static final int ACCOUNTS = 400;
+    private static final int PAYMENTS = 4_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlRecorder sqlRecorder;
+
+    private long userId;
+    private long accountId;
+    private long paymentId;
+
+    @BeforeEach
+    void setUp() {
+        seed();
+        userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE email LIKE 'plan%'", Long.class);
+        accountId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM accounts WHERE user_id = ?", Long.class, userId);
+        paymentId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM payments", Long.class);
+    }
+
+    @Test
+    @DisplayName("Nenhuma consulta dos repositórios deve ler a tabela inteira")
+    void repositoryQueriesShouldUseIndexes() {
+        List<String> violations = new ArrayList<>();
+
+        cases().forEach((name, call) -> {
+            List<String> statements = capture(call);
+            assertThat(statements).as("SQL emitido por %s", name).isNotEmpty();
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (FULL_SCAN.matcher(plan).find() && !KNOWN_SCANS.containsKey(name)) {
+                    violations.add(name + ":\n" + plan);
+                }
+                String index = EXPECTED_INDEXES.get(name);
+                if (index != null && !plan.contains("public." + index)) {
+                    violations.add(name + " sem " + index + ":\n" + plan);
+                }
+            }
+        });
+
+        assertThat(violations).as("consultas com leitura completa de tabela").isEmpty();
+    }
+
+    @Test
+    @DisplayName("Toda consulta declarada nos repositórios deve ter caso no teste de plano")
+    void everyRepositoryQueryShouldBeCovered() {
+        Set<String> declared = Stream.of(PaymentRepository.class, AccountRepository.class, UserRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isDefault() && !method.isSynthetic())
+                        .map(Method::getName)
+                        .map(method -> repository.getSimpleName() + "." + method))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertThat(cases().keySet()).containsExactlyInAnyOrderElementsOf(declared);
+    }
+
+    private Map<String, Runnable> cases() {
+        LocalDateTime since = NOW.minusDays(7);
+        Map<String, Runnable> cases = new LinkedHashMap<>();
+
+        cases.put("PaymentRepository.findByTransactionId", () -> paymentRepository.findByTransactionId("PLAN-TXN-10"));
+        cases.put("PaymentRepository.findResponseById", () -> paymentRepository.findResponseById(paymentId));
+        cases.put("PaymentRepository.findResponseByTransactionId",
+                () -> paymentRepository.findResponseByTransactionId("PLAN-TXN-10"));
+        cases.put("PaymentRepository.findFirstByExternalIdOrderByIdAsc",
+                () -> paymentRepository.findFirstByExternalIdOrderByIdAsc("EXT-10"));
+        cases.put("PaymentRepository.findByExternalIdIn",
+                () -> paymentRepository.findByExternalIdIn(List.of("EXT-10", "EXT-20", "EXT-30")));
+        cases.put("PaymentRepository.findToAccountIdById", () -> paymentRepository.findToAccountIdById(paymentId));
+        cases.put("PaymentRepository.markProcessing", () -> paymentRepository.markProcessing(paymentId));
+        cases.put("PaymentRepository.findByStatus", () -> paymentRepository.findByStatus(PaymentStatus.PROCESSING));
+        cases.put("PaymentRepository.findResponsesByStatus",
+                () -> paymentRepository.findResponsesByStatus(PaymentStatus.PROCESSING));
+        cases.put("PaymentRepository.findByPaymentType", () -> paymentRepository.findByPaymentType(PaymentType.BOLETO));
+        cases.put("PaymentRepository.findRecentByAccountId", () -> paymentRepository.findRecentByAccountId(accountId, 20));
+        cases.put("PaymentRepository.findResponsesByAccountId",
+                () -> paymentRepository.findResponsesByAccountId(accountId, PageRequest.of(1, 2)));
+        cases.put("PaymentRepository.findLatestSent", () -> paymentRepository.findLatestSent(accountId, PageRequest.of(0, 20)));
+        cases.put("PaymentRepository.findLatestReceived",
+                () -> paymentRepository.findLatestReceived(accountId, PageRequest.of(0, 20)));
+        cases.put("PaymentRepository.findSentBefore",
+                () -> paymentRepository.findSentBefore(accountId, since, paymentId, PageRequest.of(0, 20)));
+        cases.put("PaymentRepository.findReceivedBefore",
+                () -> paymentRepository.findReceivedBefore(accountId, since, paymentId, PageRequest.of(0, 20)));
+        cases.put("PaymentRepository.findResponsesByDateRange",
+                () -> paymentRepository.findResponsesByDateRange(since, NOW.minusDays(6)));
+        cases.put("PaymentRepository.streamByDateRange", () -> {
+            // Fetch size Integer.MIN_VALUE é convenção do Connector/J e o H2 o recusa; o SQL já foi capturado
+            try (Stream<?> payments = paymentRepository.streamByDateRange(since, NOW.minusDays(6))) {
+                payments.forEach(payment -> { });
+            } catch (DataAccessException e) {
+                assertThat(e).hasMessageContaining("rows");
+            }
+        });
+        cases.put("PaymentRepository.getTotalAmountByType", () -> paymentRepository.getTotalAmountByType(PaymentType.PIX));
+        cases.put("PaymentRepository.countByStatusSince",
+                () -> paymentRepository.countByStatusSince(PaymentStatus.FAILED, since));
+        cases.put("PaymentRepository.countByStatusBetween",
+                () -> paymentRepository.countByStatusBetween(PaymentStatus.FAILED, since, NOW));
+        cases.put("PaymentRepository.sumCompletedAmountByType", () -> paymentRepository.sumCompletedAmountByType());
+        cases.put("PaymentRepository.countByMinuteAndStatusSince",
+                () -> paymentRepository.countByMinuteAndStatusSince(NOW.minusHours(1)));
+
+        cases.put("AccountRepository.findByAccountNumber", () -> accountRepository.findByAccountNumber("PLAN-10"));
+        cases.put("AccountRepository.findByUserIdAndStatus",
+                () -> accountRepository.findByUserIdAndStatus(userId, AccountStatus.ACTIVE));
+        cases.put("AccountRepository.findByUserId", () -> accountRepository.findByUserId(userId));
+        cases.put("AccountRepository.findByStatus", () -> accountRepository.findByStatus(AccountStatus.CLOSED));
+        cases.put("AccountRepository.findResponsesByUserId", () -> accountRepository.findResponsesByUserId(userId));
+        cases.put("AccountRepository.findResponsesByUserIdIn",
+                () -> accountRepository.findResponsesByUserIdIn(List.of(userId, userId + 1)));
+        cases.put("AccountRepository.findResponsesByStatus",
+                () -> accountRepository.findResponsesByStatus(AccountStatus.CLOSED));
+        cases.put("AccountRepository.findAccountsWithMinimumBalance",
+                () -> accountRepository.findAccountsWithMinimumBalance(new BigDecimal("990000.00")));
+        cases.put("AccountRepository.addToBalance", () -> accountRepository.addToBalance(accountId, BigDecimal.ONE));
+        cases.put("AccountRepository.subtractFromBalance",
+                () -> accountRepository.subtractFromBalance(accountId, BigDecimal.ONE));
+        cases.put("AccountRepository.lockBalancesOrderedById",
+                () -> accountRepository.lockBalancesOrderedById(List.of(accountId, accountId + 1)));
+        cases.put("AccountRepository.transferBalance",
+                () -> accountRepository.transferBalance(accountId, accountId + 1, BigDecimal.ONE));
+        cases.put("AccountRepository.findStripedAccounts", () -> accountRepository.findStripedAccounts());
+        cases.put("AccountRepository.getTotalActiveBalance", () -> accountRepository.getTotalActiveBalance());
+
+        cases.put("UserRepository.findByEmail", () -> userRepository.findByEmail("plan10@email.com"));
+        cases.put("UserRepository.findByDocument", () -> userRepository.findByDocument("90000000010"));
+        cases.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail("plan10@email.com"));
+        cases.put("UserRepository.existsByDocument", () -> userRepository.existsByDocument("90000000010"));
+        cases.put("UserRepository.findByIsActiveTrue", () -> userRepository.findByIsActiveTrue());
+        cases.put("UserRepository.findByNameContaining", () -> userRepository.findByNameContaining("Plano 1"));
+        cases.put("UserRepository.findByIdWithAccounts", () -> userRepository.findByIdWithAccounts(userId));
+
+        return cases;
+    }
+
+    private List<String> capture(Runnable call) {
+        entityManager.flush();
+        entityManager.clear();
+        sqlRecorder.statements.clear();
+
+        call.run();
+
+        return List.copyOf(sqlRecorder.statements);
+    }
+
+    private String explain(String sql) {
+        // O H2 monta o plano sem os parâmetros vinculados
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    private void seed() {
+        // ANALYZE confirma a transação no H2, então a base semeada sobrevive ao rollback do teste
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE 'plan%'", Integer.class) > 0) {
+            return;
+        }
+
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            // Poucos inativos: o índice de is_active fica seletivo só para o lado minoritário
+            users.add(new Object[]{"plan" + u + "@email.com", String.format("9%010d", u), "Plano " + u, u % 10 != 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, document, full_name, is_active) VALUES (?, ?, ?, ?)", users);
+
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE 'plan%' ORDER BY id", Long.class);
+        List<Object[]> accounts = new ArrayList<>();
+        for (int a = 0; a < ACCOUNTS; a++) {
+            String status = a % 20 == 0 ? "CLOSED" : a % 10 == 0 ? "BLOCKED" : "ACTIVE";
+            accounts.add(new Object[]{userIds.get(a % USERS), "PLAN-" + a, new BigDecimal(1_000 + a), status,
+                    a % 50 == 0 ? 4 : 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (user_id, account_number, balance, status, balance_stripes) " +
+                "VALUES (?, ?, ?, ?, ?)", accounts);
+
+        List<Long> accountIds = jdbcTemplate.queryForList(
+                "SELECT id FROM accounts WHERE account_number LIKE 'PLAN-%' ORDER BY id", Long.class);
+        PaymentStatus[] statuses = PaymentStatus.values();
+        PaymentType[] types = PaymentType.values();
+        List<Object[]> payments = new ArrayList<>();
+        for (int p = 0; p < PAYMENTS; p++) {
+            Long from = p % 7 == 0 ? null : accountIds.get(p % ACCOUNTS);
+            Long to = accountIds.get((p * 31 + 1) % ACCOUNTS);
+            if (to.equals(from)) {
+                to = accountIds.get((p * 31 + 2) % ACCOUNTS);
+            }
+            payments.add(new Object[]{from, to, new BigDecimal(10 + p % 500), types[p % types.length].name(),
+                    statuses[p % statuses.length].name(), p % 3 == 0 ? "EXT-" + p : null, "PLAN-TXN-" + p,
+                    Timestamp.valueOf(NOW.minusMinutes(p * 11L))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO payments (from_account_id, to_account_id, amount, payment_type, status, " +
+                "external_id, transaction_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", payments);
+
+        // Estatísticas de seletividade para o planner
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        SqlRecorder sqlRecorder() {
+            return new SqlRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorderCustomizer(SqlRecorder sqlRecorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlRecorder);
+        }
+    }
+
+    static class SqlRecorder implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
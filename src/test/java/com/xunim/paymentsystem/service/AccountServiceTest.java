@@ -10,6 +10,8 @@ import com.xunim.paymentsystem.exception.ResourceNotFoundException;
 import com.xunim.paymentsystem.repository.mysql.AccountRepository;
 import com.xunim.paymentsystem.repository.mysql.UserRepository;
 import com.xunim.paymentsystem.service.impl.AccountServiceImpl;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.ledger.StripedBalanceService;
 import com.xunim.paymentsystem.util.AccountNumberGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +23,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -43,6 +47,12 @@ class AccountServiceTest {
     @Mock
     private AccountNumberGenerator accountNumberGenerator;
 
+    @Mock
+    private StripedBalanceService stripedBalanceService;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -81,7 +91,6 @@ class AccountServiceTest {
         // Given
         when(userRepository.findById(1L)).thenReturn(Optional.of(validUser));
         when(accountNumberGenerator.generateAccountNumber()).thenReturn("001-123456-7");
-        when(accountRepository.findByAccountNumber(anyString())).thenReturn(Optional.empty());
         when(accountRepository.save(any(Account.class))).thenReturn(validAccount);
 
         // When
@@ -96,6 +105,7 @@ class AccountServiceTest {
         assertThat(response.getStatus()).isEqualTo(AccountStatus.ACTIVE);
 
         verify(accountRepository).save(any(Account.class));
+        verify(accountRepository, never()).findByAccountNumber(anyString());
         verify(auditService).logAction(eq("ACCOUNT"), eq("1"), eq("CREATE"), anyString());
     }
 
@@ -168,4 +178,45 @@ class AccountServiceTest {
 
         verify(accountRepository, never()).save(any(Account.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve ler o saldo da conta do diário, não da projeção")
+    void shouldReadAccountBalanceFromJournal() {
+        // Given
+        Account projected = Account.builder()
+                .id(1L)
+                .user(validUser)
+                .accountNumber("001-123456-7")
+                .balance(new BigDecimal("25.00"))
+                .status(AccountStatus.ACTIVE)
+                .build();
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(projected));
+        when(ledgerJournal.balanceOf(1L)).thenReturn(new BigDecimal("10.00"));
+
+        // When
+        AccountResponseDTO response = accountService.getAccountById(1L);
+
+        // Then
+        assertThat(response.getBalance()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    @DisplayName("Deve ler os saldos da listagem do diário em uma consulta")
+    void shouldReadListingBalancesFromJournalInOneCall() {
+        // Given
+        List<AccountResponseDTO> projected = List.of(
+                AccountResponseDTO.builder().id(1L).userId(1L).balance(new BigDecimal("25.00")).build(),
+                AccountResponseDTO.builder().id(2L).userId(1L).balance(new BigDecimal("5.00")).build());
+        when(accountRepository.findResponsesByUserId(1L)).thenReturn(projected);
+        when(ledgerJournal.balancesOf(List.of(1L, 2L)))
+                .thenReturn(Map.of(1L, new BigDecimal("10.00"), 2L, BigDecimal.ZERO));
+
+        // When
+        List<AccountResponseDTO> accounts = accountService.getAccountsByUserId(1L);
+
+        // Then
+        assertThat(accounts).extracting(AccountResponseDTO::getBalance)
+                .containsExactly(new BigDecimal("10.00"), BigDecimal.ZERO);
+        verify(ledgerJournal, never()).balanceOf(any());
+    }
+}
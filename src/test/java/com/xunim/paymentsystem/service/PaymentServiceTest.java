@@ -0,0 +1,323 @@
+package com.xunim.paymentsystem.service;
+
+import com.xunim.paymentsystem.dto.request.CreatePaymentRequestDTO;
+import com.xunim.paymentsystem.dto.response.PaymentBatchResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentHistoryResponseDTO;
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.AccountStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.messaging.PaymentCreatedEvent;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import com.xunim.paymentsystem.service.idempotency.PaymentIdempotencyStore;
+import com.xunim.paymentsystem.service.impl.PaymentServiceImpl;
+import com.xunim.paymentsystem.service.ledger.LedgerEngine;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.stats.PaymentStatistics;
+import com.xunim.paymentsystem.service.transfer.HotAccountCreditCoalescer;
+import com.xunim.paymentsystem.service.transfer.TransferExecutor;
+import com.xunim.paymentsystem.util.TransactionIdGenerator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentService Tests")
+class PaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PaymentIdempotencyStore idempotencyStore;
+
+    @Mock
+    private TransferExecutor transferExecutor;
+
+    @Mock
+    private HotAccountCreditCoalescer creditCoalescer;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    @Mock
+    private PaymentStatistics paymentStatistics;
+
+    private PaymentServiceImpl paymentService;
+
+    private Account sourceAccount;
+    private Account targetAccount;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = new PaymentServiceImpl(paymentRepository, accountRepository, ledgerEngine, auditService,
+                Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher,
+                idempotencyStore, transferExecutor, creditCoalescer, new TransactionIdGenerator(1), ledgerJournal,
+                paymentStatistics);
+
+        sourceAccount = Account.builder()
+                .id(1L)
+                .accountNumber("001-123456-7")
+                .balance(new BigDecimal("100.00"))
+                .status(AccountStatus.ACTIVE)
+                .build();
+
+        targetAccount = Account.builder()
+                .id(2L)
+                .accountNumber("001-789012-3")
+                .balance(BigDecimal.ZERO)
+                .status(AccountStatus.ACTIVE)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve criar lote reportando falhas por item")
+    void shouldCreateBatchReportingFailuresPerItem() {
+        // Given
+        AtomicLong ids = new AtomicLong();
+        when(transferExecutor.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(sourceAccount, targetAccount));
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(ids.incrementAndGet()));
+            return payments;
+        });
+
+        List<CreatePaymentRequestDTO> requests = List.of(
+                transfer(1L, 2L, "60.00"),
+                transfer(1L, 2L, "60.00"),
+                transfer(1L, 99L, "10.00"),
+                transfer(1L, 2L, null));
+
+        // When
+        PaymentBatchResponseDTO response = paymentService.createPayments(requests);
+
+        // Then
+        assertThat(response.getTotal()).isEqualTo(4);
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getResults().get(0).getSuccess()).isTrue();
+        assertThat(response.getResults().get(0).getPayment().getId()).isEqualTo(1L);
+        assertThat(response.getResults().get(1).getError()).contains("Saldo insuficiente");
+        assertThat(response.getResults().get(2).getError()).contains("Conta destino não encontrada");
+        assertThat(response.getResults().get(3).getError()).contains("Valor é obrigatório");
+
+        verify(accountRepository).findAllById(anyCollection());
+        verify(accountRepository, never()).findById(any());
+        verify(auditService).logAction(eq("PAYMENT"), eq("BATCH"), eq("CREATE"), anyMap());
+        verify(eventPublisher).publishEvent(any(PaymentCreatedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Deve refazer o lote devolvendo o original quando inserção concorrente viola a chave de idempotência")
+    void shouldReplayConcurrentPaymentWhenBatchHitsUniqueExternalId() {
+        // Given
+        CreatePaymentRequestDTO concurrent = transfer(1L, 2L, "10.00");
+        concurrent.setExternalId("partner-1");
+        CreatePaymentRequestDTO fresh = transfer(1L, 2L, "20.00");
+        fresh.setExternalId("partner-2");
+        Payment original = Payment.builder()
+                .id(10L)
+                .fromAccount(sourceAccount)
+                .toAccount(targetAccount)
+                .amount(new BigDecimal("10.00"))
+                .paymentType(PaymentType.TRANSFER)
+                .externalId("partner-1")
+                .transactionId("TXN-ORIGINAL")
+                .build();
+
+        when(transferExecutor.execute(any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'partner-1' for key 'uk_payments_external_id'"))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(paymentRepository.findByExternalIdIn(Set.of("partner-1", "partner-2"))).thenReturn(List.of(original));
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(sourceAccount, targetAccount));
+        List<Payment> saved = new ArrayList<>();
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(11L));
+            saved.addAll(payments);
+            return payments;
+        });
+
+        // When
+        PaymentBatchResponseDTO response = paymentService.createPayments(List.of(concurrent, fresh));
+
+        // Then
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getResults().get(0).getPayment().getTransactionId()).isEqualTo("TXN-ORIGINAL");
+        assertThat(response.getResults().get(1).getPayment().getId()).isEqualTo(11L);
+        assertThat(saved).extracting(Payment::getExternalId).containsExactly("partner-2");
+    }
+
+    @Test
+    @DisplayName("Deve propagar violação de integridade do lote sem pagamento concorrente")
+    void shouldPropagateBatchIntegrityViolationWithoutConcurrentPayment() {
+        // Given
+        CreatePaymentRequestDTO request = transfer(1L, 2L, "10.00");
+        request.setExternalId("partner-1");
+        when(transferExecutor.execute(any())).thenThrow(new DataIntegrityViolationException("violação"));
+        when(paymentRepository.findByExternalIdIn(Set.of("partner-1"))).thenReturn(List.of());
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.createPayments(List.of(request)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(transferExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar pagamento original para chave de idempotência repetida")
+    void shouldReturnOriginalPaymentForRepeatedExternalId() {
+        // Given
+        PaymentResponseDTO original = PaymentResponseDTO.builder()
+                .id(10L)
+                .externalId("partner-123")
+                .transactionId("TXN-ORIGINAL")
+                .build();
+        CreatePaymentRequestDTO request = transfer(1L, 2L, "60.00");
+        request.setExternalId("partner-123");
+
+        when(idempotencyStore.isEnabled()).thenReturn(true);
+        when(idempotencyStore.find("partner-123")).thenReturn(Optional.of(original));
+
+        // When
+        PaymentResponseDTO response = paymentService.createPayment(request);
+
+        // Then
+        assertThat(response).isSameAs(original);
+        verifyNoInteractions(accountRepository, paymentRepository, auditService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Deve retornar pagamento original quando inserção concorrente viola a chave de idempotência")
+    void shouldReturnOriginalPaymentWhenConcurrentInsertHitsUniqueExternalId() {
+        // Given
+        CreatePaymentRequestDTO request = transfer(1L, 2L, "60.00");
+        request.setExternalId("partner-123");
+        Payment original = Payment.builder()
+                .id(10L)
+                .fromAccount(sourceAccount)
+                .toAccount(targetAccount)
+                .amount(new BigDecimal("60.00"))
+                .paymentType(PaymentType.TRANSFER)
+                .externalId("partner-123")
+                .transactionId("TXN-ORIGINAL")
+                .build();
+
+        when(idempotencyStore.isEnabled()).thenReturn(true);
+        when(idempotencyStore.find("partner-123")).thenReturn(Optional.empty());
+        when(paymentRepository.findFirstByExternalIdOrderByIdAsc("partner-123"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(original));
+        when(transferExecutor.execute(any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'partner-123' for key 'uk_payments_external_id'"));
+
+        // When
+        PaymentResponseDTO response = paymentService.createPayment(request);
+
+        // Then
+        assertThat(response.getId()).isEqualTo(10L);
+        assertThat(response.getTransactionId()).isEqualTo("TXN-ORIGINAL");
+        verify(idempotencyStore).put(eq("partner-123"), any(PaymentResponseDTO.class));
+    }
+
+    @Test
+    @DisplayName("Deve propagar violação de integridade de pagamento sem chave de idempotência")
+    void shouldPropagateIntegrityViolationWithoutExternalId() {
+        // Given
+        CreatePaymentRequestDTO request = transfer(1L, 2L, "60.00");
+        when(transferExecutor.execute(any())).thenThrow(new DataIntegrityViolationException("violação"));
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.createPayment(request))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    @DisplayName("Deve intercalar enviados e recebidos no histórico e continuar pelo cursor")
+    void shouldMergeHistoryAndContinueFromCursor() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 12, 0);
+        PaymentResponseDTO sent1 = historyPayment(5L, 1L, 2L, base.plusMinutes(5));
+        PaymentResponseDTO sent2 = historyPayment(2L, 1L, 2L, base.plusMinutes(2));
+        PaymentResponseDTO received1 = historyPayment(4L, 2L, 1L, base.plusMinutes(4));
+        PaymentResponseDTO received2 = historyPayment(3L, 2L, 1L, base.plusMinutes(2));
+        when(paymentRepository.findLatestSent(eq(1L), any())).thenReturn(List.of(sent1, sent2));
+        when(paymentRepository.findLatestReceived(eq(1L), any())).thenReturn(List.of(received1, received2));
+
+        // When
+        PaymentHistoryResponseDTO first = paymentService.getPaymentHistory(1L, null, 3);
+
+        // Then
+        assertThat(first.getPayments()).extracting(PaymentResponseDTO::getId).containsExactly(5L, 4L, 3L);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        // Given
+        when(paymentRepository.findSentBefore(1L, base.plusMinutes(2), 3L, PageRequest.of(0, 4)))
+                .thenReturn(List.of(sent2));
+        when(paymentRepository.findReceivedBefore(1L, base.plusMinutes(2), 3L, PageRequest.of(0, 4)))
+                .thenReturn(List.of());
+
+        // When
+        PaymentHistoryResponseDTO second = paymentService.getPaymentHistory(1L, first.getNextCursor(), 3);
+
+        // Then
+        assertThat(second.getPayments()).extracting(PaymentResponseDTO::getId).containsExactly(2L);
+        assertThat(second.getNextCursor()).isNull();
+        verify(paymentRepository, never()).findResponsesByAccountId(any(), any());
+    }
+
+    private PaymentResponseDTO historyPayment(Long id, Long fromAccountId, Long toAccountId, LocalDateTime createdAt) {
+        return PaymentResponseDTO.builder()
+                .id(id)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal("10.00"))
+                .paymentType(PaymentType.TRANSFER)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private CreatePaymentRequestDTO transfer(Long fromAccountId, Long toAccountId, String amount) {
+        return CreatePaymentRequestDTO.builder()
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(amount != null ? new BigDecimal(amount) : null)
+                .paymentType(PaymentType.TRANSFER)
+                .build();
+    }
+}
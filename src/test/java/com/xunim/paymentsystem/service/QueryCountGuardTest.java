@@ -0,0 +1,185 @@
+package com.xunim.paymentsystem.service;
+
+import com.xunim.paymentsystem.dto.response.UserResponseDTO;
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.User;
+import com.xunim.paymentsystem.enums.AccountStatus;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import com.xunim.paymentsystem.repository.mysql.UserRepository;
+import com.xunim.paymentsystem.service.cache.LookupCache;
+import com.xunim.paymentsystem.service.impl.AccountServiceImpl;
+import com.xunim.paymentsystem.service.impl.UserServiceImpl;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.ledger.StripedBalanceService;
+import com.xunim.paymentsystem.util.AccountNumberGenerator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Limite de comandos SQL por chamada dos endpoints de usuário e conta, com os serviços reais
+ * sobre H2. Um N+1 (uma consulta por usuário ou por conta da página) estoura o limite.
+ * Os saldos vêm do diário pelo JdbcTemplate, cujos comandos entram na mesma conta.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("Query Count Guard Tests")
+class QueryCountGuardTest {
+
+    private static final int MAX_STATEMENTS = 4;
+    private static final int USERS = 20;
+    private static final int ACCOUNTS_PER_USER = 2;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("50.00");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final AtomicInteger journalStatements = new AtomicInteger();
+
+    private UserService userService;
+    private AccountService accountService;
+    private Statistics statistics;
+    private final List<User> users = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate journalJdbc = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> T execute(PreparedStatementCreator creator, PreparedStatementCallback<T> action) {
+                journalStatements.incrementAndGet();
+                return super.execute(creator, action);
+            }
+        };
+        createJournalTables(journalJdbc);
+        accountService = new AccountServiceImpl(accountRepository, userRepository, mock(AuditService.class),
+                mock(AccountNumberGenerator.class), mock(StripedBalanceService.class), new LedgerJournal(journalJdbc));
+        userService = new UserServiceImpl(userRepository, mock(AuditService.class), accountService,
+                new LookupCache(new ConcurrentMapCacheManager()));
+
+        for (int u = 0; u < USERS; u++) {
+            User user = User.builder()
+                    .email("usuario" + u + "@email.com")
+                    .document(String.format("%011d", u))
+                    .fullName("Usuário " + u)
+                    .isActive(true)
+                    .build();
+            entityManager.persist(user);
+            users.add(user);
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                Account account = Account.builder()
+                        .user(user)
+                        .accountNumber("001-" + (1000000 + u * ACCOUNTS_PER_USER + a))
+                        .build();
+                entityManager.persist(account);
+                accounts.add(account);
+            }
+        }
+        entityManager.flush();
+        accounts.forEach(account -> journalJdbc.update(
+                "INSERT INTO ledger_entries (account_id, entry_type, amount) VALUES (?, 'OPENING', ?)",
+                account.getId(), OPENING_BALANCE));
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Listagens de usuários devem carregar as contas em uma consulta")
+    void userListingsShouldStayWithinStatementLimit() {
+        Page<UserResponseDTO> page = guarded(() -> userService.getAllUsers(PageRequest.of(0, USERS)));
+        List<UserResponseDTO> active = guarded(() -> userService.getAllActiveUsers());
+
+        assertThat(page.getContent()).hasSize(USERS)
+                .allSatisfy(user -> assertThat(user.getAccounts()).hasSize(ACCOUNTS_PER_USER));
+        assertThat(active).hasSize(USERS)
+                .allSatisfy(user -> assertThat(user.getAccounts()).hasSize(ACCOUNTS_PER_USER));
+    }
+
+    @Test
+    @DisplayName("Consultas de um usuário devem respeitar o limite de comandos")
+    void singleUserLookupsShouldStayWithinStatementLimit() {
+        User user = users.get(0);
+
+        UserResponseDTO byId = guarded(() -> userService.getUserById(user.getId()));
+        UserResponseDTO byEmail = guarded(() -> userService.getUserByEmail(user.getEmail()));
+        UserResponseDTO byDocument = guarded(() -> userService.getUserByDocument(user.getDocument()));
+
+        assertThat(List.of(byId, byEmail, byDocument))
+                .allSatisfy(response -> assertThat(response.getAccounts()).hasSize(ACCOUNTS_PER_USER)
+                        .allSatisfy(account -> assertThat(account.getBalance()).isEqualByComparingTo(OPENING_BALANCE)));
+    }
+
+    @Test
+    @DisplayName("Consultas de contas devem respeitar o limite de comandos")
+    void accountLookupsShouldStayWithinStatementLimit() {
+        Account account = accounts.get(0);
+
+        assertThat(guarded(() -> accountService.getAccountById(account.getId())).getBalance())
+                .isEqualByComparingTo(OPENING_BALANCE);
+        guarded(() -> accountService.getAccountByNumber(account.getAccountNumber()));
+        assertThat(guarded(() -> accountService.getAccountsByUserId(account.getUser().getId())))
+                .hasSize(ACCOUNTS_PER_USER);
+        assertThat(guarded(() -> accountService.getAccountsByStatus(AccountStatus.ACTIVE)))
+                .hasSize(USERS * ACCOUNTS_PER_USER);
+    }
+
+    // Contexto de persistência vazio a cada chamada, como em uma requisição nova
+    private <T> T guarded(Supplier<T> call) {
+        entityManager.clear();
+        statistics.clear();
+        journalStatements.set(0);
+
+        T result = call.get();
+
+        assertThat(statistics.getPrepareStatementCount() + journalStatements.get())
+                .as("comandos SQL emitidos")
+                .isLessThanOrEqualTo(MAX_STATEMENTS);
+        return result;
+    }
+
+    // Sem Flyway neste teste: só as tabelas do diário, como na V7 (o DDL do H2 confirma a transação)
+    private static void createJournalTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS ledger_entries (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, account_id BIGINT NOT NULL, account_seq BIGINT NULL, " +
+                "payment_id BIGINT NULL, entry_type VARCHAR(10) NOT NULL, amount DECIMAL(15,2) NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6), " +
+                "UNIQUE (account_id, account_seq))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS ledger_checkpoints (" +
+                "account_id BIGINT NOT NULL, account_seq BIGINT NOT NULL, balance DECIMAL(15,2) NOT NULL, " +
+                "as_of TIMESTAMP(6) NOT NULL, created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6), " +
+                "PRIMARY KEY (account_id, account_seq))");
+    }
+}
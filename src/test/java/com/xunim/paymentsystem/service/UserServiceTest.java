@@ -1,11 +1,13 @@
 package com.xunim.paymentsystem.service;
 
 import com.xunim.paymentsystem.dto.request.CreateUserRequestDTO;
+import com.xunim.paymentsystem.dto.response.AccountResponseDTO;
 import com.xunim.paymentsystem.dto.response.UserResponseDTO;
 import com.xunim.paymentsystem.entity.User;
 import com.xunim.paymentsystem.exception.BusinessException;
 import com.xunim.paymentsystem.exception.ResourceNotFoundException;
 import com.xunim.paymentsystem.repository.mysql.UserRepository;
+import com.xunim.paymentsystem.service.cache.LookupCache;
 import com.xunim.paymentsystem.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,9 +15,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -32,6 +38,12 @@ class UserServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private AccountService accountService;
+
+    @Spy
+    private LookupCache lookupCache = new LookupCache(new ConcurrentMapCacheManager());
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -124,6 +136,25 @@ class UserServiceTest {
         assertThat(response.getEmail()).isEqualTo("test@email.com");
     }
 
+    @Test
+    @DisplayName("Deve ler as contas do banco mesmo com o usuário em cache")
+    void shouldReadAccountsFreshWhenUserIsCached() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(validUser));
+        when(accountService.getAccountsByUserId(1L))
+                .thenReturn(List.of(AccountResponseDTO.builder().id(10L).balance(new BigDecimal("10.00")).build()))
+                .thenReturn(List.of(AccountResponseDTO.builder().id(10L).balance(new BigDecimal("25.00")).build()));
+
+        // When
+        UserResponseDTO first = userService.getUserById(1L);
+        UserResponseDTO second = userService.getUserById(1L);
+
+        // Then
+        assertThat(first.getAccounts().get(0).getBalance()).isEqualByComparingTo("10.00");
+        assertThat(second.getAccounts().get(0).getBalance()).isEqualByComparingTo("25.00");
+        verify(userRepository, times(1)).findById(1L);
+    }
+
     @Test
     @DisplayName("Deve lançar exceção quando usuário não encontrado")
     void shouldThrowExceptionWhenUserNotFound() {
@@ -0,0 +1,135 @@
+package com.xunim.paymentsystem.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.xunim.paymentsystem.entity.AuditLog;
+import com.xunim.paymentsystem.repository.mongodb.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogWriter Tests")
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Deve gravar os logs em lotes com insertMany")
+    void shouldInsertInBatches() throws InterruptedException {
+        // Given
+        AuditLogWriter writer = writer(10, 3, "block");
+        writer.start();
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            writer.write(auditLog(i));
+        }
+        writer.stop();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AuditLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository, atLeastOnce()).insert(captor.capture());
+        assertThat(captor.getAllValues()).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(3));
+        assertThat(captor.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Deve desviar para arquivo com o MongoDB fora e reenviar quando ele voltar")
+    void shouldSpillAndReplayWhenMongoRecovers() throws Exception {
+        // Given
+        List<AuditLog> inserted = new ArrayList<>();
+        when(auditLogRepository.insert(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("mongo fora"));
+        AuditLogWriter writer = writer(10, 2, "block");
+        writer.start();
+
+        for (int i = 0; i < 4; i++) {
+            writer.write(auditLog(i));
+        }
+        writer.stop();
+
+        Path spillFile = tempDir.resolve("audit-spill.jsonl");
+        assertThat(Files.readAllLines(spillFile)).hasSize(4);
+
+        // When
+        doAnswer(invocation -> {
+            invocation.<List<AuditLog>>getArgument(0).forEach(inserted::add);
+            return null;
+        }).when(auditLogRepository).saveAll(anyList());
+        AuditLogWriter recovered = writer(10, 2, "block");
+        recovered.start();
+        for (int i = 0; i < 500 && Files.exists(spillFile); i++) {
+            Thread.sleep(10);
+        }
+        recovered.stop();
+
+        // Then
+        assertThat(inserted).hasSize(4);
+        assertThat(inserted.get(0).getDetails().get("amount")).isEqualTo(new BigDecimal("10.50"));
+        assertThat(inserted).extracting(AuditLog::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(spillFile).doesNotExist();
+        assertThat(tempDir.resolve("audit-spill.jsonl.replay")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Deve descartar logs com a fila cheia na política drop")
+    void shouldDropWhenFullWithDropPolicy() {
+        // Given
+        AuditLogWriter writer = writer(2, 10, "drop");
+
+        // When (sem iniciar o flush, a fila não esvazia)
+        boolean first = writer.write(auditLog(1));
+        boolean second = writer.write(auditLog(2));
+        boolean third = writer.write(auditLog(3));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(writer.queueDepth()).isEqualTo(2);
+    }
+
+    private AuditLogWriter writer(int capacity, int batchSize, String overflow) {
+        return new AuditLogWriter(auditLogRepository, objectMapper, new SimpleMeterRegistry(),
+                capacity, batchSize, 10, 60_000, overflow, tempDir.resolve("audit-spill.jsonl").toString());
+    }
+
+    private static AuditLog auditLog(int index) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("amount", new BigDecimal("10.50"));
+        return AuditLog.builder()
+                .entityType("PAYMENT")
+                .entityId(String.valueOf(index))
+                .action("CREATE")
+                .details(details)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
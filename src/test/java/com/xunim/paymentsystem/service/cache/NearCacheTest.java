@@ -0,0 +1,128 @@
+package com.xunim.paymentsystem.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NearCache Tests")
+class NearCacheTest {
+
+    private static final String CACHE = "users::id";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private NearCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = newManager();
+    }
+
+    @Test
+    @DisplayName("Deve guardar localmente o valor lido do Redis")
+    void shouldKeepRemoteValueLocally() {
+        // Given
+        Cache remote = spy(new ConcurrentMapCache(CACHE, false));
+        remote.put(1L, "usuario-1");
+        NearCache cache = nearCache(remote);
+
+        // When
+        Object first = cache.get(1L).get();
+        Object second = cache.get(1L).get();
+
+        // Then
+        assertThat(first).isEqualTo("usuario-1");
+        assertThat(second).isEqualTo("usuario-1");
+        verify(remote, times(1)).get(1L);
+    }
+
+    @Test
+    @DisplayName("Deve tratar falha do Redis como ausência no cache")
+    void shouldTreatRedisFailureAsMiss() {
+        // Given
+        Cache remote = mock(Cache.class);
+        when(remote.get(1L)).thenThrow(new IllegalStateException("Redis indisponível"));
+        NearCache cache = nearCache(remote);
+
+        // When
+        String value = cache.get(1L, () -> "carregado");
+
+        // Then
+        assertThat(value).isEqualTo("carregado");
+        assertThat(cache.get(1L).get()).isEqualTo("carregado");
+    }
+
+    @Test
+    @DisplayName("Deve remover nos dois níveis e avisar as demais instâncias")
+    void shouldEvictBothLevelsAndBroadcast() {
+        // Given
+        Cache remote = new ConcurrentMapCache(CACHE, false);
+        NearCache cache = nearCache(remote);
+        cache.put(1L, "usuario-1");
+
+        // When
+        cache.evict(1L);
+
+        // Then
+        assertThat(cache.get(1L)).isNull();
+        assertThat(remote.get(1L)).isNull();
+        verify(redisTemplate).convertAndSend(eq(NearCacheManager.INVALIDATION_CHANNEL), endsWith("|" + CACHE + "|1"));
+    }
+
+    @Test
+    @DisplayName("Deve descartar a cópia local ao receber remoção de outra instância")
+    void shouldEvictLocalCopyOnRemoteInvalidation() {
+        // Given
+        NearCacheManager otherNode = newManager();
+        Cache cache = cacheManager.getCache(CACHE);
+        Cache otherCache = otherNode.getCache(CACHE);
+        cache.put(1L, "usuario-1");
+        otherCache.put(1L, "usuario-1");
+
+        // When
+        otherCache.evict(1L);
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(NearCacheManager.INVALIDATION_CHANNEL), message.capture());
+        otherCache.put(1L, "usuario-1-nova");
+        DefaultMessage received = new DefaultMessage(NearCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                message.getValue().getBytes(StandardCharsets.UTF_8));
+        cacheManager.onMessage(received, null);
+        otherNode.onMessage(received, null);
+
+        // Then
+        assertThat(cache.get(1L)).isNull();
+        // A própria instância ignora a mensagem que publicou
+        assertThat(otherCache.get(1L).get()).isEqualTo("usuario-1-nova");
+    }
+
+    private NearCacheManager newManager() {
+        NearCacheManager manager = new NearCacheManager(Map.of(CACHE, Duration.ofMinutes(5)), null, redisTemplate,
+                new SimpleMeterRegistry(), 100, Duration.ofSeconds(30));
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private NearCache nearCache(Cache remote) {
+        return new NearCache(CACHE, Caffeine.newBuilder().maximumSize(100).build(), remote, cacheManager);
+    }
+}
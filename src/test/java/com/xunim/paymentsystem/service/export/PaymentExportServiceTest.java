@@ -0,0 +1,112 @@
+package com.xunim.paymentsystem.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.ExportFormat;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentExportService Tests")
+class PaymentExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 1, 31, 23, 59);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper;
+    private PaymentExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new PaymentExportService(paymentRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Deve escrever um JSON por linha e desanexar cada pagamento")
+    void shouldWriteNdjsonAndDetachEachPayment() throws Exception {
+        // Given
+        Payment first = payment(1L, null, "Depósito");
+        Payment second = payment(2L, 7L, "Aluguel");
+        when(paymentRepository.streamByDateRange(START, END)).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportByDateRange(START, END, ExportFormat.NDJSON, false, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode row = objectMapper.readTree(lines[1]);
+        assertThat(row.get("id").asLong()).isEqualTo(2L);
+        assertThat(row.get("fromAccountId").asLong()).isEqualTo(7L);
+        assertThat(row.get("description").asText()).isEqualTo("Aluguel");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    @DisplayName("Deve escrever CSV com cabeçalho e escapar campos, comprimindo com gzip")
+    void shouldWriteGzippedCsvWithEscaping() throws Exception {
+        // Given
+        when(paymentRepository.streamByDateRange(START, END))
+                .thenReturn(Stream.of(payment(1L, 7L, "Compra \"especial\", parcela 1")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.exportByDateRange(START, END, ExportFormat.CSV, true, out);
+
+        // Then
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+        assertThat(lines[0]).isEqualTo(PaymentExportService.CSV_HEADER);
+        assertThat(lines[1]).startsWith("1,7,2,10.00,PIX,COMPLETED,\"Compra \"\"especial\"\", parcela 1\",,TXN-1,");
+    }
+
+    private Payment payment(Long id, Long fromAccountId, String description) {
+        return Payment.builder()
+                .id(id)
+                .fromAccount(fromAccountId != null ? Account.builder().id(fromAccountId).build() : null)
+                .toAccount(Account.builder().id(2L).build())
+                .amount(new BigDecimal("10.00"))
+                .paymentType(PaymentType.PIX)
+                .status(PaymentStatus.COMPLETED)
+                .description(description)
+                .transactionId("TXN-" + id)
+                .createdAt(START.plusDays(id))
+                .build();
+    }
+}
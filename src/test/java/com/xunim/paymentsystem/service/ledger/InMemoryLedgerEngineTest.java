@@ -0,0 +1,174 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InMemoryLedgerEngine Tests")
+class InMemoryLedgerEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryLedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jdbcTemplate.queryForList(anyString(), eq(BigDecimal.class), any(Object[].class)))
+                .thenReturn(List.of(new BigDecimal("100.00")));
+
+        ledgerEngine = new InMemoryLedgerEngine(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), 4, 10_000, 60_000, 100);
+        ledgerEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ledgerEngine.stop();
+    }
+
+    @Test
+    @DisplayName("Deve debitar origem e creditar destino")
+    void shouldTransferBetweenAccounts() {
+        // When
+        boolean success = ledgerEngine.transfer(1L, 2L, new BigDecimal("40.00"));
+
+        // Then
+        assertThat(success).isTrue();
+        assertThat(ledgerEngine.getBalance(1L)).isEqualByComparingTo("60.00");
+        assertThat(ledgerEngine.getBalance(2L)).isEqualByComparingTo("140.00");
+    }
+
+    @Test
+    @DisplayName("Deve recusar transferência com saldo insuficiente")
+    void shouldRejectTransferWithInsufficientBalance() {
+        // When
+        boolean success = ledgerEngine.transfer(1L, 2L, new BigDecimal("100.01"));
+
+        // Then
+        assertThat(success).isFalse();
+        assertThat(ledgerEngine.getBalance(1L)).isEqualByComparingTo("100.00");
+        assertThat(ledgerEngine.getBalance(2L)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    @DisplayName("Deve preservar o saldo total sob transferências concorrentes")
+    void shouldPreserveTotalBalanceUnderConcurrentTransfers() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 2_000; i++) {
+            long from = 1 + (i % 4);
+            long to = 1 + ((i + 1) % 4);
+            executor.execute(() -> ledgerEngine.transfer(from, to, new BigDecimal("7.50")));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        BigDecimal total = BigDecimal.ZERO;
+        for (long accountId = 1; accountId <= 4; accountId++) {
+            BigDecimal balance = ledgerEngine.getBalance(accountId);
+            assertThat(balance).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+            total = total.add(balance);
+        }
+        assertThat(total).isEqualByComparingTo("400.00");
+    }
+
+    @Test
+    @DisplayName("Deve gravar as variações de saldo em lote no flush")
+    void shouldPersistBalanceDeltasInBatch() {
+        // Given
+        ledgerEngine.transfer(null, 3L, new BigDecimal("10.00"));
+
+        // When
+        ledgerEngine.flushAll();
+
+        // Then
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(eq("UPDATE accounts SET balance = balance + ? WHERE id = ?"),
+                argThat((List<Object[]> args) -> args.size() == 1
+                        && new BigDecimal("10.00").compareTo((BigDecimal) args.get(0)[0]) == 0
+                        && Long.valueOf(3L).equals(args.get(0)[1])));
+    }
+
+    @Test
+    @DisplayName("Deve creditar o destino só após o commit da transação")
+    void shouldCreditDestinationOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        boolean success = ledgerEngine.transfer(1L, 2L, new BigDecimal("40.00"));
+        BigDecimal destinationBeforeCommit = ledgerEngine.getBalance(2L);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then
+        assertThat(success).isTrue();
+        assertThat(destinationBeforeCommit).isEqualByComparingTo("100.00");
+        assertThat(ledgerEngine.getBalance(1L)).isEqualByComparingTo("60.00");
+        assertThat(ledgerEngine.getBalance(2L)).isEqualByComparingTo("140.00");
+    }
+
+    @Test
+    @DisplayName("Deve devolver o débito à origem quando a transação é desfeita")
+    void shouldRefundSourceWhenTransactionRollsBack() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        ledgerEngine.transfer(1L, 2L, new BigDecimal("40.00"));
+
+        // When
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        assertThat(ledgerEngine.getBalance(1L)).isEqualByComparingTo("100.00");
+        assertThat(ledgerEngine.getBalance(2L)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    @DisplayName("Não deve gravar variação de débito estornado")
+    void shouldNotPersistRefundedDebit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        ledgerEngine.transfer(1L, 2L, new BigDecimal("40.00"));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // When
+        ledgerEngine.flushAll();
+        ledgerEngine.getBalance(1L);
+
+        // Then
+        verify(jdbcTemplate, after(200).never()).batchUpdate(anyString(), anyList());
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
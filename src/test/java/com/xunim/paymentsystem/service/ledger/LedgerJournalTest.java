@@ -0,0 +1,177 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.dto.response.AccountStatementResponseDTO;
+import com.xunim.paymentsystem.dto.response.LedgerEntryResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LedgerJournal Tests")
+class LedgerJournalTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private LedgerJournal journal;
+    private LedgerSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:journal;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE ledger_entries (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, account_id BIGINT NOT NULL, account_seq BIGINT NULL, " +
+                "payment_id BIGINT NULL, entry_type VARCHAR(10) NOT NULL, amount DECIMAL(15,2) NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6), " +
+                "UNIQUE (account_id, account_seq))");
+        jdbcTemplate.execute("CREATE TABLE ledger_checkpoints (" +
+                "account_id BIGINT NOT NULL, account_seq BIGINT NOT NULL, balance DECIMAL(15,2) NOT NULL, " +
+                "as_of TIMESTAMP(6) NOT NULL, created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6), " +
+                "PRIMARY KEY (account_id, account_seq))");
+
+        journal = new LedgerJournal(jdbcTemplate);
+        sequencer = new LedgerSequencer(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), 1_000, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Deve gravar débito e crédito por pagamento, usando a conta externa em depósitos")
+    void shouldRecordBothSidesOfEachPosting() {
+        // When
+        journal.recordAll(List.of(
+                new LedgerJournal.Posting(10L, null, 1L, new BigDecimal("100.00")),
+                new LedgerJournal.Posting(11L, 1L, 2L, new BigDecimal("30.00"))));
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entries", Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(amount) FROM ledger_entries", BigDecimal.class))
+                .isEqualByComparingTo("0");
+        assertThat(journal.balanceOf(LedgerJournal.EXTERNAL_ACCOUNT_ID)).isEqualByComparingTo("-100.00");
+        assertThat(journal.balanceOf(1L)).isEqualByComparingTo("70.00");
+        assertThat(journal.balanceOf(2L)).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    @DisplayName("Deve sequenciar os lançamentos por conta e gravar checkpoints no intervalo")
+    void shouldSequenceEntriesAndWriteCheckpoints() {
+        // Given
+        for (long payment = 1; payment <= 5; payment++) {
+            journal.record(payment, null, 1L, new BigDecimal("10.00"));
+        }
+
+        // When
+        sequencer.sequencePending();
+
+        // Then
+        List<Long> seqs = jdbcTemplate.queryForList(
+                "SELECT account_seq FROM ledger_entries WHERE account_id = 1 ORDER BY id", Long.class);
+        assertThat(seqs).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_entries WHERE account_seq IS NULL", Integer.class)).isZero();
+
+        BigDecimal checkpoint = jdbcTemplate.queryForObject(
+                "SELECT balance FROM ledger_checkpoints WHERE account_id = 1 ORDER BY account_seq DESC LIMIT 1",
+                BigDecimal.class);
+        assertThat(checkpoint).isEqualByComparingTo("40.00");
+        assertThat(journal.balanceOf(1L)).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    @DisplayName("Deve paginar o extrato por sequência com o saldo após cada lançamento")
+    void shouldPageStatementWithRunningBalance() {
+        // Given
+        journal.record(1L, null, 1L, new BigDecimal("100.00"));
+        journal.record(2L, 1L, 2L, new BigDecimal("25.00"));
+        journal.record(3L, 1L, 2L, new BigDecimal("15.00"));
+        sequencer.sequencePending();
+
+        // When
+        AccountStatementResponseDTO first = journal.statement(1L, 0, 2);
+        AccountStatementResponseDTO second = journal.statement(1L, first.getNextAfterSeq(), 2);
+
+        // Then
+        assertThat(first.getEntries()).extracting(LedgerEntryResponseDTO::getBalanceAfter)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("100.00"), new BigDecimal("75.00"));
+        assertThat(first.getNextAfterSeq()).isEqualTo(2L);
+        assertThat(second.getEntries()).hasSize(1);
+        assertThat(second.getEntries().get(0).getBalanceAfter()).isEqualByComparingTo("60.00");
+        assertThat(second.getNextAfterSeq()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve calcular o saldo em um instante ignorando lançamentos posteriores")
+    void shouldComputeBalanceAtInstant() {
+        // Given
+        journal.record(1L, null, 1L, new BigDecimal("100.00"));
+        jdbcTemplate.update("UPDATE ledger_entries SET created_at = ?", LocalDateTime.now().minusHours(2));
+        journal.record(2L, 1L, 2L, new BigDecimal("40.00"));
+        sequencer.sequencePending();
+
+        // When
+        BigDecimal before = journal.balanceAt(1L, LocalDateTime.now().minusHours(1));
+        BigDecimal now = journal.balanceAt(1L, LocalDateTime.now().plusSeconds(1));
+
+        // Then
+        assertThat(before).isEqualByComparingTo("100.00");
+        assertThat(now).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    @DisplayName("Deve somar checkpoint e cauda de várias contas em um comando")
+    void shouldComputeBalancesOfSeveralAccounts() {
+        // Given: conta 1 com checkpoint e lançamentos sequenciados depois dele, conta 2 só com pendentes
+        for (long payment = 1; payment <= 3; payment++) {
+            journal.record(payment, null, 1L, new BigDecimal("10.00"));
+        }
+        sequencer.sequencePending();
+        journal.record(4L, 1L, 2L, new BigDecimal("5.00"));
+
+        // When
+        Map<Long, BigDecimal> balances = journal.balancesOf(List.of(1L, 2L, 3L));
+
+        // Then
+        assertThat(balances.get(1L)).isEqualByComparingTo("25.00");
+        assertThat(balances.get(2L)).isEqualByComparingTo("5.00");
+        assertThat(balances.get(3L)).isEqualByComparingTo("0");
+        assertThat(balances.get(1L)).isEqualByComparingTo(journal.balanceOf(1L));
+    }
+
+    @Test
+    @DisplayName("Deve exigir READ COMMITTED para o saldo do débito")
+    void shouldRequireReadCommittedForDebitBalance() {
+        // Given
+        journal.record(1L, null, 1L, new BigDecimal("10.00"));
+
+        // When & Then
+        assertThatThrownBy(() -> journal.balanceForDebit(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Débito pelo saldo do diário exige transação em READ COMMITTED");
+
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        try {
+            assertThat(journal.balanceForDebit(1L)).isEqualByComparingTo("10.00");
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(null);
+        }
+    }
+}
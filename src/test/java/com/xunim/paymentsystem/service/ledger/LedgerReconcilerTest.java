@@ -0,0 +1,127 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LedgerReconciler Tests")
+class LedgerReconcilerTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:ledger_reconciler;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate.execute("CREATE TABLE accounts (id BIGINT PRIMARY KEY, balance DECIMAL(15,2) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE account_balance_stripes (account_id BIGINT NOT NULL, stripe_index INT NOT NULL, " +
+                "balance DECIMAL(15,2) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE ledger_entries (id BIGINT AUTO_INCREMENT PRIMARY KEY, account_id BIGINT NOT NULL, " +
+                "account_seq BIGINT NULL, payment_id BIGINT NULL, entry_type VARCHAR(10) NOT NULL, amount DECIMAL(15,2) NOT NULL, " +
+                "created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE TABLE ledger_checkpoints (account_id BIGINT NOT NULL, account_seq BIGINT NOT NULL, " +
+                "balance DECIMAL(15,2) NOT NULL, as_of TIMESTAMP(6) NOT NULL, PRIMARY KEY (account_id, account_seq))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Não deve acusar divergência quando conta, faixas e diário batem")
+    void shouldAcceptMatchingBalances() {
+        // Given
+        account(1L, "70.00");
+        stripe(1L, "30.00");
+        checkpoint(1L, 1L, "60.00");
+        entry(1L, 2L, "40.00");
+        account(2L, "15.00");
+        entry(2L, null, "15.00");
+
+        // When
+        int divergent = reconciler(10).reconcileBatch();
+
+        // Then
+        assertThat(divergent).isZero();
+        assertThat(meterRegistry.counter("xunimpay.journal.reconciled").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve acusar a conta cujo saldo diverge do diário")
+    void shouldReportDivergentAccount() {
+        // Given
+        account(1L, "50.00");
+        entry(1L, null, "50.00");
+        account(2L, "80.00");
+        entry(2L, null, "75.00");
+
+        // When
+        int divergent = reconciler(10).reconcileBatch();
+
+        // Then
+        assertThat(divergent).isEqualTo(1);
+        assertThat(meterRegistry.counter("xunimpay.journal.reconcile.mismatches").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve conferir em lotes e recomeçar depois da última conta")
+    void shouldResumeFromCursorAndWrapAround() {
+        // Given
+        for (long id = 1; id <= 3; id++) {
+            account(id, "10.00");
+        }
+        entry(1L, null, "10.00");
+        entry(2L, null, "10.00");
+        LedgerReconciler reconciler = reconciler(2);
+
+        // When
+        int first = reconciler.reconcileBatch();
+        int second = reconciler.reconcileBatch();
+        int third = reconciler.reconcileBatch();
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isEqualTo(1);
+        assertThat(third).isZero();
+        assertThat(meterRegistry.counter("xunimpay.journal.reconciled").count()).isEqualTo(5);
+    }
+
+    private LedgerReconciler reconciler(int batchSize) {
+        return new LedgerReconciler(jdbcTemplate, new LedgerJournal(jdbcTemplate), new DataSourceTransactionManager(dataSource),
+                meterRegistry, "sql", 60_000, batchSize);
+    }
+
+    private void account(Long id, String balance) {
+        jdbcTemplate.update("INSERT INTO accounts (id, balance) VALUES (?, ?)", id, new BigDecimal(balance));
+    }
+
+    private void stripe(Long accountId, String balance) {
+        jdbcTemplate.update("INSERT INTO account_balance_stripes (account_id, stripe_index, balance) VALUES (?, 0, ?)",
+                accountId, new BigDecimal(balance));
+    }
+
+    private void checkpoint(Long accountId, Long seq, String balance) {
+        jdbcTemplate.update("INSERT INTO ledger_entries (account_id, account_seq, entry_type, amount) VALUES (?, ?, 'OPENING', ?)",
+                accountId, seq, new BigDecimal(balance));
+        jdbcTemplate.update("INSERT INTO ledger_checkpoints (account_id, account_seq, balance, as_of) " +
+                "VALUES (?, ?, ?, CURRENT_TIMESTAMP(6))", accountId, seq, new BigDecimal(balance));
+    }
+
+    private void entry(Long accountId, Long seq, String amount) {
+        jdbcTemplate.update("INSERT INTO ledger_entries (account_id, account_seq, entry_type, amount) VALUES (?, ?, 'CREDIT', ?)",
+                accountId, seq, new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,101 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import com.xunim.paymentsystem.service.AccountService;
+import com.xunim.paymentsystem.service.transfer.TransferContentionMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SqlLedgerEngine Tests")
+class SqlLedgerEngineTest {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransferContentionMonitor contentionMonitor;
+
+    @Mock
+    private StripedBalanceService stripedBalances;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    private SqlLedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEngine = new SqlLedgerEngine(accountService, accountRepository, contentionMonitor, stripedBalances, ledgerJournal);
+    }
+
+    @Test
+    @DisplayName("Deve conferir o saldo do diário depois de travar as contas")
+    void shouldCheckJournalBalanceAfterLockingAccounts() {
+        // Given
+        when(accountRepository.lockBalancesOrderedById(List.of(1L, 2L)))
+                .thenReturn(List.of(new Object[]{1L, BigDecimal.ZERO}, new Object[]{2L, BigDecimal.ZERO}));
+        when(ledgerJournal.balanceForDebit(1L)).thenReturn(new BigDecimal("50.00"));
+
+        // When
+        boolean transferred = ledgerEngine.transfer(1L, 2L, new BigDecimal("50.00"));
+
+        // Then
+        assertThat(transferred).isTrue();
+        InOrder order = inOrder(accountRepository, ledgerJournal);
+        order.verify(accountRepository).lockBalancesOrderedById(List.of(1L, 2L));
+        order.verify(ledgerJournal).balanceForDebit(1L);
+        order.verify(accountRepository).transferBalance(1L, 2L, new BigDecimal("50.00"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar pelo diário mesmo quando a projeção cobre o débito")
+    void shouldRejectByJournalWhenProjectionCoversDebit() {
+        // Given
+        when(accountRepository.lockBalancesOrderedById(List.of(1L, 2L)))
+                .thenReturn(List.of(new Object[]{1L, new BigDecimal("100.00")}, new Object[]{2L, BigDecimal.ZERO}));
+        when(ledgerJournal.balanceForDebit(1L)).thenReturn(new BigDecimal("49.99"));
+
+        // When
+        boolean transferred = ledgerEngine.transfer(1L, 2L, new BigDecimal("50.00"));
+
+        // Then
+        assertThat(transferred).isFalse();
+        verify(accountRepository, never()).transferBalance(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve debitar a origem sem faixas pelo diário quando o destino tem faixas")
+    void shouldDebitUnstripedSourceByJournalWhenTargetIsStriped() {
+        // Given
+        when(stripedBalances.isStriped(1L)).thenReturn(false);
+        when(stripedBalances.isStriped(2L)).thenReturn(true);
+        when(accountRepository.lockBalancesOrderedById(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, BigDecimal.ZERO}));
+        when(ledgerJournal.balanceForDebit(1L)).thenReturn(new BigDecimal("80.00"));
+
+        // When
+        boolean transferred = ledgerEngine.transfer(1L, 2L, new BigDecimal("30.00"));
+
+        // Then
+        assertThat(transferred).isTrue();
+        verify(accountRepository).addToBalance(1L, new BigDecimal("-30.00"));
+        verify(stripedBalances).credit(2L, new BigDecimal("30.00"));
+        verify(accountRepository, never()).subtractFromBalance(any(), any());
+    }
+}
@@ -0,0 +1,310 @@
+package com.xunim.paymentsystem.service.ledger;
+
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.AccountBalanceStripe;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.repository.mysql.AccountBalanceStripeRepository;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StripedBalanceService Tests")
+class StripedBalanceServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountBalanceStripeRepository stripeRepository;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    private StripedBalanceService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StripedBalanceService(accountRepository, stripeRepository, ledgerJournal,
+                new SimpleMeterRegistry(), "sql", 30_000);
+    }
+
+    @Test
+    @DisplayName("Deve distribuir o saldo total igualmente entre as faixas")
+    void shouldSplitBalanceAcrossStripes() {
+        // Given
+        Account account = Account.builder().id(1L).balance(new BigDecimal("100.00")).build();
+        when(accountRepository.lockBalancesOrderedById(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, new BigDecimal("100.00")}));
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(stripeRepository.lockByAccountId(1L)).thenReturn(List.of());
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Account result = service.configureStripes(1L, 3);
+
+        // Then
+        ArgumentCaptor<AccountBalanceStripe> captor = ArgumentCaptor.forClass(AccountBalanceStripe.class);
+        verify(stripeRepository, times(3)).save(captor.capture());
+        assertThat(captor.getAllValues()).extracting(AccountBalanceStripe::getBalance)
+                .containsExactly(new BigDecimal("33.34"), new BigDecimal("33.33"), new BigDecimal("33.33"));
+        assertThat(result.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.getBalanceStripes()).isEqualTo(3);
+        assertThat(service.isStriped(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve retirar de várias faixas quando nenhuma cobre o débito sozinha")
+    void shouldDebitAcrossStripesWhenSingleStripeIsInsufficient() {
+        // Given
+        configureTwoStripes();
+        List<AccountBalanceStripe> stripes = new ArrayList<>(List.of(
+                stripe(0, "30.00"), stripe(1, "30.00")));
+        when(stripeRepository.subtractFromStripe(eq(1L), anyInt(), any())).thenReturn(0);
+        when(accountRepository.lockBalancesOrderedById(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, BigDecimal.ZERO}));
+        when(stripeRepository.lockByAccountId(1L)).thenReturn(stripes);
+        when(ledgerJournal.balanceForDebit(1L)).thenReturn(new BigDecimal("60.00"));
+
+        // When
+        boolean debited = inReadCommitted(() -> service.debit(1L, new BigDecimal("50.00")));
+
+        // Then
+        assertThat(debited).isTrue();
+        assertThat(stripes).extracting(AccountBalanceStripe::getBalance)
+                .containsExactly(new BigDecimal("0.00"), new BigDecimal("10.00"));
+        verify(accountRepository, never()).addToBalance(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar débito maior que o saldo do diário")
+    void shouldRejectDebitAboveJournalBalance() {
+        // Given
+        configureTwoStripes();
+        when(stripeRepository.subtractFromStripe(eq(1L), anyInt(), any())).thenReturn(0);
+        when(accountRepository.lockBalancesOrderedById(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, BigDecimal.ZERO}));
+        when(stripeRepository.lockByAccountId(1L)).thenReturn(List.of(stripe(0, "30.00"), stripe(1, "30.00")));
+        when(ledgerJournal.balanceForDebit(1L)).thenReturn(new BigDecimal("60.00"));
+
+        // When
+        boolean debited = inReadCommitted(() -> service.debit(1L, new BigDecimal("60.01")));
+
+        // Then
+        assertThat(debited).isFalse();
+        verify(stripeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar pelo diário mesmo quando a projeção nas faixas cobre o débito")
+    void shouldRejectByJournalWhenProjectionCoversDebit() {
+        // Given
+        configureTwoStripes();
+        when(stripeRepository.subtractFromStripe(eq(1L), anyInt(), any())).thenReturn(0);
+        when(accountRepository.lockBalancesOrderedById(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, BigDecimal.ZERO}));
+        when(stripeRepository.lockByAccountId(1L)).thenReturn(List.of(stripe(0, "30.00"), stripe(1, "30.00")));
+        when(ledgerJournal.balanceForDebit(1L)).thenReturn(new BigDecimal("40.00"));
+
+        // When
+        boolean debited = inReadCommitted(() -> service.debit(1L, new BigDecimal("50.00")));
+
+        // Then
+        assertThat(debited).isFalse();
+        verify(stripeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar faixas com o ledger em memória")
+    void shouldRejectStripesInMemoryMode() {
+        // Given
+        StripedBalanceService memoryService = new StripedBalanceService(accountRepository, stripeRepository,
+                ledgerJournal, new SimpleMeterRegistry(), "memory", 30_000);
+
+        // When & Then
+        assertThatThrownBy(() -> memoryService.configureStripes(1L, 4))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Faixas de saldo exigem o ledger em modo sql");
+    }
+
+    @Test
+    @DisplayName("Dois débitos lentos concorrentes na mesma conta devem terminar sem deadlock")
+    void shouldNotDeadlockConcurrentSlowPathDebits() throws Exception {
+        // Given: locks de linha presos até o fim da transação; em READ COMMITTED a faixa que não
+        // cobre o valor é liberada na hora
+        configureTwoStripes();
+        RowLocks rows = new RowLocks();
+        AtomicReference<BigDecimal> main = new AtomicReference<>(new BigDecimal("40.00"));
+        AtomicReference<BigDecimal> journal = new AtomicReference<>(new BigDecimal("100.00"));
+        Map<Integer, BigDecimal> stripeBalances = new ConcurrentHashMap<>(Map.of(
+                0, new BigDecimal("30.00"), 1, new BigDecimal("30.00")));
+        CyclicBarrier bothTriedStripe = new CyclicBarrier(2);
+
+        when(stripeRepository.subtractFromStripe(eq(1L), anyInt(), any())).thenAnswer(invocation -> {
+            String stripe = "stripe-" + invocation.getArgument(1);
+            rows.lock(stripe);
+            rows.release(stripe);
+            // Os dois tentam uma faixa antes de escalar
+            try {
+                bothTriedStripe.await(200, TimeUnit.MILLISECONDS);
+            } catch (BrokenBarrierException | TimeoutException e) {
+                // O outro débito espera a conta travada por este
+            }
+            return 0;
+        });
+        when(accountRepository.lockBalancesOrderedById(List.of(1L))).thenAnswer(invocation -> {
+            rows.lock("account");
+            return List.<Object[]>of(new Object[]{1L, main.get()});
+        });
+        when(stripeRepository.lockByAccountId(1L)).thenAnswer(invocation -> {
+            rows.lock("stripe-0");
+            rows.lock("stripe-1");
+            return new ArrayList<>(List.of(stripe(0, stripeBalances.get(0).toPlainString()),
+                    stripe(1, stripeBalances.get(1).toPlainString())));
+        });
+        when(ledgerJournal.balanceForDebit(1L)).thenAnswer(invocation -> journal.get());
+        when(stripeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<AccountBalanceStripe> saved = invocation.getArgument(0);
+            saved.forEach(stripe -> stripeBalances.put(stripe.getStripeIndex(), stripe.getBalance()));
+            return saved;
+        });
+        doAnswer(invocation -> {
+            main.updateAndGet(balance -> balance.add(invocation.getArgument(1)));
+            return null;
+        }).when(accountRepository).addToBalance(eq(1L), any());
+
+        // When
+        Callable<Boolean> debit = () -> rows.inTransaction(() -> inReadCommitted(() -> {
+            boolean debited = service.debit(1L, new BigDecimal("50.00"));
+            if (debited) {
+                // Lançamento gravado na mesma transação do débito
+                journal.updateAndGet(balance -> balance.subtract(new BigDecimal("50.00")));
+            }
+            return debited;
+        }));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> debits = executor.invokeAll(List.of(debit, debit));
+
+            // Then
+            for (Future<Boolean> result : debits) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(journal.get()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(main.get()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(stripeBalances.values()).allSatisfy(balance -> assertThat(balance).isEqualByComparingTo(BigDecimal.ZERO));
+    }
+
+    @Test
+    @DisplayName("Deve recusar débito fora de READ COMMITTED")
+    void shouldRejectDebitOutsideReadCommitted() {
+        // Given
+        configureTwoStripes();
+
+        // When & Then
+        assertThatThrownBy(() -> service.debit(1L, new BigDecimal("10.00")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Débito em faixas exige transação em READ COMMITTED");
+        verifyNoInteractions(stripeRepository, ledgerJournal);
+    }
+
+    @Test
+    @DisplayName("Deve debitar a faixa sem travar a conta nem ler o diário")
+    void shouldDebitStripeWithoutLockingAccountOrReadingJournal() {
+        // Given
+        configureTwoStripes();
+        when(stripeRepository.subtractFromStripe(eq(1L), anyInt(), any())).thenReturn(1);
+
+        // When
+        boolean debited = inReadCommitted(() -> service.debit(1L, new BigDecimal("10.00")));
+
+        // Then
+        assertThat(debited).isTrue();
+        verify(accountRepository, never()).lockBalancesOrderedById(any());
+        verifyNoInteractions(ledgerJournal);
+    }
+
+    private static <T> T inReadCommitted(Supplier<T> work) {
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        try {
+            return work.get();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(null);
+        }
+    }
+
+    private void configureTwoStripes() {
+        when(accountRepository.findStripedAccounts()).thenReturn(List.<Object[]>of(new Object[]{1L, 2}));
+        service.refresh();
+    }
+
+    private static AccountBalanceStripe stripe(int index, String balance) {
+        return AccountBalanceStripe.builder().accountId(1L).stripeIndex(index).balance(new BigDecimal(balance)).build();
+    }
+
+    /**
+     * Locks de linha por thread, liberados só no fim da transação. Uma espera longa conta como deadlock.
+     */
+    private static class RowLocks {
+
+        private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+        private final ThreadLocal<List<ReentrantLock>> held = ThreadLocal.withInitial(ArrayList::new);
+
+        void lock(String row) throws InterruptedException {
+            ReentrantLock lock = locks.computeIfAbsent(row, key -> new ReentrantLock());
+            if (!lock.tryLock(2, TimeUnit.SECONDS)) {
+                throw new CannotAcquireLockException("Deadlock esperando " + row);
+            }
+            held.get().add(lock);
+        }
+
+        void release(String row) {
+            ReentrantLock lock = locks.get(row);
+            held.get().remove(lock);
+            lock.unlock();
+        }
+
+        <T> T inTransaction(Supplier<T> work) {
+            try {
+                return work.get();
+            } finally {
+                held.get().forEach(ReentrantLock::unlock);
+                held.get().clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.xunim.paymentsystem.service.stats;
+
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentStatistics Tests")
+class PaymentStatisticsTest {
+
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStatistics statistics;
+    private LocalDateTime minute;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = new PaymentStatistics(paymentRepository, redisTemplate, meterRegistry,
+                Duration.ofHours(1), 5_000, 600_000, false);
+        minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(10);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o MySQL antes da primeira reconciliação")
+    void shouldFallBackToDatabaseBeforeReconciliation() {
+        // Given
+        when(paymentRepository.getTotalAmountByType(PaymentType.PIX)).thenReturn(new BigDecimal("42.00"));
+        when(paymentRepository.countByStatusSince(PaymentStatus.PENDING, minute)).thenReturn(3L);
+
+        // When / Then
+        assertThat(statistics.isReady()).isFalse();
+        assertThat(statistics.totalCompletedAmount(PaymentType.PIX)).isEqualByComparingTo("42.00");
+        assertThat(statistics.countSince(PaymentStatus.PENDING, minute)).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Deve somar valores concluídos em memória depois da reconciliação")
+    void shouldAccumulateCompletedAmountInMemory() {
+        // Given
+        reconcileWith(List.<Object[]>of(new Object[]{PaymentType.PIX, new BigDecimal("100.50")}), List.of());
+        Payment payment = payment(PaymentType.PIX, "20.25", PaymentStatus.COMPLETED);
+
+        // When
+        statistics.recordTransition(payment, PaymentStatus.PENDING);
+
+        // Then
+        assertThat(statistics.totalCompletedAmount(PaymentType.PIX)).isEqualByComparingTo("120.75");
+        assertThat(statistics.totalCompletedAmount(PaymentType.BOLETO)).isEqualByComparingTo("0.00");
+        verify(paymentRepository, never()).getTotalAmountByType(any());
+    }
+
+    @Test
+    @DisplayName("Deve contar por status a partir dos baldes de minuto")
+    void shouldCountByStatusFromMinuteBuckets() {
+        // Given
+        reconcileWith(List.of(), List.<Object[]>of(
+                new Object[]{minute.format(MINUTE_FORMAT), "PENDING", 4L},
+                new Object[]{minute.plusMinutes(2).format(MINUTE_FORMAT), "PENDING", 1L}));
+        statistics.recordCreated(List.of(payment(PaymentType.PIX, "10.00", PaymentStatus.PENDING)));
+        statistics.recordTransition(payment(PaymentType.PIX, "10.00", PaymentStatus.CANCELLED), PaymentStatus.PENDING);
+
+        // When
+        long pending = statistics.countSince(PaymentStatus.PENDING, minute);
+        long cancelled = statistics.countSince(PaymentStatus.CANCELLED, minute);
+
+        // Then
+        assertThat(pending).isEqualTo(5L);
+        assertThat(cancelled).isEqualTo(1L);
+        verify(paymentRepository, never()).countByStatusSince(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve consultar no MySQL apenas o minuto inicial parcial")
+    void shouldQueryOnlyPartialFirstMinute() {
+        // Given
+        reconcileWith(List.of(), List.<Object[]>of(
+                new Object[]{minute.format(MINUTE_FORMAT), "COMPLETED", 6L},
+                new Object[]{minute.plusMinutes(1).format(MINUTE_FORMAT), "COMPLETED", 2L}));
+        LocalDateTime since = minute.plusSeconds(30);
+        when(paymentRepository.countByStatusBetween(PaymentStatus.COMPLETED, since, minute.plusMinutes(1)))
+                .thenReturn(3L);
+
+        // When
+        long count = statistics.countSince(PaymentStatus.COMPLETED, since);
+
+        // Then
+        assertThat(count).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o MySQL para períodos anteriores à janela")
+    void shouldFallBackToDatabaseOutsideWindow() {
+        // Given
+        reconcileWith(List.of(), List.of());
+        LocalDateTime since = minute.minusHours(2);
+        when(paymentRepository.countByStatusSince(PaymentStatus.FAILED, since)).thenReturn(9L);
+
+        // When
+        long count = statistics.countSince(PaymentStatus.FAILED, since);
+
+        // Then
+        assertThat(count).isEqualTo(9L);
+    }
+
+    @Test
+    @DisplayName("Deve corrigir o desvio na reconciliação e registrá-lo em métrica")
+    void shouldCorrectDriftOnReconciliation() {
+        // Given
+        reconcileWith(List.<Object[]>of(new Object[]{PaymentType.PIX, new BigDecimal("10.00")}), List.of());
+        statistics.recordTransition(payment(PaymentType.PIX, "5.00", PaymentStatus.COMPLETED), PaymentStatus.PENDING);
+
+        // When: a transição acima não chegou a ser confirmada no banco
+        reconcileWith(List.<Object[]>of(new Object[]{PaymentType.PIX, new BigDecimal("10.00")}), List.of());
+
+        // Then
+        assertThat(statistics.totalCompletedAmount(PaymentType.PIX)).isEqualByComparingTo("10.00");
+        assertThat(meterRegistry.get("xunimpay.stats.drift").tag("kind", "amount_cents").gauge().value())
+                .isEqualTo(500.0);
+        assertThat(meterRegistry.counter("xunimpay.stats.reconciliations").count()).isEqualTo(2.0);
+    }
+
+    private void reconcileWith(List<Object[]> amounts, List<Object[]> counts) {
+        when(paymentRepository.sumCompletedAmountByType()).thenReturn(amounts);
+        when(paymentRepository.countByMinuteAndStatusSince(any())).thenReturn(counts);
+        statistics.reconcile();
+    }
+
+    private Payment payment(PaymentType type, String amount, PaymentStatus status) {
+        return Payment.builder()
+                .id(1L)
+                .amount(new BigDecimal(amount))
+                .paymentType(type)
+                .status(status)
+                .createdAt(minute.plusSeconds(15))
+                .build();
+    }
+}
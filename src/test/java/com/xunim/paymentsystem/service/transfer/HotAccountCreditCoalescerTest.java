@@ -0,0 +1,200 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import com.xunim.paymentsystem.entity.Account;
+import com.xunim.paymentsystem.entity.Payment;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.enums.PaymentType;
+import com.xunim.paymentsystem.repository.mysql.AccountRepository;
+import com.xunim.paymentsystem.repository.mysql.PaymentRepository;
+import com.xunim.paymentsystem.service.AuditService;
+import com.xunim.paymentsystem.service.ledger.LedgerJournal;
+import com.xunim.paymentsystem.service.stats.PaymentStatistics;
+import com.xunim.paymentsystem.service.ledger.StripedBalanceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HotAccountCreditCoalescer Tests")
+class HotAccountCreditCoalescerTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private TransferExecutor transferExecutor;
+
+    @Mock
+    private StripedBalanceService stripedBalances;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
+    @Mock
+    private PaymentStatistics paymentStatistics;
+
+    private HotAccountCreditCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transferExecutor.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+
+        coalescer = new HotAccountCreditCoalescer(paymentRepository, accountRepository, auditService, transferExecutor,
+                stripedBalances, ledgerJournal, paymentStatistics, new SimpleMeterRegistry(), "sql", Set.of(2L), 1_000, 3);
+        coalescer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.stop();
+    }
+
+    @Test
+    @DisplayName("Deve aplicar créditos agrupados em um único UPDATE")
+    void shouldApplyCoalescedCreditsInSingleUpdate() {
+        // Given
+        when(accountRepository.lockBalancesOrderedById(anyCollection())).thenReturn(List.<Object[]>of(row(2L)));
+        Account hotAccount = Account.builder().id(2L).build();
+        for (long id = 1; id <= 3; id++) {
+            Payment payment = Payment.builder()
+                    .id(id)
+                    .toAccount(hotAccount)
+                    .amount(new BigDecimal("10.00"))
+                    .paymentType(PaymentType.BOLETO)
+                    .status(PaymentStatus.PENDING)
+                    .build();
+            when(paymentRepository.findById(id)).thenReturn(Optional.of(payment));
+            when(paymentRepository.markProcessing(id)).thenReturn(1);
+        }
+
+        // When
+        List<CompletableFuture<Payment>> results = List.of(
+                coalescer.submit(2L, 1L), coalescer.submit(2L, 2L), coalescer.submit(2L, 3L));
+
+        // Then
+        assertThat(results).allSatisfy(result ->
+                assertThat(result.join().getStatus()).isEqualTo(PaymentStatus.COMPLETED));
+        verify(accountRepository).addToBalance(2L, new BigDecimal("30.00"));
+        verify(auditService, times(3)).logAction(eq("PAYMENT"), anyString(), eq("UPDATE"), anyString());
+    }
+
+    @Test
+    @DisplayName("Deve travar origens e conta quente juntas, em ordem de id, antes dos débitos")
+    void shouldLockSourcesAndHotAccountInIdOrderBeforeDebiting() {
+        // Given
+        Account hotAccount = Account.builder().id(2L).build();
+        for (long id = 1; id <= 3; id += 2) {
+            Payment payment = Payment.builder()
+                    .id(id)
+                    .fromAccount(Account.builder().id(id).build())
+                    .toAccount(hotAccount)
+                    .amount(new BigDecimal("10.00"))
+                    .paymentType(PaymentType.PIX)
+                    .status(PaymentStatus.PENDING)
+                    .build();
+            when(paymentRepository.findById(id)).thenReturn(Optional.of(payment));
+            when(paymentRepository.markProcessing(id)).thenReturn(1);
+        }
+        when(accountRepository.lockBalancesOrderedById(anyCollection()))
+                .thenReturn(List.of(row(1L), row(2L), row(3L)));
+        when(ledgerJournal.balancesForDebit(anyCollection()))
+                .thenReturn(new HashMap<>(Map.of(1L, new BigDecimal("10.00"), 3L, new BigDecimal("10.00"))));
+
+        // When
+        List<CompletableFuture<Payment>> results = List.of(coalescer.submit(2L, 3L), coalescer.submit(2L, 1L));
+
+        // Then
+        assertThat(results).allSatisfy(result ->
+                assertThat(result.join().getStatus()).isEqualTo(PaymentStatus.COMPLETED));
+        InOrder order = inOrder(accountRepository, ledgerJournal);
+        order.verify(accountRepository).lockBalancesOrderedById(argThat(ids -> List.copyOf(ids).equals(List.of(1L, 2L, 3L))));
+        order.verify(ledgerJournal).balancesForDebit(argThat(ids -> List.copyOf(ids).equals(List.of(1L, 3L))));
+        order.verify(accountRepository).addToBalance(1L, new BigDecimal("-10.00"));
+        order.verify(accountRepository).addToBalance(3L, new BigDecimal("-10.00"));
+        order.verify(accountRepository).addToBalance(2L, new BigDecimal("20.00"));
+    }
+
+    @Test
+    @DisplayName("Deve descontar do saldo do diário os débitos já aceitos no mesmo lote")
+    void shouldChargeEarlierBatchDebitsAgainstJournalBalance() {
+        // Given
+        Account hotAccount = Account.builder().id(2L).build();
+        Account source = Account.builder().id(1L).build();
+        for (long id = 10; id <= 11; id++) {
+            Payment payment = Payment.builder()
+                    .id(id)
+                    .fromAccount(source)
+                    .toAccount(hotAccount)
+                    .amount(new BigDecimal("10.00"))
+                    .paymentType(PaymentType.PIX)
+                    .status(PaymentStatus.PENDING)
+                    .build();
+            when(paymentRepository.findById(id)).thenReturn(Optional.of(payment));
+            when(paymentRepository.markProcessing(id)).thenReturn(1);
+        }
+        when(accountRepository.lockBalancesOrderedById(anyCollection())).thenReturn(List.of(row(1L), row(2L)));
+        when(ledgerJournal.balancesForDebit(anyCollection()))
+                .thenReturn(new HashMap<>(Map.of(1L, new BigDecimal("15.00"))));
+
+        // When
+        CompletableFuture<Payment> first = coalescer.submit(2L, 10L);
+        CompletableFuture<Payment> second = coalescer.submit(2L, 11L);
+
+        // Then
+        assertThat(first.join().getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+        assertThat(second.join().getStatus()).isEqualTo(PaymentStatus.FAILED);
+        verify(accountRepository).addToBalance(1L, new BigDecimal("-10.00"));
+        verify(accountRepository).addToBalance(2L, new BigDecimal("10.00"));
+    }
+
+    @Test
+    @DisplayName("Não deve subir com contas quentes quando o ledger não está em modo sql")
+    void shouldRefuseToStartOutsideSqlMode() {
+        // When & Then
+        assertThatThrownBy(() -> new HotAccountCreditCoalescer(paymentRepository, accountRepository, auditService,
+                transferExecutor, stripedBalances, ledgerJournal, paymentStatistics, new SimpleMeterRegistry(), "memory", Set.of(2L), 5, 100))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("modo sql");
+    }
+
+    @Test
+    @DisplayName("Deve ficar desativado sem contas quentes em qualquer modo do ledger")
+    void shouldBeDisabledWithoutHotAccounts() {
+        // Given
+        HotAccountCreditCoalescer memoryCoalescer = new HotAccountCreditCoalescer(paymentRepository, accountRepository,
+                auditService, transferExecutor, stripedBalances, ledgerJournal, paymentStatistics, new SimpleMeterRegistry(), "memory", Set.of(), 5, 100);
+
+        // Then
+        assertThat(memoryCoalescer.isEnabled()).isFalse();
+        assertThat(memoryCoalescer.isHotAccount(2L)).isFalse();
+    }
+
+    private static Object[] row(long accountId) {
+        return new Object[]{accountId, new BigDecimal("100.00")};
+    }
+}
@@ -0,0 +1,138 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import com.xunim.paymentsystem.dto.response.PaymentResponseDTO;
+import com.xunim.paymentsystem.enums.PaymentStatus;
+import com.xunim.paymentsystem.exception.BusinessException;
+import com.xunim.paymentsystem.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PendingPaymentSweeper Tests")
+class PendingPaymentSweeperTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private PendingPaymentSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:sweeper;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=100");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, from_account_id BIGINT NULL, " +
+                "to_account_id BIGINT NOT NULL, status VARCHAR(20) NOT NULL, claimed_until TIMESTAMP(6) NULL)");
+
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new PendingPaymentSweeper(paymentService, jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), meterRegistry, 1_000, 10, 2, 0, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sweeper.stop();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Deve agrupar pagamentos que compartilham contas mantendo a ordem de ID")
+    void shouldGroupPaymentsBySharedAccount() {
+        // Given
+        List<PendingPaymentSweeper.ClaimedPayment> payments = List.of(
+                new PendingPaymentSweeper.ClaimedPayment(1L, 10L, 20L),
+                new PendingPaymentSweeper.ClaimedPayment(2L, 30L, 40L),
+                new PendingPaymentSweeper.ClaimedPayment(3L, 20L, 50L),
+                new PendingPaymentSweeper.ClaimedPayment(4L, null, 40L),
+                new PendingPaymentSweeper.ClaimedPayment(5L, null, 60L));
+
+        // When
+        List<List<Long>> groups = PendingPaymentSweeper.groupBySharedAccount(payments);
+
+        // Then
+        assertThat(groups).containsExactly(List.of(1L, 3L), List.of(2L, 4L), List.of(5L));
+    }
+
+    @Test
+    @DisplayName("Deve reservar e processar apenas pagamentos pendentes sem reserva ativa")
+    void shouldClaimAndProcessPendingPayments() {
+        // Given
+        insertPayment(1L, 10L, 20L, "PENDING", null);
+        insertPayment(2L, null, 30L, "PENDING", null);
+        insertPayment(3L, 10L, 30L, "COMPLETED", null);
+        insertPayment(4L, 40L, 50L, "PENDING", LocalDateTime.now().plusMinutes(1));
+        insertPayment(5L, 40L, 60L, "PENDING", LocalDateTime.now().minusMinutes(1));
+        when(paymentService.processPayment(anyLong()))
+                .thenReturn(PaymentResponseDTO.builder().status(PaymentStatus.COMPLETED).build());
+        when(paymentService.processPayment(2L)).thenThrow(new BusinessException("Apenas pagamentos pendentes podem ser processados"));
+
+        // When
+        int claimed = sweeper.sweepChunk();
+
+        // Then
+        assertThat(claimed).isEqualTo(3);
+        verify(paymentService).processPayment(1L);
+        verify(paymentService).processPayment(2L);
+        verify(paymentService).processPayment(5L);
+        verifyNoMoreInteractions(paymentService);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments WHERE id IN (1, 2, 5) AND claimed_until > CURRENT_TIMESTAMP", Integer.class))
+                .isEqualTo(3);
+        assertThat(meterRegistry.counter("xunimpay.sweeper.payments", "result", "completed").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("xunimpay.sweeper.payments", "result", "skipped").count()).isEqualTo(1);
+
+        // Reservas ainda válidas não são reprocessadas por outra rodada
+        assertThat(sweeper.sweepChunk()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve pular pagamentos travados por outro nó")
+    void shouldSkipPaymentsLockedByAnotherNode() throws Exception {
+        // Given
+        insertPayment(1L, 10L, 20L, "PENDING", null);
+        insertPayment(2L, 30L, 40L, "PENDING", null);
+        when(paymentService.processPayment(2L))
+                .thenReturn(PaymentResponseDTO.builder().status(PaymentStatus.COMPLETED).build());
+
+        try (Connection otherNode = dataSource.getConnection(); Statement statement = otherNode.createStatement()) {
+            otherNode.setAutoCommit(false);
+            statement.executeQuery("SELECT id FROM payments WHERE id = 1 FOR UPDATE");
+
+            // When
+            int claimed = sweeper.sweepChunk();
+
+            // Then
+            assertThat(claimed).isEqualTo(1);
+            verify(paymentService).processPayment(2L);
+            verify(paymentService, never()).processPayment(1L);
+            otherNode.rollback();
+        }
+    }
+
+    private void insertPayment(Long id, Long fromAccountId, Long toAccountId, String status, LocalDateTime claimedUntil) {
+        jdbcTemplate.update("INSERT INTO payments (id, from_account_id, to_account_id, status, claimed_until) VALUES (?, ?, ?, ?, ?)",
+                id, fromAccountId, toAccountId, status, claimedUntil);
+    }
+}
@@ -0,0 +1,91 @@
+package com.xunim.paymentsystem.service.transfer;
+
+import com.xunim.paymentsystem.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransferExecutor Tests")
+class TransferExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferExecutor transferExecutor;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        transferExecutor = new TransferExecutor(transactionManager, meterRegistry, 3, 1, 2);
+    }
+
+    @Test
+    @DisplayName("Deve repetir a transação após deadlock")
+    void shouldRetryAfterDeadlock() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = transferExecutor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("deadlock", new SQLException("Deadlock found", "40001", 1213));
+            }
+            return "ok";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.counter("xunimpay.transfer.retries").count()).isEqualTo(2);
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Deve desistir após esgotar as tentativas")
+    void shouldGiveUpAfterMaxAttempts() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> transferExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("lock wait timeout");
+        })).isInstanceOf(CannotAcquireLockException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.counter("xunimpay.transfer.retries.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve repetir erros de negócio")
+    void shouldNotRetryBusinessErrors() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> transferExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new BusinessException("Saldo insuficiente");
+        })).isInstanceOf(BusinessException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+}
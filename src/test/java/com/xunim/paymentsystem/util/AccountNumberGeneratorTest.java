@@ -0,0 +1,144 @@
+package com.xunim.paymentsystem.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AccountNumberGenerator Tests")
+class AccountNumberGeneratorTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:account_numbers;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE account_number_seq (next_val BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO account_number_seq (next_val) VALUES (1000000)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Deve calcular o dígito verificador pela soma ponderada dos dígitos")
+    void shouldCalculateCheckDigit() {
+        // 1*1 + 2*2 + 3*3 + 4*4 + 5*5 + 6*6 = 91
+        assertThat(AccountNumberGenerator.calculateCheckDigit(123456)).isEqualTo(1);
+        // 1*1 = 1
+        assertThat(AccountNumberGenerator.calculateCheckDigit(1000000)).isEqualTo(1);
+        assertThat(AccountNumberGenerator.calculateCheckDigit(0)).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve distribuir números sequenciais e reservar um bloco por vez")
+    void shouldHandOutSequentialNumbersFromBlocks() {
+        // Given
+        AccountNumberGenerator generator = newGenerator(3);
+
+        // When
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            numbers.add(generator.generateAccountNumber());
+        }
+
+        // Then
+        assertThat(numbers).containsExactly("001-1000000-1", "001-1000001-8", "001-1000002-5", "001-1000003-2");
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM account_number_seq", Long.class))
+                .isEqualTo(1000006L);
+    }
+
+    @Test
+    @DisplayName("Deve reservar o próximo bloco quando metade do atual foi usada")
+    void shouldReserveNextBlockAheadOfTime() throws InterruptedException {
+        // Given
+        AccountNumberGenerator generator = newGenerator(4);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            generator.generateAccountNumber();
+        }
+        for (int i = 0; i < 500 && nextVal() < 1000008L; i++) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertThat(nextVal()).isEqualTo(1000008L);
+        assertThat(generator.generateAccountNumber()).isEqualTo("001-1000003-2");
+        assertThat(generator.generateAccountNumber()).isEqualTo("001-1000004-9");
+        assertThat(nextVal()).isEqualTo(1000008L);
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha da reserva e tentar de novo na próxima chamada")
+    void shouldPropagateReservationFailureAndRetry() {
+        // Given
+        AccountNumberGenerator generator = newGenerator(2);
+        jdbcTemplate.execute("ALTER TABLE account_number_seq RENAME TO account_number_seq_old");
+
+        // When & Then
+        assertThatThrownBy(generator::generateAccountNumber).isInstanceOf(DataAccessException.class);
+
+        jdbcTemplate.execute("ALTER TABLE account_number_seq_old RENAME TO account_number_seq");
+        assertThat(generator.generateAccountNumber()).isEqualTo("001-1000000-1");
+    }
+
+    @Test
+    @DisplayName("Não deve repetir números entre instâncias e threads concorrentes")
+    void shouldNotCollideAcrossNodesAndThreads() throws Exception {
+        // Given
+        List<AccountNumberGenerator> nodes = List.of(newGenerator(7), newGenerator(7));
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            AccountNumberGenerator node = nodes.get(t % 2);
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 250; i++) {
+                    numbers.add(node.generateAccountNumber());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Then
+        assertThat(numbers).hasSize(2_000);
+    }
+
+    private long nextVal() {
+        return jdbcTemplate.queryForObject("SELECT next_val FROM account_number_seq", Long.class);
+    }
+
+    private AccountNumberGenerator newGenerator(int blockSize) {
+        return new AccountNumberGenerator(jdbcTemplate, new DataSourceTransactionManager(dataSource), blockSize);
+    }
+}
@@ -0,0 +1,92 @@
+package com.xunim.paymentsystem.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TransactionIdGenerator Tests")
+class TransactionIdGeneratorTest {
+
+    @Test
+    @DisplayName("Deve gerar IDs crescentes com texto na mesma ordem")
+    void shouldGenerateMonotonicIds() {
+        // Given
+        TransactionIdGenerator generator = new TransactionIdGenerator(7);
+        List<String> ids = new ArrayList<>();
+
+        // When
+        long previous = -1;
+        for (int i = 0; i < 20_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+            ids.add(TransactionIdGenerator.encode(id));
+        }
+
+        // Then
+        assertThat(ids).isSorted();
+        assertThat(TransactionIdGenerator.nodeIdOf(previous)).isEqualTo(7);
+        assertThat(TransactionIdGenerator.decode(ids.get(ids.size() - 1))).isEqualTo(previous);
+    }
+
+    @Test
+    @DisplayName("Deve gerar IDs únicos entre threads concorrentes")
+    void shouldGenerateUniqueIdsConcurrently() throws InterruptedException {
+        // Given
+        TransactionIdGenerator generator = new TransactionIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+                done.countDown();
+            });
+        }
+        done.await(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertThat(ids).hasSize(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("Deve codificar o ID com prefixo e timestamp recuperável")
+    void shouldEncodeWithPrefixAndTimestamp() {
+        // Given
+        TransactionIdGenerator generator = new TransactionIdGenerator(0);
+
+        // When
+        String transactionId = generator.nextTransactionId();
+
+        // Then
+        assertThat(transactionId).startsWith("TXN-").hasSize(17);
+        Instant timestamp = TransactionIdGenerator.timestampOf(TransactionIdGenerator.decode(transactionId));
+        assertThat(Duration.between(timestamp, Instant.now()).abs()).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar node ID fora do intervalo")
+    void shouldRejectInvalidNodeId() {
+        assertThatThrownBy(() -> new TransactionIdGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
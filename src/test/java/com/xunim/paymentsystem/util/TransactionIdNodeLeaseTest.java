@@ -0,0 +1,168 @@
+package com.xunim.paymentsystem.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TransactionIdNodeLease Tests")
+class TransactionIdNodeLeaseTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final List<TransactionIdNodeLease> leases = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:transaction_id_nodes;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE transaction_id_nodes (node_id INT NOT NULL PRIMARY KEY, " +
+                "owner VARCHAR(64) NOT NULL, leased_until TIMESTAMP(6) NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        leases.forEach(TransactionIdNodeLease::stop);
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Deve alugar node IDs distintos para instâncias distintas")
+    void shouldLeaseDistinctNodeIds() {
+        // When
+        long first = newLease(-1).acquire();
+        long second = newLease(-1).acquire();
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_id_nodes", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve reusar o node ID cujo prazo venceu")
+    void shouldReuseExpiredNodeId() {
+        // Given
+        newLease(-1).acquire();
+        newLease(-1).acquire();
+        jdbcTemplate.update("UPDATE transaction_id_nodes SET leased_until = TIMESTAMPADD(MINUTE, -5, CURRENT_TIMESTAMP(6)) " +
+                "WHERE node_id = 0");
+
+        // When
+        long reused = newLease(-1).acquire();
+
+        // Then
+        assertThat(reused).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve alugar outro node ID quando a renovação encontra o atual tomado")
+    void shouldReassignWhenLeaseWasTaken() {
+        // Given
+        TransactionIdNodeLease lease = newLease(-1);
+        AtomicLong reassigned = new AtomicLong(-1);
+        lease.onReassigned(reassigned::set);
+        lease.acquire();
+        jdbcTemplate.update("UPDATE transaction_id_nodes SET owner = 'outra-instancia' WHERE node_id = 0");
+
+        // When
+        lease.renew();
+
+        // Then
+        assertThat(reassigned.get()).isEqualTo(1);
+        assertThat(lease.acquire()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve usar o node ID configurado sem consultar o banco")
+    void shouldUseConfiguredNodeId() {
+        // When
+        long nodeId = newLease(42).acquire();
+
+        // Then
+        assertThat(nodeId).isEqualTo(42);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_id_nodes", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve passar o node ID alugado ao gerador")
+    void shouldHandLeasedNodeIdToGenerator() {
+        // Given
+        newLease(-1).acquire();
+
+        // When
+        TransactionIdGenerator generator = new TransactionIdGenerator(newLease(-1));
+
+        // Then
+        assertThat(TransactionIdGenerator.nodeIdOf(generator.nextId())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve suspender IDs quando o prazo vence sem renovação e retomar após renovar")
+    void shouldSuspendIdsWhenLeaseExpiresLocally() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        TransactionIdNodeLease lease = newLease(-1, clock);
+        TransactionIdGenerator generator = new TransactionIdGenerator(lease);
+        generator.nextId();
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Then
+        assertThat(lease.isValid()).isFalse();
+        assertThatThrownBy(generator::nextId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("IDs de transação suspensos");
+
+        // When
+        lease.renew();
+
+        // Then
+        assertThat(lease.isValid()).isTrue();
+        assertThat(TransactionIdGenerator.nodeIdOf(generator.nextId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve manter a geração suspensa enquanto a renovação falha")
+    void shouldStaySuspendedWhileRenewalFails() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        TransactionIdNodeLease lease = newLease(-1, clock);
+        TransactionIdGenerator generator = new TransactionIdGenerator(lease);
+        jdbcTemplate.execute("ALTER TABLE transaction_id_nodes RENAME TO transaction_id_nodes_offline");
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        lease.renew();
+        boolean validBeforeDeadline = lease.isValid();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        lease.renew();
+
+        // Then
+        assertThat(validBeforeDeadline).isTrue();
+        assertThat(lease.isValid()).isFalse();
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    private TransactionIdNodeLease newLease(long configuredNodeId) {
+        return newLease(configuredNodeId, new AtomicLong(System.nanoTime()));
+    }
+
+    private TransactionIdNodeLease newLease(long configuredNodeId, AtomicLong clock) {
+        TransactionIdNodeLease lease = new TransactionIdNodeLease(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), configuredNodeId, 30, clock::get);
+        leases.add(lease);
+        return lease;
+    }
+}
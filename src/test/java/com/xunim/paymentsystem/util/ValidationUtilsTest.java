@@ -0,0 +1,129 @@
+package com.xunim.paymentsystem.util;
+
+import com.xunim.paymentsystem.util.ValidationUtils.DocumentType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ValidationUtils Tests")
+class ValidationUtilsTest {
+
+    private final ValidationUtils validationUtils = new ValidationUtils();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"11144477735", "111.444.777-35", "12345678909", "123.456.789-09"})
+    @DisplayName("Deve aceitar CPF válido com ou sem máscara")
+    void shouldAcceptValidCpf(String cpf) {
+        assertThat(validationUtils.isValidCPF(cpf)).isTrue();
+        assertThat(validationUtils.getDocumentType(cpf)).isEqualTo(DocumentType.CPF);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"11222333000181", "11.222.333/0001-81", "12345678000195", "12.345.678/0001-95"})
+    @DisplayName("Deve aceitar CNPJ válido com ou sem máscara")
+    void shouldAcceptValidCnpj(String cnpj) {
+        assertThat(validationUtils.isValidCNPJ(cnpj)).isTrue();
+        assertThat(validationUtils.getDocumentType(cnpj)).isEqualTo(DocumentType.CNPJ);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "11144477736",      // segundo dígito verificador errado
+            "11144477725",      // primeiro dígito verificador errado
+            "22222222222",      // dígitos repetidos
+            "222.222.222-22",
+            "1114447773X",
+            "111.444.777.35",   // separador fora da máscara
+            "111444.777-35",
+            "111.444.77735",
+            "1114447773",       // tamanho
+            "111444777350",
+            "12.345.678/0001-90"
+    })
+    @DisplayName("Deve rejeitar documentos inválidos")
+    void shouldRejectInvalidDocuments(String document) {
+        assertThat(validationUtils.getDocumentType(document)).isEqualTo(DocumentType.INVALID);
+    }
+
+    @Test
+    @DisplayName("Deve calcular os dígitos verificadores para qualquer base")
+    void shouldMatchCheckDigitAlgorithm() {
+        // Given
+        Random random = new Random(42);
+
+        for (int n = 0; n < 10_000; n++) {
+            int[] cpf = withCheckDigits(random,
+                    new int[]{10, 9, 8, 7, 6, 5, 4, 3, 2}, new int[]{11, 10, 9, 8, 7, 6, 5, 4, 3, 2});
+            int[] cnpj = withCheckDigits(random,
+                    new int[]{5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2}, new int[]{6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2});
+
+            // When / Then
+            if (!allEqual(cpf)) {
+                assertThat(validationUtils.isValidCPF(digits(cpf))).as(digits(cpf)).isTrue();
+            }
+            if (!allEqual(cnpj)) {
+                assertThat(validationUtils.isValidCNPJ(digits(cnpj))).as(digits(cnpj)).isTrue();
+            }
+            cpf[10] = (cpf[10] + 1) % 10;
+            cnpj[13] = (cnpj[13] + 1) % 10;
+            assertThat(validationUtils.isValidCPF(digits(cpf))).as(digits(cpf)).isFalse();
+            assertThat(validationUtils.isValidCNPJ(digits(cnpj))).as(digits(cnpj)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve apontar os índices inválidos de um lote")
+    void shouldFindInvalidDocumentsInBatch() {
+        // Given
+        List<String> documents = Arrays.asList(
+                "11144477735", "11144477736", "12.345.678/0001-95", null, "123.456.789-09", "abc");
+
+        // When
+        BitSet invalid = validationUtils.findInvalidDocuments(documents);
+
+        // Then
+        assertThat(invalid.stream().toArray()).containsExactly(1, 3, 5);
+    }
+
+    // Base aleatória + dígitos verificadores pela definição da Receita
+    private static int[] withCheckDigits(Random random, int[] weights1, int[] weights2) {
+        int[] digits = new int[weights2.length + 1];
+        for (int i = 0; i < weights1.length; i++) {
+            digits[i] = random.nextInt(10);
+        }
+        digits[weights1.length] = checkDigit(digits, weights1);
+        digits[weights2.length] = checkDigit(digits, weights2);
+        return digits;
+    }
+
+    private static int checkDigit(int[] digits, int[] weights) {
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += digits[i] * weights[i];
+        }
+        int remainder = sum % 11;
+        return remainder < 2 ? 0 : 11 - remainder;
+    }
+
+    private static boolean allEqual(int[] digits) {
+        return Arrays.stream(digits).distinct().count() == 1;
+    }
+
+    private static String digits(int[] digits) {
+        StringBuilder builder = new StringBuilder(digits.length);
+        for (int digit : digits) {
+            builder.append(digit);
+        }
+        return builder.toString();
+    }
+}